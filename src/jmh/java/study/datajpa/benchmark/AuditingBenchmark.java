@@ -0,0 +1,68 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.datajpa.audit.AuditingContext;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * 감사 필드 채우는 비용: cache=false 가 변경 전 (엔티티마다 UUID.randomUUID(), LocalDateTime.now())
+ * insert 는 @PrePersist 가 flush 밖에서 호출되어 시각은 두 경우 모두 엔티티마다 읽으므로 cache=true 의 차이는 작성자 캐시만
+ * (flush 당 한 번 읽는 시각은 수정(@PreUpdate) 에만 적용)
+ * ./gradlew jmh -Pjmh.includes=AuditingBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class AuditingBenchmark {
+
+    private static final int ROWS = 1000;
+
+    @Param({"false", "true"})
+    boolean cache;
+
+    ConfigurableApplicationContext context;
+    MemberRepository memberRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("auditing" + cache,
+                "datajpa.audit.cache-auditor=" + cache,
+                "datajpa.audit.cache-time=" + cache);
+        memberRepository = context.getBean(MemberRepository.class);
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteMembers() {
+        memberRepository.deleteAllInBatch();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    // 초당 처리한 batch 수 (batch 당 ROWS 건)
+    @Benchmark
+    public long insert() {
+        return memberRepository.saveAllBatched(newMembers(), ROWS);
+    }
+
+    @Benchmark
+    public long insertWithoutLastModified() {
+        return AuditingContext.withoutLastModified(() -> memberRepository.saveAllBatched(newMembers(), ROWS));
+    }
+
+    private List<Member> newMembers() {
+        List<Member> members = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            members.add(new Member("member" + i, i % 100));
+        }
+        return members;
+    }
+}
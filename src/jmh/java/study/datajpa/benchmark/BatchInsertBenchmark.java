@@ -0,0 +1,89 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * 초당 insert 건수
+ * - saveEach: 변경 전 경로, MemberController.init() 처럼 트랜잭션 하나에 save() 한 번 (LegacyMember: 기본 id 생성, 인덱스 없는 테이블)
+ * - saveEachMember: 같은 방식으로 지금의 Member (pooled 시퀀스, 인덱스 3개, 2차 캐시)
+ * - saveAllBatched: Member 를 JDBC batch 로, batchSize 건마다 flush 후 저장한 엔티티 detach
+ * embedded H2 는 네트워크 왕복이 없어서 batch 효과가 실제 DB 보다 작게 나옴
+ *   ./gradlew jmh -Pjmh.includes=BatchInsertBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BatchInsertBenchmark {
+
+    private static final int ROWS = 1000;
+
+    @Param({"100"})
+    int batchSize;
+
+    ConfigurableApplicationContext context;
+    MemberRepository memberRepository;
+    SimpleJpaRepository<LegacyMember, Long> legacyRepository;
+    TransactionTemplate transaction;
+    JdbcTemplate jdbcTemplate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("batchInsert",
+                "datajpa.query-budget.enabled=false",
+                "datajpa.persistence-context.enabled=false");
+        memberRepository = context.getBean(MemberRepository.class);
+        legacyRepository = new SimpleJpaRepository<>(LegacyMember.class, context.getBean(EntityManager.class));
+        transaction = context.getBean(TransactionTemplate.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteRows() {
+        jdbcTemplate.update("delete from legacy_member");
+        jdbcTemplate.update("delete from member where username like 'batched%'");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void saveEach() {
+        for (int i = 0; i < ROWS; i++) {
+            LegacyMember member = new LegacyMember("legacy" + i, i % 100);
+            transaction.executeWithoutResult(status -> legacyRepository.save(member));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void saveEachMember() {
+        for (int i = 0; i < ROWS; i++) {
+            Member member = new Member("batched" + i, i % 100);
+            transaction.executeWithoutResult(status -> memberRepository.save(member));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long saveAllBatched() {
+        List<Member> members = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            members.add(new Member("batched" + i, i % 100));
+        }
+        return memberRepository.saveAllBatched(members, batchSize);
+    }
+}
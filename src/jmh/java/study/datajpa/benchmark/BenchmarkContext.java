@@ -0,0 +1,77 @@
+package study.datajpa.benchmark;
+
+import org.hibernate.engine.spi.ManagedEntity;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.datajpa.DataJpaApplication;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 벤치마크용 스프링 컨텍스트 (embedded H2, SQL 로그 off)
+ */
+public final class BenchmarkContext {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private BenchmarkContext() {
+    }
+
+    // properties: "key=value" 형식, application.yml 보다 우선 적용
+    public static ConfigurableApplicationContext start(String databaseName, String... properties) {
+        requireEnhancement();
+        List<String> args = new ArrayList<>();
+        args.add("--spring.datasource.url=jdbc:h2:mem:" + databaseName + ";DB_CLOSE_DELAY=-1");
+        args.add("--decorator.datasource.enabled=false");
+        args.add("--logging.level.org.hibernate.SQL=warn");
+        // jmh 클래스패스에 test 리소스(query-budget.mode: fail) 가 있어도 측정 중에는 경고만
+        args.add("--datajpa.query-budget.mode=log");
+        args.add("--spring.main.banner-mode=off");
+        for (String property : properties) {
+            args.add("--" + property);
+        }
+
+        return new SpringApplicationBuilder(DataJpaApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args.toArray(new String[0]));
+    }
+
+    // build.gradle 이 넘겨준 hibernate.enhance 와 실제 엔티티 클래스가 다르면 (향상되지 않은 클래스로 측정) 중단
+    private static void requireEnhancement() {
+        String property = System.getProperty("hibernate.enhance");
+        boolean enhanced = ManagedEntity.class.isAssignableFrom(Member.class);
+        if (property != null && Boolean.parseBoolean(property) != enhanced) {
+            throw new IllegalStateException("hibernate.enhance=" + property + " but Member is "
+                    + (enhanced ? "enhanced" : "not enhanced"));
+        }
+    }
+
+    // member 는 teams 개의 팀에 골고루 배정
+    public static void seed(ConfigurableApplicationContext context, int members, int teams) {
+        TeamRepository teamRepository = context.getBean(TeamRepository.class);
+        MemberRepository memberRepository = context.getBean(MemberRepository.class);
+
+        List<Team> teamList = new ArrayList<>();
+        for (int i = 0; i < teams; i++) {
+            teamList.add(new Team("team" + i));
+        }
+        teamRepository.saveAllBatched(teamList, BATCH_SIZE);
+
+        List<Member> chunk = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < members; i++) {
+            Team team = teams > 0 ? teamList.get(i % teams) : null;
+            chunk.add(new Member("user" + i, i % 100, team));
+            if (chunk.size() == BATCH_SIZE) {
+                memberRepository.saveAllBatched(chunk, BATCH_SIZE);
+                chunk.clear();
+            }
+        }
+        memberRepository.saveAllBatched(chunk, BATCH_SIZE);
+    }
+}
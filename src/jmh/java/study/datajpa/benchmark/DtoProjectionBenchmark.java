@@ -0,0 +1,70 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * /v2/members 조회 방식 비교 (힙 사용량은 -prof gc 의 gc.alloc.rate.norm, 요청당 할당 bytes)
+ * - entityThenMap: 변경 전, Member 엔티티 조회 후 MemberDto::new (영속성 컨텍스트 + 스냅샷 + 감사 필드)
+ * - dtoQuery: DtoQueryExecutor, id 페이지를 조회한 뒤 그 id 들만 select new MemberDto(...) 로 조회 (팀 이름까지 join)
+ * page: 0 은 조회/변환 비용만, deep 은 offset 만큼 건너뛰는 비용 포함
+ *   (team left join 은 페이지의 id 에만 수행하므로 건너뛰는 row 에는 join 비용이 없음)
+ * ./gradlew jmh -Pjmh.includes=DtoProjectionBenchmark  (jmh { profilers = ['gc'] })
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DtoProjectionBenchmark {
+
+    @Param({"10000"})
+    int members;
+
+    @Param({"10"})
+    int teams;
+
+    @Param({"20", "500"})
+    int pageSize;
+
+    @Param({"first", "deep"})
+    String page;
+
+    ConfigurableApplicationContext context;
+    MemberRepository memberRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("projection" + members + "_" + pageSize,
+                "datajpa.query-budget.enabled=false");
+        BenchmarkContext.seed(context, members, teams);
+        memberRepository = context.getBean(MemberRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void entityThenMap(Blackhole bh) {
+        bh.consume(memberRepository.findAll(nextPage()).map(MemberDto::new));
+    }
+
+    @Benchmark
+    public void dtoQuery(Blackhole bh) {
+        bh.consume(memberRepository.findDtoPage(MemberDto.class, nextPage()));
+    }
+
+    private PageRequest nextPage() {
+        int lastPage = Math.max(members / pageSize - 1, 0);
+        int pageNumber = "first".equals(page) ? 0 : ThreadLocalRandom.current().nextInt(lastPage + 1);
+        return PageRequest.of(pageNumber, pageSize, Sort.by("username"));
+    }
+}
@@ -0,0 +1,67 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.datajpa.entity.Member;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * 회원 members 건(+ 팀)을 영속성 컨텍스트에 올려둔 채로 flush 하는 비용
+ * - flushClean: 변경 없음, 관리 중인 엔티티를 모두 dirty check 하는 비용만
+ * - flushOneDirty: 한 건 변경 후 flush (update 1건 포함)
+ * 바이트코드 향상(build.gradle hibernate.enhance) 전후 비교
+ *   ./gradlew jmh -Pjmh.includes=FlushBenchmark
+ *   ./gradlew jmh -Pjmh.includes=FlushBenchmark -Phibernate.enhance=false
+ * 1M: -Pjmh.members=1000000 -Pjmh.heap=6g
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class FlushBenchmark {
+
+    @Param({"10000", "100000"})
+    int members;
+
+    @Param({"100"})
+    int teams;
+
+    ConfigurableApplicationContext context;
+    EntityManager em;
+    List<Member> loaded;
+    int next;
+
+    // 트랜잭션 하나를 trial 동안 유지 (스프링 트랜잭션은 스레드에 묶이므로 EntityManager 를 직접 사용)
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("flush" + members,
+                "datajpa.query-budget.enabled=false",
+                "datajpa.persistence-context.enabled=false");
+        BenchmarkContext.seed(context, members, teams);
+        em = context.getBean(EntityManagerFactory.class).createEntityManager();
+        em.getTransaction().begin();
+        loaded = em.createQuery("select m from Member m left join fetch m.team", Member.class).getResultList();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        em.getTransaction().rollback();
+        em.close();
+        context.close();
+    }
+
+    @Benchmark
+    public void flushClean() {
+        em.flush();
+    }
+
+    @Benchmark
+    public void flushOneDirty() {
+        Member member = loaded.get(next++ % loaded.size());
+        member.setAge(member.getAge() + 1);
+        em.flush();
+    }
+}
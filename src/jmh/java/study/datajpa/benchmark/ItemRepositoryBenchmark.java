@@ -0,0 +1,94 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Item;
+import study.datajpa.repository.ItemRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * 식별자를 직접 할당하는 Item 대량 insert 비교
+ * mergeEach 는 isNew() 를 판단하지 못해 merge 로 저장될 때 (건마다 select 후 insert)
+ * ./gradlew jmh -Pjmh.includes=ItemRepositoryBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ItemRepositoryBenchmark {
+
+    private static final int BATCH_SIZE = 1000;
+
+    @Param({"1000", "10000"})
+    int items;
+
+    ConfigurableApplicationContext context;
+    ItemRepository itemRepository;
+    EntityManager em;
+    TransactionTemplate readWrite;
+    final AtomicLong sequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("item" + items);
+        itemRepository = context.getBean(ItemRepository.class);
+        em = SharedEntityManagerCreator.createSharedEntityManager(context.getBean(EntityManagerFactory.class));
+        readWrite = context.getBean(TransactionTemplate.class);
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteItems() {
+        itemRepository.deleteAllInBatch();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void mergeEach() {
+        List<Item> newItems = newItems(items);
+        readWrite.executeWithoutResult(status -> newItems.forEach(em::merge));
+    }
+
+    @Benchmark
+    public void saveEach() {
+        List<Item> newItems = newItems(items);
+        readWrite.executeWithoutResult(status -> newItems.forEach(itemRepository::save));
+    }
+
+    @Benchmark
+    public long saveAllBatched() {
+        return itemRepository.saveAllBatched(newItems(items), BATCH_SIZE);
+    }
+
+    @Benchmark
+    public List<String> insertIgnoringDuplicates() {
+        return itemRepository.insertIgnoringDuplicates(newItems(items), BATCH_SIZE);
+    }
+
+    // 절반은 이미 있는 키
+    @Benchmark
+    public List<String> insertIgnoringDuplicatesHalfExisting() {
+        List<Item> newItems = newItems(items / 2);
+        itemRepository.insertIgnoringDuplicates(newItems, BATCH_SIZE);
+        newItems.addAll(newItems(items / 2));
+        return itemRepository.insertIgnoringDuplicates(newItems, BATCH_SIZE);
+    }
+
+    private List<Item> newItems(int count) {
+        List<Item> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(new Item("item" + sequence.incrementAndGet()));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,31 @@
+package study.datajpa.benchmark;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import study.datajpa.entity.BaseEntity;
+
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+
+import static lombok.AccessLevel.PROTECTED;
+
+/**
+ * 배치 insert 도입 전 Member 매핑 (기본 @GeneratedValue -> hibernate_sequence, 한 건마다 시퀀스 호출)
+ * 벤치마크 클래스패스에서만 엔티티로 등록됨
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = PROTECTED)
+public class LegacyMember extends BaseEntity {
+
+    @Id @GeneratedValue
+    private Long id;
+    private String username;
+    private int age;
+
+    public LegacyMember(String username, int age) {
+        this.username = username;
+        this.age = age;
+    }
+}
@@ -0,0 +1,71 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * 같은 회원들을 여러 스레드가 동시에 수정 (age + 1)
+ * - optimisticRetry: @Version 충돌 시 backoff 후 재시도 (updateWithRetry)
+ * - pessimistic: select for update 후 수정 (findLockByUsername)
+ * hotRows 가 작을수록 충돌이 많음
+ * ./gradlew jmh -Pjmh.includes=LockContentionBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(8)
+public class LockContentionBenchmark {
+
+    @Param({"1", "16", "256"})
+    int hotRows;
+
+    ConfigurableApplicationContext context;
+    MemberRepository memberRepository;
+    TransactionTemplate transaction;
+    List<Long> ids = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // 충돌이 잦은 경우도 실패하지 않고 끝까지 재시도하도록, 충돌마다 남는 HHH000315 에러 로그는 끔
+        context = BenchmarkContext.start("lock" + hotRows,
+                "datajpa.lock.optimistic-retry.max-attempts=1000",
+                "datajpa.lock.timeout=30s",
+                "logging.level.org.hibernate.engine.jdbc.batch.internal.BatchingBatch=off");
+        memberRepository = context.getBean(MemberRepository.class);
+        transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+        for (int i = 0; i < hotRows; i++) {
+            ids.add(memberRepository.save(new Member("hot" + i, 0)).getId());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int optimisticRetry() {
+        int row = ThreadLocalRandom.current().nextInt(hotRows);
+        return memberRepository.updateWithRetry(ids.get(row), member -> member.setAge(member.getAge() + 1)).getAge();
+    }
+
+    @Benchmark
+    public int pessimistic() {
+        String username = "hot" + ThreadLocalRandom.current().nextInt(hotRows);
+        return transaction.execute(status -> {
+            Member member = memberRepository.findLockByUsername(username).get(0);
+            member.setAge(member.getAge() + 1);
+            return member.getAge();
+        });
+    }
+}
@@ -0,0 +1,125 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.MemberProjection;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.NestedClosedProjection;
+import study.datajpa.repository.UsernameOnly;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * 조회 전략(lazy / fetch join / entity graph / DTO / projection) 비교
+ * ./gradlew jmh -Pjmh.includes=MemberRepositoryBenchmark -Pjmh.members=100000
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MemberRepositoryBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"1000", "10000"})
+    int members;
+
+    @Param({"10"})
+    int teams;
+
+    ConfigurableApplicationContext context;
+    MemberRepository memberRepository;
+    TransactionTemplate readOnly;
+    TransactionTemplate readWrite;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("repository" + members);
+        BenchmarkContext.seed(context, members, teams);
+
+        memberRepository = context.getBean(MemberRepository.class);
+        readWrite = context.getBean(TransactionTemplate.class);
+        readOnly = new TransactionTemplate(readWrite.getTransactionManager());
+        readOnly.setReadOnly(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void findAllPage(Blackhole bh) {
+        int lastPage = Math.max(members / PAGE_SIZE - 1, 0);
+        PageRequest pageRequest = PageRequest.of(ThreadLocalRandom.current().nextInt(lastPage + 1), PAGE_SIZE, Sort.by("username"));
+        bh.consume(memberRepository.findAll(pageRequest).getContent());
+    }
+
+    // 비교 기준: team 을 lazy 로딩 (N+1)
+    @Benchmark
+    public void findMemberLazy(Blackhole bh) {
+        readOnly.executeWithoutResult(status -> consumeTeamNames(memberRepository.findMemberCustom(), bh));
+    }
+
+    @Benchmark
+    public void findMemberFetchJoin(Blackhole bh) {
+        readOnly.executeWithoutResult(status -> consumeTeamNames(memberRepository.findMemberFetchJoin(), bh));
+    }
+
+    @Benchmark
+    public void findMemberEntityGraph(Blackhole bh) {
+        readOnly.executeWithoutResult(status -> consumeTeamNames(memberRepository.findMemberEntityGraph(), bh));
+    }
+
+    @Benchmark
+    public List<MemberDto> findMemberDto() {
+        return memberRepository.findMemberDto();
+    }
+
+    @Benchmark
+    public void openProjection(Blackhole bh) {
+        for (UsernameOnly usernameOnly : memberRepository.findProjectionByUsername(randomUsername())) {
+            bh.consume(usernameOnly.getUsername());
+        }
+    }
+
+    @Benchmark
+    public void nestedClosedProjection(Blackhole bh) {
+        for (NestedClosedProjection projection : memberRepository.findProjectionDtoByUsername(randomUsername(), NestedClosedProjection.class)) {
+            bh.consume(projection.getUsername());
+            bh.consume(projection.getTeam().getName());
+        }
+    }
+
+    @Benchmark
+    public void findByNativeProjection(Blackhole bh) {
+        for (MemberProjection projection : memberRepository.findByNativeProjection(PageRequest.of(0, PAGE_SIZE))) {
+            bh.consume(projection.getUsername());
+            bh.consume(projection.getTeamName());
+        }
+    }
+
+    @Benchmark
+    public Integer bulkAgePlus() {
+        return readWrite.execute(status -> memberRepository.bulkAgePlus(50));
+    }
+
+    private String randomUsername() {
+        return "user" + ThreadLocalRandom.current().nextInt(members);
+    }
+
+    private void consumeTeamNames(List<Member> result, Blackhole bh) {
+        for (Member member : result) {
+            if (member.getTeam() != null) {     // MemberController.init() 데이터는 팀이 없음
+                bh.consume(member.getTeam().getName());
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/*
+ * 전체 회원 age 합계 (엔티티 전체 scan)
+ * - streamMembers: 한 트랜잭션에서 scroll (partitions 와 무관, 기준값)
+ * - aggregatePartitioned: partition 스레드에서 합계 후 합침
+ * - streamPartitioned: partition 스레드에서 읽고 호출한 스레드에서 합계 (unordered)
+ * partition 이 코어 수(와 커넥션 풀 크기)보다 많으면 더 빨라지지 않음
+ *   ./gradlew jmh -Pjmh.includes=PartitionedQueryBenchmark -Pjmh.heap=4g
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PartitionedQueryBenchmark {
+
+    @Param({"1000000"})
+    int members;
+
+    @Param({"1", "4"})
+    int partitions;
+
+    ConfigurableApplicationContext context;
+    MemberRepository memberRepository;
+    TransactionTemplate readOnly;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("partitioned" + members,
+                "datajpa.query-budget.enabled=false",
+                "datajpa.persistence-context.enabled=false");
+        BenchmarkContext.seed(context, members, 100);
+        memberRepository = context.getBean(MemberRepository.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public long streamMembers() {
+        return readOnly.execute(status -> {
+            try (Stream<Member> stream = memberRepository.streamMembers(1000)) {
+                return stream.mapToLong(Member::getAge).sum();
+            }
+        });
+    }
+
+    @Benchmark
+    public long aggregatePartitioned() {
+        return memberRepository.aggregatePartitioned(null, partitions, Collectors.summingLong(Member::getAge));
+    }
+
+    @Benchmark
+    public long streamPartitioned() {
+        try (Stream<Member> stream = memberRepository.streamPartitioned(null, partitions, false)) {
+            return stream.mapToLong(Member::getAge).sum();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.projection.ClosedProjection;
+import study.datajpa.projection.ProjectionQueryExecutor;
+import study.datajpa.repository.NestedClosedProjection;
+import study.datajpa.repository.UsernameOnly;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * age < :age 인 회원 rows 건을 (MemberController 가 만드는 팀 없는 회원도 포함) projection 으로 조회해서 getter 호출
+ * - spring*: 변경 전 동작, 엔티티 조회 + SpelAwareProxyProjectionFactory proxy (UsernameOnly 는 row 마다 SpEL 평가)
+ * - closed*: ProjectionQueryExecutor, 필요한 컬럼만 tuple 조회 + 캐시된 변환 함수
+ * map*: 쿼리 없이 미리 읽어둔 엔티티 / row 를 projection 으로 바꾸는 비용만 비교
+ * ./gradlew jmh -Pjmh.includes=ProjectionBenchmark  (jmh { profilers = ['gc'] })
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProjectionBenchmark {
+
+    private static final String WHERE = "e.age < :age";
+
+    @Param({"10000"})
+    int members;
+
+    @Param({"10"})
+    int teams;
+
+    @Param({"100", "5000"})
+    int rows;
+
+    ConfigurableApplicationContext context;
+    ProjectionQueryExecutor projectionQueryExecutor;
+    SpelAwareProxyProjectionFactory projectionFactory;
+    EntityManager em;
+    TransactionTemplate readOnly;
+    Map<String, Object> parameters;
+
+    List<Member> loadedMembers;
+    List<Object[]> loadedRows;
+    ClosedProjection<UsernameOnly> usernameOnly;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("projection" + members + "_" + rows,
+                "datajpa.query-budget.enabled=false");
+        BenchmarkContext.seed(context, members, teams);
+        projectionQueryExecutor = context.getBean(ProjectionQueryExecutor.class);
+        projectionFactory = new SpelAwareProxyProjectionFactory();
+        projectionFactory.setBeanFactory(context);
+        em = context.getBean(EntityManager.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+        parameters = Map.of("age", rows * 100 / members);     // age 는 0 ~ 99 로 골고루
+
+        usernameOnly = projectionQueryExecutor.projection(Member.class, UsernameOnly.class).get();
+        loadedMembers = readOnly.execute(status -> entities());
+        loadedRows = readOnly.execute(status -> tuples(usernameOnly));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void springSpel(Blackhole bh) {
+        readOnly.executeWithoutResult(status -> {
+            for (Member member : entities()) {
+                bh.consume(projectionFactory.createProjection(UsernameOnly.class, member).getUsername());
+            }
+        });
+    }
+
+    @Benchmark
+    public void closedSpel(Blackhole bh) {
+        readOnly.executeWithoutResult(status -> {
+            for (UsernameOnly projection : projectionQueryExecutor.findAll(Member.class, UsernameOnly.class, WHERE, parameters)) {
+                bh.consume(projection.getUsername());
+            }
+        });
+    }
+
+    @Benchmark
+    public void springNested(Blackhole bh) {
+        readOnly.executeWithoutResult(status -> {
+            for (Member member : entities()) {
+                NestedClosedProjection projection = projectionFactory.createProjection(NestedClosedProjection.class, member);
+                bh.consume(projection.getUsername());
+                bh.consume(projection.getTeam() == null ? null : projection.getTeam().getName());
+            }
+        });
+    }
+
+    @Benchmark
+    public void closedNested(Blackhole bh) {
+        readOnly.executeWithoutResult(status -> {
+            for (NestedClosedProjection projection : projectionQueryExecutor.findAll(Member.class, NestedClosedProjection.class, WHERE, parameters)) {
+                bh.consume(projection.getUsername());
+                bh.consume(projection.getTeam() == null ? null : projection.getTeam().getName());
+            }
+        });
+    }
+
+    @Benchmark
+    public void mapSpring(Blackhole bh) {
+        for (Member member : loadedMembers) {
+            bh.consume(projectionFactory.createProjection(UsernameOnly.class, member).getUsername());
+        }
+    }
+
+    @Benchmark
+    public void mapClosed(Blackhole bh) {
+        for (Object[] row : loadedRows) {
+            bh.consume(usernameOnly.materialize(row).getUsername());
+        }
+    }
+
+    private List<Member> entities() {
+        return em.createQuery("select e from Member e where " + WHERE, Member.class)
+                .setParameter("age", parameters.get("age"))
+                .getResultList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> tuples(ClosedProjection<?> projection) {
+        return em.createQuery(projection.query(WHERE)).setParameter("age", parameters.get("age")).getResultList();
+    }
+}
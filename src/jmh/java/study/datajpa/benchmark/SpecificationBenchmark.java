@@ -0,0 +1,115 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.dto.MemberSearchCondition;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.CompiledSpecificationCache;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.MemberSpec;
+
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * 검색 조건 4가지 모양을 번갈아 실행 (content + count)
+ * - criteria: JpaSpecificationExecutor, 호출마다 Criteria 생성 + JPQL 렌더링
+ * - compiled: CompiledSpecificationCache, 모양별 JPQL 재사용 + 값만 바인딩
+ * render*: 쿼리 실행 없이 TypedQuery 생성 비용만 비교
+ * ./gradlew jmh -Pjmh.includes=SpecificationBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SpecificationBenchmark {
+
+    private static final PageRequest PAGE = PageRequest.of(0, 10, Sort.by("username"));
+
+    @Param({"1000"})
+    int members;
+
+    @Param({"10"})
+    int teams;
+
+    ConfigurableApplicationContext context;
+    MemberRepository memberRepository;
+    CompiledSpecificationCache specificationCache;
+    EntityManager em;
+    TransactionTemplate readOnly;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("specification" + members,
+                "datajpa.query-budget.enabled=false");
+        BenchmarkContext.seed(context, members, teams);
+        memberRepository = context.getBean(MemberRepository.class);
+        specificationCache = context.getBean(CompiledSpecificationCache.class);
+        em = context.getBean(EntityManager.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void criteria(Blackhole bh) {
+        bh.consume(memberRepository.findAll(MemberSpec.condition(nextCondition()), PAGE));
+    }
+
+    @Benchmark
+    public void compiled(Blackhole bh) {
+        bh.consume(memberRepository.search(nextCondition(), PAGE));
+    }
+
+    @Benchmark
+    public void renderCriteria(Blackhole bh) {
+        readOnly.executeWithoutResult(status -> {
+            // SimpleJpaRepository.getQuery 와 같은 방식
+            CriteriaBuilder builder = em.getCriteriaBuilder();
+            CriteriaQuery<Member> query = builder.createQuery(Member.class);
+            Root<Member> root = query.from(Member.class);
+            Predicate predicate = MemberSpec.condition(nextCondition()).toPredicate(root, query, builder);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+            query.select(root).orderBy(QueryUtils.toOrders(PAGE.getSort(), root, builder));
+            bh.consume(em.createQuery(query));
+        });
+    }
+
+    @Benchmark
+    public void renderCompiled(Blackhole bh) {
+        readOnly.executeWithoutResult(status ->
+                bh.consume(specificationCache.createQuery(Member.class, MemberSpec.search(nextCondition()), PAGE.getSort())));
+    }
+
+    private MemberSearchCondition nextCondition() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String username = "user" + random.nextInt(members);
+        String teamName = "team" + random.nextInt(teams);
+        switch (random.nextInt(4)) {
+            case 0:
+                return new MemberSearchCondition(username, null);
+            case 1:
+                return new MemberSearchCondition(null, teamName);
+            case 2:
+                return new MemberSearchCondition(username, teamName);
+            default:
+                return new MemberSearchCondition(null, null);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.datajpa.batch.StatelessBatchExecutor;
+import study.datajpa.batch.StatelessBatchJob;
+import study.datajpa.batch.StatelessBatchResult;
+import study.datajpa.entity.Member;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * 전체 회원 age + 1 (엔티티를 읽어서 변경하는 배치) 한 번 실행 시간
+ * - entityManager: EntityManager 로 commitInterval 건씩 keyset 조회 -> 변경 -> 커밋(dirty check + flush) -> clear
+ * - stateless: StatelessBatchExecutor (partitions 개 동시 실행)
+ *   ./gradlew jmh -Pjmh.includes=StatelessBatchBenchmark -Pjmh.heap=4g
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class StatelessBatchBenchmark {
+
+    @Param({"1000000"})
+    int members;
+
+    @Param({"1000"})
+    int commitInterval;
+
+    ConfigurableApplicationContext context;
+    EntityManagerFactory emf;
+    StatelessBatchExecutor executor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("stateless" + members,
+                "datajpa.query-budget.enabled=false",
+                "datajpa.persistence-context.enabled=false");
+        BenchmarkContext.seed(context, members, 100);
+        emf = context.getBean(EntityManagerFactory.class);
+        executor = context.getBean(StatelessBatchExecutor.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public long entityManager() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            long written = 0;
+            long afterId = 0;
+            while (true) {
+                em.getTransaction().begin();
+                List<Member> chunk = em.createQuery(
+                        "select m from Member m left join fetch m.team where m.id > :afterId order by m.id", Member.class)
+                        .setParameter("afterId", afterId)
+                        .setMaxResults(commitInterval)
+                        .getResultList();
+                for (Member member : chunk) {
+                    member.setAge(member.getAge() + 1);
+                }
+                em.getTransaction().commit();
+                em.clear();
+                written += chunk.size();
+                if (chunk.size() < commitInterval) {
+                    return written;
+                }
+                afterId = chunk.get(chunk.size() - 1).getId();
+            }
+        } finally {
+            em.close();
+        }
+    }
+
+    @Benchmark
+    public StatelessBatchResult stateless() {
+        return executor.execute(agePlus().partitions(1));
+    }
+
+    @Benchmark
+    public StatelessBatchResult statelessPartitioned() {
+        return executor.execute(agePlus().partitions(4));
+    }
+
+    private StatelessBatchJob<Member> agePlus() {
+        return new StatelessBatchJob<>(Member.class, member -> {
+            member.setAge(member.getAge() + 1);
+            return member;
+        }).commitInterval(commitInterval);
+    }
+}
@@ -0,0 +1,70 @@
+package study.datajpa.audit;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.auditing.AuditingHandler;
+import org.springframework.data.auditing.DateTimeProvider;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.data.jpa.mapping.JpaMetamodelMappingContext;
+import org.springframework.data.mapping.context.PersistentEntities;
+
+import java.util.Optional;
+import java.util.UUID;
+
+// @EnableJpaAuditing(dateTimeProviderRef = AuditConfig.DATE_TIME_PROVIDER) 와 함께 사용
+@Configuration
+@EnableConfigurationProperties(AuditProperties.class)
+public class AuditConfig {
+
+    public static final String DATE_TIME_PROVIDER = "auditingDateTimeProvider";
+    public static final String CREATED_ONLY_HANDLER = "createdOnlyAuditingHandler";
+
+    @Bean
+    public AuditorAware<String> auditorProvider(AuditProperties properties) {
+        return new CachingAuditorAware(() -> Optional.of(UUID.randomUUID().toString()), properties.isCacheAuditor());
+    }
+
+    @Bean(DATE_TIME_PROVIDER)
+    public DateTimeProvider auditingDateTimeProvider(AuditProperties properties) {
+        return new FlushScopedDateTimeProvider(properties.isCacheTime());
+    }
+
+    // AuditingContext.withoutLastModified() 에서 생성 시 created* 만 채우는 handler
+    @Bean(CREATED_ONLY_HANDLER)
+    public AuditingHandler createdOnlyAuditingHandler(JpaMetamodelMappingContext mappingContext,
+                                                      AuditorAware<String> auditorProvider,
+                                                      DateTimeProvider auditingDateTimeProvider) {
+        AuditingHandler handler = new AuditingHandler(PersistentEntities.of(mappingContext));
+        handler.setModifyOnCreation(false);
+        handler.setAuditorAware(auditorProvider);
+        handler.setDateTimeProvider(auditingDateTimeProvider);
+        return handler;
+    }
+
+    @Bean
+    public Integrator auditFlushIntegrator() {
+        AuditFlushListener start = AuditFlushListener.start();
+        AuditFlushListener end = AuditFlushListener.end();
+        return new Integrator() {
+            @Override
+            public void integrate(Metadata metadata, SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+                EventListenerRegistry registry = serviceRegistry.getService(EventListenerRegistry.class);
+                registry.prependListeners(EventType.FLUSH, start);
+                registry.prependListeners(EventType.AUTO_FLUSH, start);
+                registry.appendListeners(EventType.FLUSH, end);
+                registry.appendListeners(EventType.AUTO_FLUSH, end);
+            }
+
+            @Override
+            public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+            }
+        };
+    }
+}
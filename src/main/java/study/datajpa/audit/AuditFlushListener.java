@@ -0,0 +1,48 @@
+package study.datajpa.audit;
+
+import org.hibernate.event.spi.AutoFlushEvent;
+import org.hibernate.event.spi.AutoFlushEventListener;
+import org.hibernate.event.spi.FlushEvent;
+import org.hibernate.event.spi.FlushEventListener;
+
+/*
+ * 기본 flush 리스너 앞(prepend)에서 flush 시작, 뒤(append)에서 flush 끝을 FlushScopedDateTimeProvider 에 알림
+ * auto flush 는 시작할 때 실제로 flush 할지 알 수 없으므로 항상 열고 끝에서 닫음
+ * Hibernate 는 같은 클래스의 리스너를 중복으로 보므로 시작 / 끝을 다른 클래스로 둠
+ */
+public abstract class AuditFlushListener implements FlushEventListener, AutoFlushEventListener {
+
+    public static AuditFlushListener start() {
+        return new Start();
+    }
+
+    public static AuditFlushListener end() {
+        return new End();
+    }
+
+    abstract void notifyProvider();
+
+    @Override
+    public void onFlush(FlushEvent event) {
+        notifyProvider();
+    }
+
+    @Override
+    public void onAutoFlush(AutoFlushEvent event) {
+        notifyProvider();
+    }
+
+    private static class Start extends AuditFlushListener {
+        @Override
+        void notifyProvider() {
+            FlushScopedDateTimeProvider.flushStarted();
+        }
+    }
+
+    private static class End extends AuditFlushListener {
+        @Override
+        void notifyProvider() {
+            FlushScopedDateTimeProvider.flushEnded();
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package study.datajpa.audit;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter @Setter
+@ConfigurationProperties(prefix = "datajpa.audit")
+public class AuditProperties {
+
+    // 작성자를 요청(없으면 트랜잭션) 당 한 번만 조회, false 면 감사 필드를 채울 때마다 조회
+    private boolean cacheAuditor = true;
+
+    // 같은 flush 에서 수정되는 엔티티는 같은 시각 사용 (저장은 persist() 시점이라 매번 읽음), false 면 매번 LocalDateTime.now()
+    private boolean cacheTime = true;
+}
@@ -0,0 +1,34 @@
+package study.datajpa.audit;
+
+import java.util.function.Supplier;
+
+/*
+ * 대량 적재처럼 최종 수정 정보가 의미 없는 작업에서 @LastModifiedDate, @LastModifiedBy 를 건너뜀
+ * ex) AuditingContext.withoutLastModified(() -> itemRepository.saveAllBatched(items, 1000))
+ * 주의) 같은 스레드에서 flush 되어야 함 (작업 안에서 트랜잭션을 시작/커밋해야 함)
+ */
+public final class AuditingContext {
+
+    private static final ThreadLocal<Boolean> SKIP_LAST_MODIFIED = new ThreadLocal<>();
+
+    private AuditingContext() {
+    }
+
+    public static <T> T withoutLastModified(Supplier<T> work) {
+        Boolean previous = SKIP_LAST_MODIFIED.get();
+        SKIP_LAST_MODIFIED.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                SKIP_LAST_MODIFIED.remove();
+            } else {
+                SKIP_LAST_MODIFIED.set(previous);
+            }
+        }
+    }
+
+    public static boolean isLastModifiedSkipped() {
+        return SKIP_LAST_MODIFIED.get() != null;
+    }
+}
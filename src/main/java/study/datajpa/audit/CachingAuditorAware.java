@@ -0,0 +1,43 @@
+package study.datajpa.audit;
+
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Optional;
+
+/*
+ * delegate 를 요청 당 한 번 (요청 밖에서는 트랜잭션 당 한 번) 만 호출
+ * 감사 필드는 엔티티마다 채워지므로 delegate 가 비싸면 (UUID.randomUUID -> SecureRandom, 인증 정보 조회 등) 쓰기 처리량이 떨어짐
+ */
+public class CachingAuditorAware implements AuditorAware<String> {
+
+    private static final String KEY = CachingAuditorAware.class.getName() + ".AUDITOR";
+
+    private final AuditorAware<String> delegate;
+    private final boolean cache;
+
+    public CachingAuditorAware(AuditorAware<String> delegate, boolean cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Optional<String> getCurrentAuditor() {
+        if (!cache) {
+            return delegate.getCurrentAuditor();
+        }
+
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request == null) {
+            return TransactionScopedCache.get(KEY, delegate::getCurrentAuditor);
+        }
+        Optional<String> auditor = (Optional<String>) request.getAttribute(KEY, RequestAttributes.SCOPE_REQUEST);
+        if (auditor == null) {
+            auditor = delegate.getCurrentAuditor();
+            request.setAttribute(KEY, auditor, RequestAttributes.SCOPE_REQUEST);
+        }
+        return auditor;
+    }
+}
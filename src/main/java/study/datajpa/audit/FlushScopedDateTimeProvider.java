@@ -0,0 +1,57 @@
+package study.datajpa.audit;
+
+import org.springframework.data.auditing.DateTimeProvider;
+
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAccessor;
+import java.util.Optional;
+
+/*
+ * flush 중에는 같은 시각을 반환 (AuditFlushListener 가 flush 시작 / 끝에서 열고 닫음)
+ * -> 같은 flush 에서 수정되는 엔티티들(@PreUpdate 는 flush 중 dirty check 에서 호출)이 같은 lastModifiedDate 를 갖고, 엔티티마다 시계를 읽지 않음
+ * 저장은 @PrePersist 가 persist() 시점 (flush 밖) 이므로 해당 없음: 엔티티마다 현재 시각
+ * (flush 때 다시 채우면 insert 상태가 이미 정해져 있어 update 가 추가됨, 트랜잭션이 길어도 처음 시각이 남지 않도록 캐시하지 않음)
+ */
+public class FlushScopedDateTimeProvider implements DateTimeProvider {
+
+    private static final Object KEY = FlushScopedDateTimeProvider.class.getName() + ".NOW";
+
+    private final boolean cache;
+
+    public FlushScopedDateTimeProvider(boolean cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public Optional<TemporalAccessor> getNow() {
+        if (!cache) {
+            return Optional.of(LocalDateTime.now());
+        }
+        return TransactionScopedCache.get(KEY, FlushTime::new).now();
+    }
+
+    static void flushStarted() {
+        TransactionScopedCache.get(KEY, FlushTime::new).flushing = true;
+    }
+
+    static void flushEnded() {
+        TransactionScopedCache.evict(KEY);
+    }
+
+    // flush 하나 동안의 시각, 처음 읽을 때 한 번만 시계를 읽음
+    private static class FlushTime {
+
+        private boolean flushing;
+        private Optional<TemporalAccessor> now;
+
+        Optional<TemporalAccessor> now() {
+            if (!flushing) {
+                return Optional.of(LocalDateTime.now());
+            }
+            if (now == null) {
+                now = Optional.of(LocalDateTime.now());
+            }
+            return now;
+        }
+    }
+}
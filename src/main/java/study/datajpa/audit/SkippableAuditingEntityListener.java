@@ -0,0 +1,49 @@
+package study.datajpa.audit;
+
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.auditing.AuditingHandler;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+
+/*
+ * AuditingEntityListener + AuditingContext.withoutLastModified() 지원
+ * Hibernate 가 SpringBeanContainer 로 생성하므로 handler 는 @Autowired 로 주입됨
+ */
+public class SkippableAuditingEntityListener extends AuditingEntityListener {
+
+    private ObjectFactory<AuditingHandler> createdOnlyHandler;
+
+    @Override
+    @Autowired
+    public void setAuditingHandler(@Qualifier("jpaAuditingHandler") ObjectFactory<AuditingHandler> auditingHandler) {
+        super.setAuditingHandler(auditingHandler);
+    }
+
+    @Autowired
+    public void setCreatedOnlyHandler(@Qualifier(AuditConfig.CREATED_ONLY_HANDLER) ObjectFactory<AuditingHandler> createdOnlyHandler) {
+        this.createdOnlyHandler = createdOnlyHandler;
+    }
+
+    @Override
+    @PrePersist
+    public void touchForCreate(Object target) {
+        if (AuditingContext.isLastModifiedSkipped()) {
+            createdOnlyHandler.getObject().markCreated(target);
+            return;
+        }
+        super.touchForCreate(target);
+    }
+
+    @Override
+    @PreUpdate
+    public void touchForUpdate(Object target) {
+        if (AuditingContext.isLastModifiedSkipped()) {
+            return;
+        }
+        super.touchForUpdate(target);
+    }
+}
@@ -0,0 +1,48 @@
+package study.datajpa.audit;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+// 트랜잭션 동안만 유지되는 값 (트랜잭션이 없으면 매번 계산), 트랜잭션마다 holder 를 한 번만 bind
+final class TransactionScopedCache {
+
+    private TransactionScopedCache() {
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> T get(Object key, Supplier<T> loader) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return loader.get();
+        }
+        Holder holder = (Holder) TransactionSynchronizationManager.getResource(key);
+        if (holder == null) {
+            holder = new Holder();
+            TransactionSynchronizationManager.bindResource(key, holder);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(key);
+                }
+            });
+        }
+        if (holder.value == null) {
+            holder.value = loader.get();
+        }
+        return (T) holder.value;
+    }
+
+    // holder 는 트랜잭션 끝까지 두고 값만 비움 (flush 마다 synchronization 이 쌓이지 않도록)
+    static void evict(Object key) {
+        Holder holder = (Holder) TransactionSynchronizationManager.getResource(key);
+        if (holder != null) {
+            holder.value = null;
+        }
+    }
+
+    // 트랜잭션(스레드) 하나에서만 사용
+    private static class Holder {
+        private Object value;
+    }
+}
@@ -0,0 +1,34 @@
+package study.datajpa.batch;
+
+import lombok.Getter;
+
+// partition(id 구간) 별 마지막으로 커밋된 id, 재시작하면 그 다음 id 부터 실행
+@Getter
+public class BatchCheckpoint {
+
+    private final IdRange partition;
+    private final Long lastCommittedId;
+
+    public BatchCheckpoint(IdRange partition, Long lastCommittedId) {
+        this.partition = partition;
+        this.lastCommittedId = lastCommittedId;
+    }
+
+    // listener 에서 저장해두면 다음 실행에서 resumeFrom 으로 사용 가능
+    public static BatchCheckpoint of(BulkUpdateProgress progress) {
+        return new BatchCheckpoint(progress.getRange(), progress.getLastCommittedId());
+    }
+
+    public IdRange remaining() {
+        return lastCommittedId == null ? partition : new IdRange(lastCommittedId + 1, partition.getTo());
+    }
+
+    public boolean isDone() {
+        return remaining().isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return partition + " -> " + lastCommittedId;
+    }
+}
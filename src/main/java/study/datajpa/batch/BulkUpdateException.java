@@ -0,0 +1,17 @@
+package study.datajpa.batch;
+
+import lombok.Getter;
+
+// lastCommittedId 를 BulkUpdateJob.resumeAfter() 에 넘기면 실패한 chunk 부터 다시 실행
+@Getter
+public class BulkUpdateException extends RuntimeException {
+
+    private final Long lastCommittedId;
+    private final long updatedRows;
+
+    public BulkUpdateException(String message, Long lastCommittedId, long updatedRows, Throwable cause) {
+        super(message, cause);
+        this.lastCommittedId = lastCommittedId;
+        this.updatedRows = updatedRows;
+    }
+}
@@ -0,0 +1,64 @@
+package study.datajpa.batch;
+
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+ * PK 구간 단위로 나눠서 실행할 JPQL update
+ * updateQuery 는 반드시 ":fromId", ":toId" 파라미터로 PK 구간 조건을 포함해야 함
+ * ex) update versioned Member m set m.age = m.age + 1 where m.age >= :age and m.id between :fromId and :toId
+ * @Version 이 있는 엔티티는 versioned 를 붙여야 버전도 올라감 (실행 중에 읽어간 엔티티의 수정을 충돌로 감지)
+ */
+@Getter
+public class BulkUpdateJob {
+
+    private final Class<?> entityClass;
+    private final String updateQuery;
+    private final Map<String, Object> parameters = new LinkedHashMap<>();
+    private String idAttribute = "id";
+    private int chunkSize = 1000;
+    private Long resumeAfter;
+
+    public BulkUpdateJob(Class<?> entityClass, String updateQuery) {
+        if (!updateQuery.contains(":fromId") || !updateQuery.contains(":toId")) {
+            throw new IllegalArgumentException("updateQuery must bind :fromId and :toId - " + updateQuery);
+        }
+        this.entityClass = entityClass;
+        this.updateQuery = updateQuery;
+    }
+
+    public BulkUpdateJob parameter(String name, Object value) {
+        parameters.put(name, value);
+        return this;
+    }
+
+    public BulkUpdateJob idAttribute(String idAttribute) {
+        this.idAttribute = idAttribute;
+        return this;
+    }
+
+    public BulkUpdateJob chunkSize(int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    // 이전 실행이 실패했을 때 마지막으로 커밋된 id 다음부터 재개
+    public BulkUpdateJob resumeAfter(Long lastCommittedId) {
+        this.resumeAfter = lastCommittedId;
+        return this;
+    }
+
+    public Map<String, Object> getParameters() {
+        return Collections.unmodifiableMap(parameters);
+    }
+
+    public String getName() {
+        return entityClass.getSimpleName() + ": " + updateQuery;
+    }
+}
@@ -0,0 +1,10 @@
+package study.datajpa.batch;
+
+@FunctionalInterface
+public interface BulkUpdateListener {
+
+    BulkUpdateListener NONE = progress -> { };
+
+    // chunk 가 커밋될 때마다 호출
+    void onChunkCommitted(BulkUpdateProgress progress);
+}
@@ -0,0 +1,35 @@
+package study.datajpa.batch;
+
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+public class BulkUpdateProgress {
+
+    private final String jobName;
+    private final IdRange chunk;
+    private final int chunkRows;
+    private final long totalRows;
+    private final IdRange range;
+
+    public BulkUpdateProgress(String jobName, IdRange chunk, int chunkRows, long totalRows, IdRange range) {
+        this.jobName = jobName;
+        this.chunk = chunk;
+        this.chunkRows = chunkRows;
+        this.totalRows = totalRows;
+        this.range = range;
+    }
+
+    // 커밋된 chunk 기준 (마지막 id / 전체 id 구간)
+    public long getLastCommittedId() {
+        return chunk.getTo();
+    }
+
+    public double getPercent() {
+        if (range.size() == 0) {
+            return 100.0;
+        }
+        return (chunk.getTo() - range.getFrom() + 1) * 100.0 / range.size();
+    }
+}
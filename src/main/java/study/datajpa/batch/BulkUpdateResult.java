@@ -0,0 +1,19 @@
+package study.datajpa.batch;
+
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+public class BulkUpdateResult {
+
+    private final long updatedRows;
+    private final int chunks;
+    private final Long lastCommittedId;
+
+    public BulkUpdateResult(long updatedRows, int chunks, Long lastCommittedId) {
+        this.updatedRows = updatedRows;
+        this.chunks = chunks;
+        this.lastCommittedId = lastCommittedId;
+    }
+}
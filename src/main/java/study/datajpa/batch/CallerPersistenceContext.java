@@ -0,0 +1,43 @@
+package study.datajpa.batch;
+
+import org.hibernate.Session;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.Map;
+
+/*
+ * 배치를 호출한 쪽 트랜잭션의 영속성 컨텍스트 (배치는 별도 트랜잭션 / StatelessSession 에서 실행,
+ * BatchInsertRepository 는 호출한 쪽 트랜잭션에 참여)
+ * - 시작 전: flush 되지 않은 변경이 있으면 거부 (배치가 끝난 뒤 비우면 변경이 사라지고,
+ *   미리 flush 하면 호출한 쪽 트랜잭션이 잡은 row 락을 배치 트랜잭션이 기다림)
+ * - 끝난 뒤: 배치 대상 엔티티만 준영속으로 (다른 엔티티는 그대로 관리)
+ */
+public class CallerPersistenceContext {
+
+    private CallerPersistenceContext() {
+    }
+
+    public static void requireFlushed(EntityManagerFactory emf, String jobName) {
+        EntityManager current = EntityManagerFactoryUtils.getTransactionalEntityManager(emf);
+        if (current != null && current.isOpen() && current.unwrap(Session.class).isDirty()) {
+            throw new IllegalStateException("caller's persistence context has unflushed changes, flush before running - " + jobName);
+        }
+    }
+
+    public static void detach(EntityManagerFactory emf, Class<?> entityClass) {
+        EntityManager current = EntityManagerFactoryUtils.getTransactionalEntityManager(emf);
+        if (current == null || !current.isOpen()) {
+            return;
+        }
+        for (Map.Entry<Object, EntityEntry> entry : current.unwrap(SessionImplementor.class)
+                .getPersistenceContext().reentrantSafeEntityEntries()) {
+            if (entityClass.isInstance(entry.getKey())) {
+                current.detach(entry.getKey());
+            }
+        }
+    }
+}
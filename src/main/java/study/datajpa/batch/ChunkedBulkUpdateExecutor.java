@@ -0,0 +1,150 @@
+package study.datajpa.batch;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import java.util.List;
+
+/*
+ * 한 번의 update 로 전체 테이블을 잠그는 대신 PK 구간(chunk) 별로 나눠서 update + commit
+ * - chunk 는 실제 id chunkSize 개 단위 (keyset), 빈 id 구간은 건너뜀
+ * - chunk 마다 새 트랜잭션 (락 유지 시간, undo log 크기가 chunk 크기로 제한됨)
+ * - 실패하면 BulkUpdateException.lastCommittedId 부터 재개 가능
+ * - 끝나면 2차 캐시 region 을 비우고 호출한 쪽 영속성 컨텍스트의 대상 엔티티를 준영속으로
+ *   (호출한 쪽에 flush 되지 않은 변경이 있으면 시작하지 않음, CallerPersistenceContext)
+ */
+@Slf4j
+@Component
+public class ChunkedBulkUpdateExecutor {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private final EntityManagerFactory emf;
+    private final TransactionTemplate chunkTransaction;
+
+    public ChunkedBulkUpdateExecutor(EntityManagerFactory emf, PlatformTransactionManager transactionManager) {
+        this.emf = emf;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public BulkUpdateResult execute(BulkUpdateJob job) {
+        return execute(job, BulkUpdateListener.NONE);
+    }
+
+    public BulkUpdateResult execute(BulkUpdateJob job, BulkUpdateListener listener) {
+        CallerPersistenceContext.requireFlushed(emf, job.getName());
+        IdRange range = idRange(job);
+        String idQuery = idQuery(job);
+        long updatedRows = 0;
+        int chunks = 0;
+        Long lastCommittedId = job.getResumeAfter();
+
+        try {
+            long after = range.getFrom() - 1;
+            while (after < range.getTo()) {
+                long chunkAfter = after;
+                Chunk chunk;
+                try {
+                    chunk = chunkTransaction.execute(status -> updateChunk(job, idQuery, chunkAfter, range.getTo()));
+                } catch (RuntimeException e) {
+                    throw new BulkUpdateException("bulk update failed at chunk after id " + after + " - " + job.getName(),
+                            lastCommittedId, updatedRows, e);
+                }
+                if (chunk == null) {
+                    break;
+                }
+                updatedRows += chunk.rows;
+                chunks++;
+                lastCommittedId = chunk.ids.getTo();
+                after = chunk.ids.getTo();
+
+                BulkUpdateProgress progress = new BulkUpdateProgress(job.getName(), chunk.ids, chunk.rows, updatedRows, range);
+                log.debug("bulk update {}", progress);
+                try {
+                    listener.onChunkCommitted(progress);
+                } catch (RuntimeException e) {
+                    throw new BulkUpdateException("bulk update stopped after chunk " + chunk.ids + " - " + job.getName(),
+                            lastCommittedId, updatedRows, e);
+                }
+            }
+        } finally {
+            // 일부 chunk 만 커밋된 경우도 캐시에 변경 전 값이 남지 않도록 함
+            if (chunks > 0) {
+                clearCaches(job);
+            }
+        }
+        return new BulkUpdateResult(updatedRows, chunks, lastCommittedId);
+    }
+
+    /*
+     * keyset 으로 after 다음 chunkSize 개의 id 를 읽고 그 첫 id ~ 마지막 id 구간을 update
+     * id 가 띄엄띄엄 있어도 chunk 마다 최대 chunkSize 건 (빈 구간 트랜잭션이 생기지 않음)
+     * 시작 시점의 max(id) 까지만 처리 (실행 중에 추가된 행은 제외), 남은 id 가 없으면 null
+     */
+    private Chunk updateChunk(BulkUpdateJob job, String idQuery, long after, long maxId) {
+        List<Number> ids = em.createQuery(idQuery, Number.class)
+                .setParameter("after", after)
+                .setParameter("maxId", maxId)
+                .setMaxResults(job.getChunkSize())
+                .getResultList();
+        if (ids.isEmpty()) {
+            return null;
+        }
+        IdRange chunk = new IdRange(ids.get(0).longValue(), ids.get(ids.size() - 1).longValue());
+
+        Query query = em.createQuery(job.getUpdateQuery());
+        job.getParameters().forEach(query::setParameter);
+        int rows = query.setParameter("fromId", chunk.getFrom())
+                .setParameter("toId", chunk.getTo())
+                .executeUpdate();
+        return new Chunk(chunk, rows);
+    }
+
+    private String idQuery(BulkUpdateJob job) {
+        String entityName = emf.getMetamodel().entity(job.getEntityClass()).getName();
+        String id = "e." + job.getIdAttribute();
+        return "select " + id + " from " + entityName + " e where " + id + " > :after and " + id + " <= :maxId order by " + id;
+    }
+
+    private IdRange idRange(BulkUpdateJob job) {
+        String entityName = emf.getMetamodel().entity(job.getEntityClass()).getName();
+        Object[] minMax = chunkTransaction.execute(status -> (Object[]) em.createQuery(
+                "select min(e." + job.getIdAttribute() + "), max(e." + job.getIdAttribute() + ") from " + entityName + " e")
+                .getSingleResult());
+
+        if (minMax == null || minMax[0] == null) {
+            return new IdRange(1, 0);
+        }
+        long from = ((Number) minMax[0]).longValue();
+        long to = ((Number) minMax[1]).longValue();
+        if (job.getResumeAfter() != null) {
+            from = Math.max(from, job.getResumeAfter() + 1);
+        }
+        return new IdRange(from, to);
+    }
+
+    private void clearCaches(BulkUpdateJob job) {
+        emf.getCache().evict(job.getEntityClass());
+        CallerPersistenceContext.detach(emf, job.getEntityClass());
+    }
+
+    private static class Chunk {
+
+        private final IdRange ids;
+        private final int rows;
+
+        Chunk(IdRange ids, int rows) {
+            this.ids = ids;
+            this.rows = rows;
+        }
+    }
+}
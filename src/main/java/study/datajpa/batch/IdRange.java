@@ -0,0 +1,53 @@
+package study.datajpa.batch;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// PK 구간 [from, to] (양 끝 포함)
+@Getter
+public class IdRange {
+
+    private final long from;
+    private final long to;
+
+    public IdRange(long from, long to) {
+        this.from = from;
+        this.to = to;
+    }
+
+    public boolean isEmpty() {
+        return from > to;
+    }
+
+    public long size() {
+        return isEmpty() ? 0 : to - from + 1;
+    }
+
+    // chunkSize 크기의 연속된 구간으로 분할
+    public List<IdRange> split(long chunkSize) {
+        List<IdRange> chunks = new ArrayList<>();
+        for (long start = from; start <= to; start += chunkSize) {
+            chunks.add(new IdRange(start, Math.min(start + chunkSize - 1, to)));
+            if (start > Long.MAX_VALUE - chunkSize) {
+                break;
+            }
+        }
+        return chunks;
+    }
+
+    // 최대 partitions 개의 비슷한 크기 구간으로 분할
+    public List<IdRange> partition(int partitions) {
+        if (isEmpty()) {
+            return new ArrayList<>();
+        }
+        long chunkSize = (size() + partitions - 1) / partitions;
+        return split(Math.max(chunkSize, 1));
+    }
+
+    @Override
+    public String toString() {
+        return "[" + from + ", " + to + "]";
+    }
+}
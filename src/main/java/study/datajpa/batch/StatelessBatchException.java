@@ -0,0 +1,19 @@
+package study.datajpa.batch;
+
+import lombok.Getter;
+
+import java.util.List;
+
+// checkpoints 를 StatelessBatchJob.resumeFrom() 에 넘기면 커밋되지 않은 구간만 다시 실행
+@Getter
+public class StatelessBatchException extends RuntimeException {
+
+    private final List<BatchCheckpoint> checkpoints;
+    private final long writtenRows;
+
+    public StatelessBatchException(String message, List<BatchCheckpoint> checkpoints, long writtenRows, Throwable cause) {
+        super(message, cause);
+        this.checkpoints = checkpoints;
+        this.writtenRows = writtenRows;
+    }
+}
@@ -0,0 +1,259 @@
+package study.datajpa.batch;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.hibernate.query.Query;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.data.auditing.AuditingHandler;
+import org.springframework.stereotype.Component;
+import study.datajpa.audit.AuditingContext;
+import study.datajpa.config.AsyncConfig;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.metamodel.SingularAttribute;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+/*
+ * 전체 회원 같은 대량 작업을 영속성 컨텍스트 없이 실행 (StatelessSession)
+ * - commitInterval 건씩 id 순으로 scroll -> processor -> update (hibernate.jdbc.batch_size 로 JDBC batch) -> 커밋
+ *   다음 chunk 는 마지막 id 다음부터 다시 조회하므로 커밋 후 커서를 유지하지 않음
+ * - partition(id 구간) 이 둘 이상이면 repositoryExecutor 에서 동시에 실행 (partition 마다 커넥션 하나)
+ *   repositoryExecutor 작업 안에서 호출하면 자기 executor 를 기다리지 않도록 호출한 스레드에서 차례로 실행
+ * - 1차 캐시, dirty check, cascade, JPA 콜백이 없음: @Version 은 올라가고 lastModified* 는 AuditingHandler 로 채움
+ *   (JpaBaseEntity 의 @PreUpdate 는 호출되지 않음)
+ * - 실패해도 다른 partition 은 끝까지 실행, StatelessBatchException.checkpoints 로 남은 구간만 재실행
+ * - 끝나면 2차 캐시 region, 쿼리 캐시를 비우고 호출한 쪽 영속성 컨텍스트의 대상 엔티티를 준영속으로
+ *   (호출한 쪽에 flush 되지 않은 변경이 있으면 시작하지 않음, CallerPersistenceContext)
+ */
+@Slf4j
+@Component
+public class StatelessBatchExecutor {
+
+    private final EntityManagerFactory emf;
+    private final AsyncTaskExecutor executor;
+    private final ObjectProvider<AuditingHandler> auditingHandler;
+
+    public StatelessBatchExecutor(EntityManagerFactory emf,
+                                  @Qualifier(AsyncConfig.REPOSITORY_EXECUTOR) AsyncTaskExecutor executor,
+                                  @Qualifier("jpaAuditingHandler") ObjectProvider<AuditingHandler> auditingHandler) {
+        this.emf = emf;
+        this.executor = executor;
+        this.auditingHandler = auditingHandler;
+    }
+
+    public <T> StatelessBatchResult execute(StatelessBatchJob<T> job) {
+        return execute(job, BulkUpdateListener.NONE);
+    }
+
+    // listener 는 partition 스레드에서 동시에 호출될 수 있음
+    public <T> StatelessBatchResult execute(StatelessBatchJob<T> job, BulkUpdateListener listener) {
+        CallerPersistenceContext.requireFlushed(emf, job.getName());
+        String query = query(job);
+        AuditingHandler auditing = AuditingContext.isLastModifiedSkipped() ? null : auditingHandler.getIfAvailable();
+        List<Partition<T>> partitions = checkpoints(job).stream()
+                .map(checkpoint -> new Partition<>(job, query, checkpoint, auditing, listener))
+                .collect(Collectors.toList());
+
+        try {
+            run(partitions);
+        } finally {
+            // 일부 chunk 만 커밋된 경우도 캐시에 변경 전 값이 남지 않도록 함
+            if (partitions.stream().anyMatch(partition -> partition.chunks > 0)) {
+                clearCaches(job);
+            }
+        }
+
+        List<BatchCheckpoint> checkpoints = partitions.stream().map(Partition::checkpoint).collect(Collectors.toList());
+        long readRows = partitions.stream().mapToLong(partition -> partition.readRows).sum();
+        long writtenRows = partitions.stream().mapToLong(partition -> partition.writtenRows).sum();
+        int chunks = partitions.stream().mapToInt(partition -> partition.chunks).sum();
+
+        List<Partition<T>> failed = partitions.stream().filter(partition -> partition.failure != null).collect(Collectors.toList());
+        if (!failed.isEmpty()) {
+            RuntimeException cause = failed.get(0).failure;
+            failed.stream().skip(1).forEach(partition -> cause.addSuppressed(partition.failure));
+            throw new StatelessBatchException("stateless batch failed in partitions "
+                    + failed.stream().map(partition -> partition.range.toString()).collect(Collectors.joining(", "))
+                    + " - " + job.getName(), checkpoints, writtenRows, cause);
+        }
+        return new StatelessBatchResult(readRows, writtenRows, chunks, checkpoints);
+    }
+
+    private <T> void run(List<Partition<T>> partitions) {
+        if (partitions.size() == 1 || AsyncConfig.isRepositoryExecutorThread()) {
+            partitions.forEach(Partition::run);
+            return;
+        }
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (Partition<T> partition : partitions) {
+            try {
+                futures.add(CompletableFuture.runAsync(partition, executor));
+            } catch (RuntimeException e) {
+                partition.failure = e;      // TaskRejectedException, 시작하지 못한 partition 은 처음부터 다시
+            }
+        }
+        // 각 partition 이 예외를 직접 기록하므로 join 은 실패하지 않음
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+    }
+
+    private <T> List<BatchCheckpoint> checkpoints(StatelessBatchJob<T> job) {
+        if (job.getResumeFrom() != null) {
+            return job.getResumeFrom().stream().filter(checkpoint -> !checkpoint.isDone()).collect(Collectors.toList());
+        }
+        return idRange(job).partition(job.getPartitions()).stream()
+                .map(range -> new BatchCheckpoint(range, null))
+                .collect(Collectors.toList());
+    }
+
+    private IdRange idRange(StatelessBatchJob<?> job) {
+        String id = job.getIdAttribute();
+        try (StatelessSession session = sessionFactory().openStatelessSession()) {
+            Object[] minMax = (Object[]) session.createQuery(
+                    "select min(e." + id + "), max(e." + id + ") from " + entityName(job) + " e").getSingleResult();
+            if (minMax == null || minMax[0] == null) {
+                return new IdRange(1, 0);
+            }
+            return new IdRange(((Number) minMax[0]).longValue(), ((Number) minMax[1]).longValue());
+        }
+    }
+
+    /*
+     * select e, e.id from Member e left join fetch e.team where e.id > :afterId and e.id <= :toId and (...) order by e.id
+     * to-one 연관관계는 모두 fetch join: StatelessSession.update() 는 초기화되지 않은 프록시를 transient 로 판단함
+     * (TransientObjectException, hibernate 5.4) 그리고 프록시 초기화도 불가
+     */
+    private String query(StatelessBatchJob<?> job) {
+        String id = "e." + job.getIdAttribute();
+        StringBuilder query = new StringBuilder("select e, ").append(id).append(" from ").append(entityName(job)).append(" e");
+        for (SingularAttribute<?, ?> attribute : emf.getMetamodel().entity(job.getEntityClass()).getSingularAttributes()) {
+            if (attribute.isAssociation()) {
+                query.append(" left join fetch e.").append(attribute.getName());
+            }
+        }
+        query.append(" where ").append(id).append(" > :afterId and ").append(id).append(" <= :toId");
+        if (job.getWhere() != null) {
+            query.append(" and (").append(job.getWhere()).append(')');
+        }
+        return query.append(" order by ").append(id).toString();
+    }
+
+    private String entityName(StatelessBatchJob<?> job) {
+        return emf.getMetamodel().entity(job.getEntityClass()).getName();
+    }
+
+    private SessionFactory sessionFactory() {
+        return emf.unwrap(SessionFactory.class);
+    }
+
+    private void clearCaches(StatelessBatchJob<?> job) {
+        emf.getCache().evict(job.getEntityClass());
+        emf.getCache().unwrap(org.hibernate.Cache.class).evictQueryRegions();
+        CallerPersistenceContext.detach(emf, job.getEntityClass());
+    }
+
+    // partition 하나를 한 스레드에서 실행, 결과/예외는 필드에 남김
+    private class Partition<T> implements Runnable {
+
+        private final StatelessBatchJob<T> job;
+        private final String query;
+        private final IdRange range;
+        private final AuditingHandler auditing;
+        private final BulkUpdateListener listener;
+
+        private Long lastCommittedId;
+        private long readRows;
+        private long writtenRows;
+        private int chunks;
+        private RuntimeException failure;
+
+        Partition(StatelessBatchJob<T> job, String query, BatchCheckpoint checkpoint, AuditingHandler auditing, BulkUpdateListener listener) {
+            this.job = job;
+            this.query = query;
+            this.range = checkpoint.getPartition();
+            this.lastCommittedId = checkpoint.getLastCommittedId();
+            this.auditing = auditing;
+            this.listener = listener;
+        }
+
+        @Override
+        public void run() {
+            try (StatelessSession session = sessionFactory().openStatelessSession()) {
+                boolean more = true;
+                while (more) {
+                    more = chunk(session);
+                }
+            } catch (RuntimeException e) {
+                log.warn("stateless batch partition {} failed after {} - {}", range, lastCommittedId, job.getName(), e);
+                failure = e;
+            }
+        }
+
+        // commitInterval 건을 읽고 쓰고 커밋, 더 읽을 row 가 있을 수 있으면 true
+        private boolean chunk(StatelessSession session) {
+            long afterId = lastCommittedId != null ? lastCommittedId : range.getFrom() - 1;
+            Long firstId = null;
+            long lastId = afterId;
+            int rows = 0;
+            int written = 0;
+
+            Transaction transaction = session.beginTransaction();
+            try {
+                Query<?> select = session.createQuery(query)
+                        .setParameter("afterId", afterId)
+                        .setParameter("toId", range.getTo())
+                        .setMaxResults(job.getCommitInterval())
+                        .setFetchSize(job.getFetchSize());
+                job.getParameters().forEach(select::setParameter);
+
+                try (ScrollableResults results = select.scroll(ScrollMode.FORWARD_ONLY)) {
+                    while (results.next()) {
+                        lastId = ((Number) results.get(1)).longValue();
+                        if (firstId == null) {
+                            firstId = lastId;
+                        }
+                        rows++;
+                        T entity = job.getProcessor().apply(job.getEntityClass().cast(results.get(0)));
+                        if (entity != null) {
+                            if (auditing != null) {
+                                auditing.markModified(entity);
+                            }
+                            session.update(entity);
+                            written++;
+                        }
+                    }
+                }
+                transaction.commit();
+            } catch (RuntimeException e) {
+                if (transaction.isActive()) {
+                    transaction.rollback();
+                }
+                throw e;
+            }
+
+            if (rows == 0) {
+                return false;
+            }
+            lastCommittedId = lastId;
+            readRows += rows;
+            writtenRows += written;
+            chunks++;
+            BulkUpdateProgress progress = new BulkUpdateProgress(job.getName(), new IdRange(firstId, lastId), written, writtenRows, range);
+            log.debug("stateless batch {}", progress);
+            listener.onChunkCommitted(progress);
+            return rows == job.getCommitInterval();
+        }
+
+        BatchCheckpoint checkpoint() {
+            return new BatchCheckpoint(range, lastCommittedId);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package study.datajpa.batch;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+/*
+ * StatelessSession 으로 엔티티를 id 순으로 읽고 (scroll) 변환해서 update 하는 작업
+ * - processor: 읽은 엔티티를 바꿔서 반환 (null 이면 건너뜀), to-one 연관관계는 항상 fetch join 으로 같이 읽음 (컬렉션은 로딩 불가)
+ * - where: 루트 엔티티 alias 는 e (ex. "e.age >= :age"), id 구간 조건은 자동으로 붙음
+ * - commitInterval 건마다 커밋하고 partitions 개의 id 구간을 동시에 실행
+ * ex) new StatelessBatchJob<>(Member.class, member -> { member.setAge(member.getAge() + 1); return member; })
+ *         .where("e.age >= :age").parameter("age", 20).commitInterval(1000).partitions(4)
+ */
+@Getter
+public class StatelessBatchJob<T> {
+
+    private final Class<T> entityClass;
+    private final UnaryOperator<T> processor;
+    private String where;
+    private final Map<String, Object> parameters = new LinkedHashMap<>();
+    private String idAttribute = "id";
+    private int commitInterval = 1000;
+    private int fetchSize = 1000;
+    private int partitions = 1;
+    private List<BatchCheckpoint> resumeFrom;
+
+    public StatelessBatchJob(Class<T> entityClass, UnaryOperator<T> processor) {
+        this.entityClass = entityClass;
+        this.processor = processor;
+    }
+
+    public StatelessBatchJob<T> where(String where) {
+        this.where = where;
+        return this;
+    }
+
+    public StatelessBatchJob<T> parameter(String name, Object value) {
+        parameters.put(name, value);
+        return this;
+    }
+
+    public StatelessBatchJob<T> idAttribute(String idAttribute) {
+        this.idAttribute = idAttribute;
+        return this;
+    }
+
+    public StatelessBatchJob<T> commitInterval(int commitInterval) {
+        if (commitInterval < 1) {
+            throw new IllegalArgumentException("commitInterval must be positive: " + commitInterval);
+        }
+        this.commitInterval = commitInterval;
+        return this;
+    }
+
+    public StatelessBatchJob<T> fetchSize(int fetchSize) {
+        if (fetchSize < 1) {
+            throw new IllegalArgumentException("fetchSize must be positive: " + fetchSize);
+        }
+        this.fetchSize = fetchSize;
+        return this;
+    }
+
+    // 커넥션을 partition 마다 하나씩 사용하므로 커넥션 풀 크기보다 작게
+    public StatelessBatchJob<T> partitions(int partitions) {
+        if (partitions < 1) {
+            throw new IllegalArgumentException("partitions must be positive: " + partitions);
+        }
+        this.partitions = partitions;
+        return this;
+    }
+
+    // 이전 실행이 실패했을 때 StatelessBatchException.checkpoints 의 남은 구간만 실행
+    public StatelessBatchJob<T> resumeFrom(Collection<BatchCheckpoint> checkpoints) {
+        this.resumeFrom = new ArrayList<>(checkpoints);
+        return this;
+    }
+
+    public Map<String, Object> getParameters() {
+        return Collections.unmodifiableMap(parameters);
+    }
+
+    public String getName() {
+        return entityClass.getSimpleName() + (where == null ? "" : ": " + where);
+    }
+}
@@ -0,0 +1,23 @@
+package study.datajpa.batch;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+@Getter
+@ToString
+public class StatelessBatchResult {
+
+    private final long readRows;
+    private final long writtenRows;
+    private final int chunks;
+    private final List<BatchCheckpoint> checkpoints;
+
+    public StatelessBatchResult(long readRows, long writtenRows, int chunks, List<BatchCheckpoint> checkpoints) {
+        this.readRows = readRows;
+        this.writtenRows = writtenRows;
+        this.chunks = chunks;
+        this.checkpoints = checkpoints;
+    }
+}
@@ -0,0 +1,94 @@
+package study.datajpa.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.task.TaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/*
+ * @Async(AsyncConfig.REPOSITORY_EXECUTOR) repository 메서드를 실행하는 executor
+ * 요청 동시성(Tomcat 스레드 수)과 DB 동시성(커넥션 풀 크기)을 분리
+ */
+@Slf4j
+@EnableAsync
+@Configuration
+@EnableConfigurationProperties(AsyncProperties.class)
+public class AsyncConfig {
+
+    public static final String REPOSITORY_EXECUTOR = "repositoryExecutor";
+
+    private static final int DEFAULT_POOL_SIZE = 10;
+    private static final ThreadLocal<Boolean> REPOSITORY_TASK = new ThreadLocal<>();
+
+    // repositoryExecutor 작업 안에서 다시 repositoryExecutor 작업을 기다리면 스레드(동시 실행 수)가 모자라서 deadlock 가능
+    public static boolean isRepositoryExecutorThread() {
+        return REPOSITORY_TASK.get() != null;
+    }
+
+    // Executor 빈을 등록하면 Boot 기본 executor 가 빠지므로 (MVC 비동기 처리, @Async 기본값) 직접 등록
+    @Lazy
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+            AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME})
+    public ThreadPoolTaskExecutor applicationTaskExecutor(TaskExecutorBuilder builder) {
+        return builder.build();
+    }
+
+    @Bean(REPOSITORY_EXECUTOR)
+    public AsyncTaskExecutor repositoryExecutor(AsyncProperties properties, DataSource dataSource) {
+        int concurrency = properties.getConcurrency() > 0 ? properties.getConcurrency() : poolSize(dataSource);
+
+        if (properties.isVirtualThreads()) {
+            if (VirtualThreadTaskExecutor.isSupported()) {
+                log.info("repository executor: virtual threads, concurrency={}", concurrency);
+                VirtualThreadTaskExecutor executor = new VirtualThreadTaskExecutor("repository-", concurrency, properties.getQueueCapacity());
+                executor.setTaskDecorator(AsyncConfig::repositoryTask);
+                return executor;
+            }
+            log.warn("virtual threads are not supported on Java {}, using platform threads", System.getProperty("java.version"));
+        }
+
+        log.info("repository executor: platform threads, concurrency={}", concurrency);
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(concurrency);
+        executor.setMaxPoolSize(concurrency);
+        executor.setQueueCapacity(properties.getQueueCapacity());
+        executor.setThreadNamePrefix("repository-");
+        executor.setTaskDecorator(AsyncConfig::repositoryTask);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        return executor;
+    }
+
+    private static Runnable repositoryTask(Runnable task) {
+        return () -> {
+            REPOSITORY_TASK.set(Boolean.TRUE);
+            try {
+                task.run();
+            } finally {
+                REPOSITORY_TASK.remove();
+            }
+        };
+    }
+
+    private int poolSize(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            }
+        } catch (SQLException e) {
+            log.warn("cannot read connection pool size", e);
+        }
+        return DEFAULT_POOL_SIZE;
+    }
+}
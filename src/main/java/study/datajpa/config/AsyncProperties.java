@@ -0,0 +1,19 @@
+package study.datajpa.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter @Setter
+@ConfigurationProperties(prefix = "datajpa.async")
+public class AsyncProperties {
+
+    // 동시에 DB 작업을 하는 스레드 수, 0 이면 커넥션 풀 크기 (풀보다 많으면 커넥션 대기만 늘어남)
+    private int concurrency = 0;
+
+    // 실행 대기 작업 수, 넘으면 TaskRejectedException (503)
+    private int queueCapacity = 500;
+
+    // JDK 21+ 에서 가상 스레드 사용 (DB 동시 실행 수는 concurrency 로 제한), 지원하지 않으면 일반 스레드 풀
+    private boolean virtualThreads = false;
+}
@@ -0,0 +1,16 @@
+package study.datajpa.config;
+
+import org.hibernate.integrator.spi.Integrator;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(BatchFetchProperties.class)
+public class BatchFetchConfig {
+
+    @Bean
+    public Integrator batchFetchIntegrator(BatchFetchProperties properties) {
+        return new BatchFetchIntegrator(properties.getAssociations());
+    }
+}
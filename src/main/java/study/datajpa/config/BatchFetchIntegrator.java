@@ -0,0 +1,61 @@
+package study.datajpa.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.boot.Metadata;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.mapping.Collection;
+import org.hibernate.mapping.PersistentClass;
+import org.hibernate.mapping.ToOne;
+import org.hibernate.mapping.Value;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+import java.util.Map;
+
+/*
+ * 연관관계 별 batch size 를 매핑 정보에 반영 (@BatchSize 를 설정으로 지정하는 것과 같음)
+ * - 컬렉션(Team.members): 컬렉션 batch size -> 초기화 안 된 컬렉션을 owner id IN (...) 으로 한 번에 로딩
+ * - ToOne(Member.team): 대상 엔티티(Team) batch size -> 초기화 안 된 프록시를 id IN (...) 으로 한 번에 로딩
+ * persister 가 만들어지기 전에 호출되어야 하므로 Integrator 로 등록
+ */
+@Slf4j
+public class BatchFetchIntegrator implements Integrator {
+
+    private final Map<String, Integer> associations;
+
+    public BatchFetchIntegrator(Map<String, Integer> associations) {
+        this.associations = associations;
+    }
+
+    @Override
+    public void integrate(Metadata metadata, SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        associations.forEach((association, batchSize) -> {
+            int dot = association.lastIndexOf('.');
+            if (dot < 0) {
+                throw new IllegalStateException("batch fetch association must be Entity.property: " + association);
+            }
+            PersistentClass owner = entityBinding(metadata, association.substring(0, dot));
+            Value value = owner.getProperty(association.substring(dot + 1)).getValue();
+
+            if (value instanceof Collection) {
+                ((Collection) value).setBatchSize(batchSize);
+            } else if (value instanceof ToOne) {
+                metadata.getEntityBinding(((ToOne) value).getReferencedEntityName()).setBatchSize(batchSize);
+            } else {
+                throw new IllegalStateException("not an association: " + association);
+            }
+            log.debug("batch fetch {} = {}", association, batchSize);
+        });
+    }
+
+    private PersistentClass entityBinding(Metadata metadata, String entityName) {
+        return metadata.getEntityBindings().stream()
+                .filter(binding -> entityName.equals(binding.getJpaEntityName()) || entityName.equals(binding.getEntityName()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("unknown entity for batch fetch: " + entityName));
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+    }
+}
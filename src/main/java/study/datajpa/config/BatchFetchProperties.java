@@ -0,0 +1,19 @@
+package study.datajpa.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Getter @Setter
+@ConfigurationProperties(prefix = "datajpa.batch-fetch")
+public class BatchFetchProperties {
+
+    /*
+     * key: "엔티티.연관관계" (ex. Member.team, Team.members), value: 한 번에 IN (...) 으로 읽을 최대 건수
+     * 없는 연관관계는 hibernate.default_batch_fetch_size 사용
+     */
+    private Map<String, Integer> associations = new LinkedHashMap<>();
+}
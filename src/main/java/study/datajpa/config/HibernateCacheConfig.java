@@ -0,0 +1,50 @@
+package study.datajpa.config;
+
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.core.config.DefaultConfiguration;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.ObjectUtils;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+
+@Configuration
+@EnableConfigurationProperties(HibernateCacheProperties.class)
+public class HibernateCacheConfig {
+
+    /*
+     * Hibernate 2차 캐시용 JCache(Ehcache) CacheManager
+     * region 별 최대 건수, TTL 은 application.yml 의 datajpa.cache.regions 에서 설정
+     */
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(HibernateCacheProperties properties) {
+        EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+        // 테스트처럼 컨텍스트가 여러 개 떠도 region 이 겹치지 않도록 CacheManager 를 분리
+        URI uri = URI.create("urn:datajpa:hibernate:" + ObjectUtils.getIdentityHexString(properties));
+        CacheManager cacheManager = provider.getCacheManager(uri, new DefaultConfiguration(getClass().getClassLoader()));
+
+        properties.getRegions().forEach((name, region) -> {
+            CacheConfigurationBuilder<Object, Object> builder = CacheConfigurationBuilder
+                    .newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(region.getMaxEntries()));
+            if (region.getTimeToLive() != null) {
+                builder = builder.withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(region.getTimeToLive()));
+            }
+            cacheManager.createCache(name, Eh107Configuration.fromEhcacheCacheConfiguration(builder));
+        });
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheManagerCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+}
@@ -0,0 +1,24 @@
+package study.datajpa.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Getter @Setter
+@ConfigurationProperties(prefix = "datajpa.cache")
+public class HibernateCacheProperties {
+
+    // key: 2차 캐시 region 이름 (@Cache(region = ...))
+    private Map<String, Region> regions = new LinkedHashMap<>();
+
+    @Getter @Setter
+    public static class Region {
+
+        private long maxEntries = 1000;
+        private Duration timeToLive;    // 없으면 만료되지 않음 (heap 크기로만 제거)
+    }
+}
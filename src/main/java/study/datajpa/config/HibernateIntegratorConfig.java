@@ -0,0 +1,22 @@
+package study.datajpa.config;
+
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.internal.EntityManagerFactoryBuilderImpl;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.stream.Collectors;
+
+@Configuration
+public class HibernateIntegratorConfig {
+
+    // hibernate.integrator_provider 는 하나만 지정할 수 있으므로 Integrator 빈을 모두 모아서 등록
+    @Bean
+    public HibernatePropertiesCustomizer integratorProviderCustomizer(ObjectProvider<Integrator> integrators) {
+        IntegratorProvider provider = () -> integrators.orderedStream().collect(Collectors.toList());
+        return hibernateProperties -> hibernateProperties.put(EntityManagerFactoryBuilderImpl.INTEGRATOR_PROVIDER, provider);
+    }
+}
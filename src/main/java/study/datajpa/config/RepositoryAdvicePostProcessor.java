@@ -0,0 +1,32 @@
+package study.datajpa.config;
+
+import org.aopalliance.aop.Advice;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+import java.util.function.Function;
+
+/*
+ * 모든 Spring Data repository 프록시에 advice 추가
+ * ex) new RepositoryAdvicePostProcessor(info -> new QueryCountRepositoryInterceptor(info.getRepositoryInterface(), enforcer))
+ * repository 마다 advice 를 만들므로 repository 정보(인터페이스, 도메인 타입)를 advice 에 넘길 수 있음
+ */
+public class RepositoryAdvicePostProcessor implements BeanPostProcessor {
+
+    private final Function<RepositoryInformation, ? extends Advice> adviceFactory;
+
+    public RepositoryAdvicePostProcessor(Function<RepositoryInformation, ? extends Advice> adviceFactory) {
+        this.adviceFactory = adviceFactory;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport) {
+            ((RepositoryFactoryBeanSupport<?, ?, ?>) bean).addRepositoryFactoryCustomizer(factory ->
+                    factory.addRepositoryProxyPostProcessor((proxyFactory, repositoryInformation) ->
+                            proxyFactory.addAdvice(adviceFactory.apply(repositoryInformation))));
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,115 @@
+package study.datajpa.config;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * 작업마다 가상 스레드를 만들고, 동시에 실행되는 작업 수는 concurrency 로 제한
+ * (대기 중인 가상 스레드는 커넥션 풀이 아니라 Semaphore 에서 기다림)
+ * Java 11 로 컴파일하므로 JDK 21 API 는 리플렉션으로 호출
+ */
+public class VirtualThreadTaskExecutor implements AsyncTaskExecutor, DisposableBean {
+
+    private final ExecutorService executor;
+    private final Semaphore running;
+    private final Semaphore admitted;
+    private TaskDecorator taskDecorator = task -> task;
+
+    public VirtualThreadTaskExecutor(String threadNamePrefix, int concurrency, int queueCapacity) {
+        this.executor = newVirtualThreadExecutor(threadNamePrefix);
+        this.running = new Semaphore(concurrency);
+        this.admitted = new Semaphore(concurrency + queueCapacity);
+    }
+
+    // ThreadPoolTaskExecutor.setTaskDecorator 와 같음
+    public void setTaskDecorator(TaskDecorator taskDecorator) {
+        this.taskDecorator = taskDecorator;
+    }
+
+    public static boolean isSupported() {
+        try {
+            Thread.class.getMethod("ofVirtual");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (!admitted.tryAcquire()) {
+            throw new TaskRejectedException("repository executor is full: " + task);
+        }
+        Runnable decorated = taskDecorator.decorate(task);
+        try {
+            executor.execute(() -> {
+                try {
+                    running.acquire();
+                    try {
+                        decorated.run();
+                    } finally {
+                        running.release();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    admitted.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            admitted.release();
+            throw new TaskRejectedException("repository executor rejected: " + task, e);
+        }
+    }
+
+    @Override
+    public void execute(Runnable task, long startTimeout) {
+        execute(task);
+    }
+
+    @Override
+    public Future<?> submit(Runnable task) {
+        FutureTask<Object> future = new FutureTask<>(task, null);
+        execute(future);
+        return future;
+    }
+
+    @Override
+    public <T> Future<T> submit(Callable<T> task) {
+        FutureTask<T> future = new FutureTask<>(task);
+        execute(future);
+        return future;
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    // Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(prefix, 0).factory())
+    private static ExecutorService newVirtualThreadExecutor(String threadNamePrefix) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, threadNamePrefix, 0L);
+            Object factory = builderType.getMethod("factory").invoke(builder);
+            Method newExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) newExecutor.invoke(null, factory);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("virtual threads are not supported", e);
+        }
+    }
+}
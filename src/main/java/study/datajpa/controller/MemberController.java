@@ -1,24 +1,60 @@
 package study.datajpa.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.mapping.PropertyReferenceException;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import study.datajpa.dto.KeysetPage;
+import study.datajpa.dto.MemberCursor;
 import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.MemberSearchCondition;
 import study.datajpa.entity.Member;
+import study.datajpa.entity.MemberProjection;
+import study.datajpa.monitor.QueryBudget;
+import study.datajpa.repository.CountAwarePage;
 import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.PageCountCache;
+import study.datajpa.repository.TableStatistics;
 
 import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 @RestController
 @RequiredArgsConstructor
 public class MemberController {
 
+    private static final int MAX_PAGE_SIZE = 2000;
+    private static final int EXPORT_FLUSH_INTERVAL = 1000;
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private final MemberRepository memberRepository;
+    private final PageCountCache pageCountCache;
+    private final TableStatistics tableStatistics;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
 
+    @QueryBudget(1)
     @GetMapping("/v1/members/{id}")
     public String findMemberV1(@PathVariable("id") Long id) {
         Member member = memberRepository.findById(id).get();
@@ -26,26 +62,146 @@ public class MemberController {
     }
 
     // Domain class converter로 entity를 받은 경우는 조회용으로만 사용해야 함
+    @QueryBudget(1)
     @GetMapping("/v2/members/{id}")
     public String findMemberV2(@PathVariable("id") Member member) {
         return member.getUsername();
     }
 
+    /*
+     * 비동기: servlet 스레드는 바로 반환되고 조회는 repositoryExecutor (커넥션 풀 크기만큼) 에서 실행
+     * 쿼리가 다른 스레드에서 실행되므로 @QueryBudget 대신 repository 호출 단위 budget 만 적용됨
+     */
+    @GetMapping("/v3/members/{id}")
+    public CompletableFuture<String> findMemberV3(@PathVariable("id") Long id) {
+        return memberRepository.findMemberDtoById(id).thenApply(member -> {
+            if (member == null) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+            }
+            return member.getUsername();
+        });
+    }
+
+    @QueryBudget(2)     // content + count
     @GetMapping("/v1/members")
     public Page<Member> list(@PageableDefault(size = 5, sort = "username") Pageable pageable) {
         return memberRepository.findAll(pageable);
     }
 
+    // 엔티티를 조회해서 변환하지 않고 MemberDto 생성자 표현식으로 바로 조회 (영속성 컨텍스트에 엔티티가 쌓이지 않음)
+    // sort 는 MemberDto 속성(teamName 등) 또는 Member 속성(age 등)
+    @QueryBudget(3)     // id 페이지 + content + count
     @GetMapping("/v2/members")
     public Page<MemberDto> dtoList(@PageableDefault(size = 5, sort = "username") Pageable pageable) {
-        return memberRepository.findAll(pageable).map(MemberDto::new);
+        return memberRepository.findDtoPage(MemberDto.class, pageable);
+    }
+
+    @GetMapping("/v3/members")
+    public CompletableFuture<Page<MemberDto>> asyncDtoList(@PageableDefault(size = 5, sort = "username") Pageable pageable) {
+        return memberRepository.findMemberDtoPage(pageable);
+    }
+
+    // 검색: username, 나이 범위(ageGoe, ageLoe), 팀 이름 중 값이 있는 조건만 조합 (조합별 JPQL 은 캐시됨)
+    @QueryBudget(2)     // content + count
+    @GetMapping("/v1/members/search")
+    public Page<MemberDto> search(MemberSearchCondition condition,
+                                  @PageableDefault(size = 5, sort = "username") Pageable pageable) {
+        // MemberDto(Member) 는 팀 이름을 채우지 않으므로 fetch 된 team 에서 직접 (team 은 검색 쿼리에서 fetch join)
+        return memberRepository.search(condition, pageable).map(member -> new MemberDto(member.getId(), member.getUsername(),
+                member.getTeam() == null ? null : member.getTeam().getName()));
+    }
+
+    // 대시보드용: 마지막 페이지는 count 생략, 나머지는 TTL 캐시된 count (totalExact 로 구분)
+    @QueryBudget(2)
+    @GetMapping("/v1/members/age/{age}")
+    public CountAwarePage<MemberDto> listByAge(@PathVariable("age") int age,
+                                               @PageableDefault(size = 5, sort = "username") Pageable pageable) {
+        return pageCountCache.page(memberRepository.findSliceByAge(age, pageable),
+                PageCountCache.key("Member.countByAge", age),
+                () -> memberRepository.countByAge(age))
+                .map(MemberDto::new);
+    }
+
+    @QueryBudget(2)
+    @GetMapping("/v1/members/projection")
+    public CountAwarePage<MemberProjection> projectionList(@PageableDefault(size = 5) Pageable pageable) {
+        return pageCountCache.estimated(memberRepository.findSliceByNativeProjection(pageable),
+                () -> tableStatistics.estimateRowCount("member"));
+    }
+
+    // keyset paging: count 쿼리 없이 다음 페이지는 nextCursor 로 조회
+    @QueryBudget(1)
+    @GetMapping("/v1/members/keyset")
+    public KeysetPage<Member> keysetList(@RequestParam(required = false) String cursor,
+                                         @RequestParam(defaultValue = "5") int size) {
+        return KeysetPage.of(memberRepository.findKeyset(toCursor(cursor), limit(size)));
+    }
+
+    @QueryBudget(1)
+    @GetMapping("/v2/members/keyset")
+    public KeysetPage<MemberDto> keysetDtoList(@RequestParam(required = false) String cursor,
+                                               @RequestParam(defaultValue = "5") int size) {
+        return KeysetPage.of(memberRepository.findKeyset(toCursor(cursor), limit(size))).map(MemberDto::new);
+    }
+
+    // 전체 회원을 NDJSON 으로 내려줌 (DTO 로 바로 조회하므로 영속성 컨텍스트에 엔티티가 쌓이지 않음)
+    @GetMapping("/v1/members/export")
+    public ResponseEntity<StreamingResponseBody> export() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        StreamingResponseBody body = out -> readOnly.executeWithoutResult(status -> {
+            try (Stream<MemberDto> members = memberRepository.streamMemberDto()) {
+                long count = 0;
+                for (MemberDto member : (Iterable<MemberDto>) members::iterator) {
+                    out.write(objectMapper.writeValueAsBytes(member));
+                    out.write('\n');
+                    if (++count % EXPORT_FLUSH_INTERVAL == 0) {
+                        out.flush();
+                    }
+                }
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+
+    // repositoryExecutor 대기열이 가득 찬 경우
+    @ExceptionHandler(TaskRejectedException.class)
+    public ResponseEntity<Void> rejected() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+    }
+
+    // 없는 속성으로 정렬 요청 (ex. sort=password)
+    @ExceptionHandler(PropertyReferenceException.class)
+    public ResponseEntity<String> invalidSort(PropertyReferenceException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+
+    private MemberCursor toCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            return MemberCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "invalid cursor", e);
+        }
+    }
+
+    private int limit(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
     }
 
     @PostConstruct
     public void init() {
+        List<Member> members = new ArrayList<>();
         for (int i = 0; i < 100; i++) {
-            memberRepository.save(new Member("member" + i, i));
+            members.add(new Member("member" + i, i));
         }
+        memberRepository.saveAllBatched(members, 100);
     }
 
 
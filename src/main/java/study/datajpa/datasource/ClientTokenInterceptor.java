@@ -0,0 +1,58 @@
+package study.datajpa.datasource;
+
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.UUID;
+
+/*
+ * 방금 쓴 데이터를 primary 에서 읽을 클라이언트 구분 (ReplicaRoutingDataSource 의 writerKey)
+ * X-Client-Id 헤더, 없으면 datajpa-client 쿠키
+ * 둘 다 없는 쓰기 요청(GET, HEAD 외)은 토큰을 만들어 쿠키로 내려줌 -> 같은 클라이언트의 다음 요청은 어느 스레드에서 처리되든 같은 writer
+ */
+public class ClientTokenInterceptor implements HandlerInterceptor {
+
+    public static final String HEADER = "X-Client-Id";
+    public static final String COOKIE = "datajpa-client";
+    public static final String ATTRIBUTE = ClientTokenInterceptor.class.getName() + ".token";
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getAttribute(ATTRIBUTE) != null) {
+            return true;
+        }
+        String token = resolve(request);
+        if (token == null && isWrite(request)) {
+            token = UUID.randomUUID().toString();
+            Cookie cookie = new Cookie(COOKIE, token);
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            response.addCookie(cookie);
+        }
+        if (token != null) {
+            request.setAttribute(ATTRIBUTE, token);
+        }
+        return true;
+    }
+
+    private String resolve(HttpServletRequest request) {
+        String header = request.getHeader(HEADER);
+        if (header != null && !header.isBlank()) {
+            return header;
+        }
+        if (request.getCookies() != null) {
+            for (Cookie cookie : request.getCookies()) {
+                if (COOKIE.equals(cookie.getName()) && !cookie.getValue().isBlank()) {
+                    return cookie.getValue();
+                }
+            }
+        }
+        return null;
+    }
+
+    private boolean isWrite(HttpServletRequest request) {
+        return !"GET".equals(request.getMethod()) && !"HEAD".equals(request.getMethod());
+    }
+}
@@ -0,0 +1,42 @@
+package study.datajpa.datasource;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Instant;
+
+// 한 구간(adviceInterval) 동안 관찰한 커넥션 풀 사용량과 크기 판단
+@Getter
+@ToString
+public class PoolAdvice {
+
+    public enum Verdict {
+        OK,
+        UNDERSIZED,     // 커넥션 대기/timeout 이 있고 동시 요청이 풀보다 많음
+        SATURATED,      // 커넥션 대기/timeout 이 있지만 동시 요청은 풀 이하 (긴 트랜잭션, 커넥션 누수, 비동기 작업 의심)
+        OVERSIZED       // 대기 없이 최대 active 가 풀의 oversizedRatio 이하
+    }
+
+    private final String pool;
+    private final Verdict verdict;
+    private final int maximumPoolSize;
+    private final int peakActive;
+    private final int peakPending;
+    private final long timeouts;
+    private final int peakConcurrentRequests;
+    private final int suggestedPoolSize;
+    private final Instant observedAt;
+
+    PoolAdvice(String pool, Verdict verdict, int maximumPoolSize, int peakActive, int peakPending, long timeouts,
+               int peakConcurrentRequests, int suggestedPoolSize) {
+        this.pool = pool;
+        this.verdict = verdict;
+        this.maximumPoolSize = maximumPoolSize;
+        this.peakActive = peakActive;
+        this.peakPending = peakPending;
+        this.timeouts = timeouts;
+        this.peakConcurrentRequests = peakConcurrentRequests;
+        this.suggestedPoolSize = suggestedPoolSize;
+        this.observedAt = Instant.now();
+    }
+}
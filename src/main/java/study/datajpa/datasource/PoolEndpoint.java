@@ -0,0 +1,120 @@
+package study.datajpa.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.CountAtBucket;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.Getter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/*
+ * GET /actuator/pool : 풀별 현재 상태, 커넥션 획득 시간 분포(hikaricp.connections.acquire), 마지막 크기 판단, 문장 캐시 통계
+ * 분포 구간은 management.metrics.distribution.slo.hikaricp.connections.acquire
+ */
+@Endpoint(id = "pool")
+public class PoolEndpoint {
+
+    static final String ACQUIRE = "hikaricp.connections.acquire";
+
+    private final PoolSizeAdvisor advisor;
+    private final RequestConcurrencyInterceptor concurrency;
+    private final StatementCacheMetrics statementCacheMetrics;
+    private final ObjectProvider<MeterRegistry> registry;
+
+    public PoolEndpoint(PoolSizeAdvisor advisor, RequestConcurrencyInterceptor concurrency,
+                        StatementCacheMetrics statementCacheMetrics, ObjectProvider<MeterRegistry> registry) {
+        this.advisor = advisor;
+        this.concurrency = concurrency;
+        this.statementCacheMetrics = statementCacheMetrics;
+        this.registry = registry;
+    }
+
+    @ReadOperation
+    public PoolReport pool() {
+        List<PoolStats> pools = advisor.pools().stream()
+                .map(pool -> new PoolStats(pool, acquireTimer(pool.getPoolName())))
+                .collect(Collectors.toList());
+        return new PoolReport(pools, concurrency.getInFlight(), concurrency.getPeak(), advisor.getLastAdvice(),
+                statementCacheMetrics.snapshot());
+    }
+
+    private Timer acquireTimer(String pool) {
+        MeterRegistry meterRegistry = registry.getIfAvailable();
+        return meterRegistry == null ? null : meterRegistry.find(ACQUIRE).tag("pool", pool).timer();
+    }
+
+    @Getter
+    public static class PoolReport {
+
+        private final List<PoolStats> pools;
+        private final int inFlightRequests;
+        private final int peakConcurrentRequests;
+        private final List<PoolAdvice> advice;
+        private final StatementCacheMetrics.Snapshot statements;
+
+        PoolReport(List<PoolStats> pools, int inFlightRequests, int peakConcurrentRequests, List<PoolAdvice> advice,
+                   StatementCacheMetrics.Snapshot statements) {
+            this.pools = pools;
+            this.inFlightRequests = inFlightRequests;
+            this.peakConcurrentRequests = peakConcurrentRequests;
+            this.advice = advice;
+            this.statements = statements;
+        }
+    }
+
+    @Getter
+    public static class PoolStats {
+
+        private final String pool;
+        private final int maximumPoolSize;
+        private final int minimumIdle;
+        private final long connectionTimeoutMillis;
+        private final int active;
+        private final int idle;
+        private final int pending;
+        private final long acquireCount;
+        private final double acquireMeanMillis;
+        private final double acquireMaxMillis;
+        private final Map<String, Double> acquirePercentilesMillis = new LinkedHashMap<>();
+        private final Map<String, Double> acquireHistogram = new LinkedHashMap<>();     // "<= 5ms" -> 누적 건수
+
+        PoolStats(HikariDataSource pool, Timer acquire) {
+            this.pool = pool.getPoolName();
+            this.maximumPoolSize = pool.getMaximumPoolSize();
+            this.minimumIdle = pool.getMinimumIdle();
+            this.connectionTimeoutMillis = pool.getConnectionTimeout();
+            HikariPoolMXBean mxBean = pool.getHikariPoolMXBean();
+            this.active = mxBean == null ? 0 : mxBean.getActiveConnections();
+            this.idle = mxBean == null ? 0 : mxBean.getIdleConnections();
+            this.pending = mxBean == null ? 0 : mxBean.getThreadsAwaitingConnection();
+
+            if (acquire == null) {
+                this.acquireCount = 0;
+                this.acquireMeanMillis = 0;
+                this.acquireMaxMillis = 0;
+                return;
+            }
+            HistogramSnapshot snapshot = acquire.takeSnapshot();
+            this.acquireCount = snapshot.count();
+            this.acquireMeanMillis = snapshot.mean(TimeUnit.MILLISECONDS);
+            this.acquireMaxMillis = snapshot.max(TimeUnit.MILLISECONDS);
+            for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+                acquirePercentilesMillis.put("p" + Math.round(percentile.percentile() * 100), percentile.value(TimeUnit.MILLISECONDS));
+            }
+            for (CountAtBucket bucket : snapshot.histogramCounts()) {
+                acquireHistogram.put("<= " + bucket.bucket(TimeUnit.MILLISECONDS) + "ms", bucket.count());
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package study.datajpa.datasource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.IntervalTask;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+/*
+ * 커넥션 풀 / 문장 캐시 관측
+ * - MemberController 동시 요청 수 (RequestConcurrencyInterceptor)
+ * - 풀 크기 판단 경고 (PoolSizeAdvisor, sampleInterval / adviceInterval 마다 실행)
+ * - /actuator/pool, datajpa.statement.* 메트릭 (statement-statistics 를 켰을 때만)
+ * 커넥션 획득 시간(hikaricp.connections.acquire) 분포 구간은 application.yml 의 management.metrics.distribution
+ */
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(PoolProperties.class)
+@ConditionalOnProperty(prefix = "datajpa.datasource.pool", name = "enabled", matchIfMissing = true)
+public class PoolMonitorConfig implements WebMvcConfigurer, SchedulingConfigurer {
+
+    private final PoolProperties properties;
+    private final ObjectProvider<PoolSizeAdvisor> advisor;
+
+    public PoolMonitorConfig(PoolProperties properties, ObjectProvider<PoolSizeAdvisor> advisor) {
+        this.properties = properties;
+        this.advisor = advisor;
+    }
+
+    @Bean
+    public RequestConcurrencyInterceptor requestConcurrencyInterceptor() {
+        return new RequestConcurrencyInterceptor();
+    }
+
+    @Bean
+    public PoolSizeAdvisor poolSizeAdvisor(DataSource dataSource, ObjectProvider<MeterRegistry> registry) {
+        return new PoolSizeAdvisor(dataSource, requestConcurrencyInterceptor(), properties, registry);
+    }
+
+    @Bean
+    public StatementCacheMetrics statementCacheMetrics(ObjectProvider<EntityManagerFactory> entityManagerFactory) {
+        return new StatementCacheMetrics(entityManagerFactory, properties.isStatementStatistics());
+    }
+
+    // statement-statistics 를 켰을 때만 Hibernate Statistics 수집
+    @Bean
+    @ConditionalOnProperty(prefix = "datajpa.datasource.pool", name = "statement-statistics", havingValue = "true")
+    public HibernatePropertiesCustomizer statementStatisticsCustomizer() {
+        return hibernateProperties -> hibernateProperties.put(AvailableSettings.GENERATE_STATISTICS, true);
+    }
+
+    @Bean
+    public PoolEndpoint poolEndpoint(PoolSizeAdvisor poolSizeAdvisor, StatementCacheMetrics statementCacheMetrics,
+                                     ObjectProvider<MeterRegistry> registry) {
+        return new PoolEndpoint(poolSizeAdvisor, requestConcurrencyInterceptor(), statementCacheMetrics, registry);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(requestConcurrencyInterceptor())
+                .addPathPatterns(properties.getTrackedPaths().toArray(new String[0]));
+    }
+
+    // Duration 설정을 쓰기 위해 @Scheduled 대신 직접 등록
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        long sampleInterval = properties.getSampleInterval().toMillis();
+        long adviceInterval = properties.getAdviceInterval().toMillis();
+        PoolSizeAdvisor poolSizeAdvisor = advisor.getObject();     // 싱글톤 생성이 끝난 뒤 호출됨
+        registrar.addFixedDelayTask(new IntervalTask(poolSizeAdvisor::sample, sampleInterval, sampleInterval));
+        registrar.addFixedDelayTask(new IntervalTask(poolSizeAdvisor::advise, adviceInterval, adviceInterval));
+    }
+}
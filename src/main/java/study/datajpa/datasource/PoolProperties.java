@@ -0,0 +1,29 @@
+package study.datajpa.datasource;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.List;
+
+@Getter @Setter
+@ConfigurationProperties(prefix = "datajpa.datasource.pool")
+public class PoolProperties {
+
+    // 커넥션 풀 상태(active, 대기 스레드) 를 읽는 주기
+    private Duration sampleInterval = Duration.ofSeconds(1);
+
+    // 이 주기 동안의 샘플로 풀 크기를 판단해서 경고 (PoolSizeAdvisor)
+    private Duration adviceInterval = Duration.ofMinutes(1);
+
+    // 대기가 없고 최대 active 가 maximumPoolSize 의 이 비율 이하면 풀이 너무 큼
+    private double oversizedRatio = 0.25;
+
+    // 켜면 Hibernate Statistics(hibernate.generate_statistics) 를 켜고 datajpa.statement.* 메트릭 등록
+    // (세션마다 통계를 모으는 비용이 있으므로 기본은 꺼짐)
+    private boolean statementStatistics = false;
+
+    // 동시 요청 수를 세는 경로 (MemberController)
+    private List<String> trackedPaths = List.of("/v*/members", "/v*/members/**");
+}
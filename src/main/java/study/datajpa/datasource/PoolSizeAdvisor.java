@@ -0,0 +1,173 @@
+package study.datajpa.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * 커넥션 풀(Hikari) 크기가 요청 동시성에 맞는지 판단
+ * - sample(): sampleInterval 마다 풀별 active, 대기 스레드 수의 최대값 기록
+ * - advise(): adviceInterval 마다 구간 최대값 + 커넥션 timeout 건수(hikaricp.connections.timeout) 를
+ *   MemberController 동시 요청 수(RequestConcurrencyInterceptor) 와 비교해서 경고 로그
+ * replica 가 설정된 경우 ReplicaRoutingDataSource 안의 primary, replica 풀을 각각 판단
+ */
+@Slf4j
+public class PoolSizeAdvisor {
+
+    static final String TIMEOUTS = "hikaricp.connections.timeout";
+
+    private final DataSource dataSource;
+    private final RequestConcurrencyInterceptor concurrency;
+    private final PoolProperties properties;
+    private final ObjectProvider<MeterRegistry> registry;
+
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+    private final Map<String, Double> lastTimeouts = new ConcurrentHashMap<>();
+    private final Map<String, PoolAdvice.Verdict> lastVerdicts = new ConcurrentHashMap<>();
+    private volatile List<PoolAdvice> lastAdvice = Collections.emptyList();
+
+    public PoolSizeAdvisor(DataSource dataSource, RequestConcurrencyInterceptor concurrency, PoolProperties properties,
+                           ObjectProvider<MeterRegistry> registry) {
+        this.dataSource = dataSource;
+        this.concurrency = concurrency;
+        this.properties = properties;
+        this.registry = registry;
+    }
+
+    public void sample() {
+        for (HikariDataSource pool : pools()) {
+            HikariPoolMXBean mxBean = pool.getHikariPoolMXBean();
+            if (mxBean != null) {
+                windows.computeIfAbsent(pool.getPoolName(), name -> new Window())
+                        .record(mxBean.getActiveConnections(), mxBean.getThreadsAwaitingConnection());
+            }
+        }
+    }
+
+    public synchronized List<PoolAdvice> advise() {
+        int peakRequests = concurrency.resetPeak();
+        List<PoolAdvice> advice = new ArrayList<>();
+        for (HikariDataSource pool : pools()) {
+            String name = pool.getPoolName();
+            Window window = windows.computeIfAbsent(name, n -> new Window()).reset();
+            PoolAdvice result = judge(name, pool.getMaximumPoolSize(), window, timeoutsSinceLastAdvice(name), peakRequests);
+            log(result);
+            advice.add(result);
+        }
+        lastAdvice = Collections.unmodifiableList(advice);
+        return lastAdvice;
+    }
+
+    public List<PoolAdvice> getLastAdvice() {
+        return lastAdvice;
+    }
+
+    public List<HikariDataSource> pools() {
+        try {
+            if (dataSource.isWrapperFor(ReplicaRoutingDataSource.class)) {
+                return dataSource.unwrap(ReplicaRoutingDataSource.class).getPools();
+            }
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return List.of(dataSource.unwrap(HikariDataSource.class));
+            }
+        } catch (SQLException e) {
+            log.warn("cannot read connection pools", e);
+        }
+        return Collections.emptyList();
+    }
+
+    private PoolAdvice judge(String name, int maximumPoolSize, Window window, long timeouts, int peakRequests) {
+        boolean waited = window.peakPending > 0 || timeouts > 0;
+        PoolAdvice.Verdict verdict;
+        int suggested = maximumPoolSize;
+        if (waited && peakRequests > maximumPoolSize) {
+            verdict = PoolAdvice.Verdict.UNDERSIZED;
+            suggested = peakRequests;
+        } else if (waited) {
+            verdict = PoolAdvice.Verdict.SATURATED;
+        } else if (window.samples > 0 && window.peakActive <= maximumPoolSize * properties.getOversizedRatio()) {
+            verdict = PoolAdvice.Verdict.OVERSIZED;
+            suggested = Math.max(Math.max(window.peakActive, peakRequests), 1) * 2;
+            suggested = Math.min(suggested, maximumPoolSize);
+        } else {
+            verdict = PoolAdvice.Verdict.OK;
+        }
+        return new PoolAdvice(name, verdict, maximumPoolSize, window.peakActive, window.peakPending, timeouts,
+                peakRequests, suggested);
+    }
+
+    private void log(PoolAdvice advice) {
+        PoolAdvice.Verdict previous = lastVerdicts.put(advice.getPool(), advice.getVerdict());
+        switch (advice.getVerdict()) {
+            case UNDERSIZED:
+                log.warn("connection pool [{}] is too small: {} threads waited, {} timeouts, {} concurrent requests > maximumPoolSize {} (consider {}, or /v3 async endpoints)",
+                        advice.getPool(), advice.getPeakPending(), advice.getTimeouts(), advice.getPeakConcurrentRequests(),
+                        advice.getMaximumPoolSize(), advice.getSuggestedPoolSize());
+                break;
+            case SATURATED:
+                log.warn("connection pool [{}] is saturated: {} threads waited, {} timeouts with only {} concurrent requests (maximumPoolSize {}), check long transactions or leaked connections",
+                        advice.getPool(), advice.getPeakPending(), advice.getTimeouts(), advice.getPeakConcurrentRequests(),
+                        advice.getMaximumPoolSize());
+                break;
+            case OVERSIZED:
+                // 한가한 애플리케이션은 계속 OVERSIZED 이므로 판단이 바뀔 때만 info
+                if (previous == PoolAdvice.Verdict.OVERSIZED) {
+                    log.debug("connection pool [{}]: {}", advice.getPool(), advice);
+                    break;
+                }
+                log.info("connection pool [{}] is larger than needed: peak active {} of {} (consider {})",
+                        advice.getPool(), advice.getPeakActive(), advice.getMaximumPoolSize(), advice.getSuggestedPoolSize());
+                break;
+            default:
+                log.debug("connection pool [{}]: {}", advice.getPool(), advice);
+        }
+    }
+
+    // Hikari 의 timeout 카운터는 누적값이므로 지난 advise() 이후 증가분
+    private long timeoutsSinceLastAdvice(String pool) {
+        MeterRegistry meterRegistry = registry.getIfAvailable();
+        if (meterRegistry == null) {
+            return 0;
+        }
+        Counter counter = meterRegistry.find(TIMEOUTS).tag("pool", pool).counter();
+        double total = counter == null ? 0 : counter.count();
+        Double previous = lastTimeouts.put(pool, total);
+        return (long) (total - (previous == null ? 0 : previous));
+    }
+
+    private static final class Window {
+
+        private int peakActive;
+        private int peakPending;
+        private int samples;
+
+        synchronized void record(int active, int pending) {
+            peakActive = Math.max(peakActive, active);
+            peakPending = Math.max(peakPending, pending);
+            samples++;
+        }
+
+        // 지금까지 값을 복사해서 돌려주고 초기화
+        synchronized Window reset() {
+            Window copy = new Window();
+            copy.peakActive = peakActive;
+            copy.peakPending = peakPending;
+            copy.samples = samples;
+            peakActive = 0;
+            peakPending = 0;
+            samples = 0;
+            return copy;
+        }
+    }
+}
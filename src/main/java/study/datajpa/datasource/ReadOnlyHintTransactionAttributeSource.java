@@ -0,0 +1,45 @@
+package study.datajpa.datasource;
+
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.interceptor.DefaultTransactionAttribute;
+import org.springframework.transaction.interceptor.TransactionAttribute;
+import org.springframework.transaction.interceptor.TransactionAttributeSource;
+
+import javax.persistence.QueryHint;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * @QueryHints(org.hibernate.readOnly=true) 조회 메서드 -> readOnly 트랜잭션 (replica)
+ * 선언한 조회 메서드에는 기본 트랜잭션이 없어서 힌트만으로는 readOnly 트랜잭션이 되지 않음
+ * 이미 트랜잭션이 있으면 참여 (쓰기 트랜잭션 안에서는 primary)
+ */
+public class ReadOnlyHintTransactionAttributeSource implements TransactionAttributeSource {
+
+    private static final String READ_ONLY_HINT = "org.hibernate.readOnly";
+
+    private final Map<Method, Optional<TransactionAttribute>> cache = new ConcurrentHashMap<>();
+
+    @Override
+    public TransactionAttribute getTransactionAttribute(Method method, Class<?> targetClass) {
+        return cache.computeIfAbsent(method, this::resolve).orElse(null);
+    }
+
+    private Optional<TransactionAttribute> resolve(Method method) {
+        QueryHints hints = AnnotatedElementUtils.findMergedAnnotation(method, QueryHints.class);
+        if (hints == null) {
+            return Optional.empty();
+        }
+        for (QueryHint hint : hints.value()) {
+            if (READ_ONLY_HINT.equals(hint.name()) && Boolean.parseBoolean(hint.value())) {
+                DefaultTransactionAttribute attribute = new DefaultTransactionAttribute();
+                attribute.setReadOnly(true);
+                return Optional.of(attribute);
+            }
+        }
+        return Optional.empty();
+    }
+}
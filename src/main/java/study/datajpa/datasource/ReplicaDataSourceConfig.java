@@ -0,0 +1,104 @@
+package study.datajpa.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import study.datajpa.config.RepositoryAdvicePostProcessor;
+import study.datajpa.lock.LockExceptionOverride;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+
+/*
+ * datajpa.datasource.replica.url 이 있을 때만 사용
+ * primary(spring.datasource), replica 커넥션 풀을 ReplicaRoutingDataSource 로 묶어서 DataSource 빈 하나로 등록
+ * (풀을 각각 빈으로 등록하면 DataSource 초기화(DataSourceInitializerInvoker) 와 순환 참조가 생김)
+ * p6spy 로 감싸면 트랜잭션 시작 시점에 커넥션을 가져와서 라우팅이 안 되므로 decorator.datasource.exclude-beans 에 포함
+ * 카운터 등은 dataSource.unwrap(ReplicaRoutingDataSource.class) 로 접근
+ * 방금 쓴 데이터를 읽을 writer 는 ClientTokenInterceptor 의 클라이언트 토큰으로 구분
+ */
+@Configuration
+@EnableConfigurationProperties(ReplicaDataSourceProperties.class)
+@ConditionalOnProperty(prefix = "datajpa.datasource.replica", name = "url")
+public class ReplicaDataSourceConfig implements WebMvcConfigurer {
+
+    @Bean
+    public DataSource routingDataSource(DataSourceProperties properties, ReplicaDataSourceProperties replicaProperties,
+                                        ObjectProvider<MeterRegistry> meterRegistry, Environment environment) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        // 직접 만든 풀이므로 Boot 의 DataSource 처럼 spring.datasource.hikari 설정(풀 크기, timeout, exception override 등)을 바인딩
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        primary.setPoolName("primary");
+
+        HikariDataSource replica = new HikariDataSource();
+        replica.setPoolName("replica");
+        replica.setJdbcUrl(replicaProperties.getUrl());
+        replica.setUsername(replicaProperties.getUsername());
+        replica.setPassword(replicaProperties.getPassword());
+        replica.setMaximumPoolSize(replicaProperties.getMaximumPoolSize());
+        replica.setConnectionTimeout(replicaProperties.getConnectionTimeout().toMillis());
+        replica.setReadOnly(true);
+        replica.setExceptionOverrideClassName(LockExceptionOverride.class.getName());
+        // Boot 는 DataSource 빈에서 꺼낼 수 있는 풀(primary) 에만 hikaricp.* 메트릭을 붙이므로 replica 는 직접
+        meterRegistry.ifAvailable(registry -> replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+
+        return new RoutingDataSourceProxy(new ReplicaRoutingDataSource(primary, replica,
+                replicaProperties.getLagTolerance(), replicaProperties.getRetryInterval(), ReplicaDataSourceConfig::writerKey));
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ClientTokenInterceptor());
+    }
+
+    // 방금 쓴 데이터를 primary 에서 읽을 대상: 요청의 클라이언트 토큰
+    // 토큰이 없으면 (토큰 없는 요청, 요청 밖의 스레드) null -> 누구의 쓰기든 lagTolerance 이내면 primary
+    static Object writerKey() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        return attributes.getAttribute(ClientTokenInterceptor.ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+    }
+
+    // readOnly 힌트가 있는 repository 조회 메서드를 readOnly 트랜잭션으로 실행
+    @Bean
+    public static BeanPostProcessor readOnlyHintTransactionPostProcessor(BeanFactory beanFactory) {
+        TransactionInterceptor interceptor = new TransactionInterceptor();
+        interceptor.setTransactionAttributeSource(new ReadOnlyHintTransactionAttributeSource());
+        interceptor.setBeanFactory(beanFactory);
+
+        return new RepositoryAdvicePostProcessor(repositoryInformation -> interceptor);
+    }
+
+    // 종료 시 primary/replica 커넥션 풀도 닫음
+    static class RoutingDataSourceProxy extends LazyConnectionDataSourceProxy implements Closeable {
+
+        RoutingDataSourceProxy(ReplicaRoutingDataSource routing) {
+            super(routing);
+        }
+
+        @Override
+        public void close() throws IOException {
+            ((ReplicaRoutingDataSource) obtainTargetDataSource()).close();
+        }
+    }
+}
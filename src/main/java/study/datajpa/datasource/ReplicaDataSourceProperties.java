@@ -0,0 +1,27 @@
+package study.datajpa.datasource;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter @Setter
+@ConfigurationProperties(prefix = "datajpa.datasource.replica")
+public class ReplicaDataSourceProperties {
+
+    // 설정하면 readOnly 트랜잭션은 replica 로 (없으면 spring.datasource 하나만 사용)
+    private String url;
+    private String username = "sa";
+    private String password = "";
+    private int maximumPoolSize = 10;
+    private Duration connectionTimeout = Duration.ofSeconds(3);
+
+    // 쓰기 커밋 후 이 시간 동안은 같은 writer (클라이언트 토큰) 의 읽기도 primary 로
+    // (replica 복제 지연 동안 방금 쓴 데이터가 안 보이는 문제 방지, 다른 writer 의 읽기는 계속 replica)
+    // 토큰이 없는 읽기는 누구의 쓰기든 이 시간 이내면 primary
+    private Duration lagTolerance = Duration.ofSeconds(1);
+
+    // replica 연결 실패 시 이 시간 동안 primary 로 보내고 다시 시도
+    private Duration retryInterval = Duration.ofSeconds(10);
+}
@@ -0,0 +1,185 @@
+package study.datajpa.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/*
+ * readOnly 트랜잭션 -> replica, 나머지 -> primary
+ * 트랜잭션 시작 시점에는 readOnly 여부가 아직 설정되지 않으므로 LazyConnectionDataSourceProxy 로 감싸서 사용
+ *
+ * replica 를 쓰지 않는 경우
+ * - 같은 writer 의 마지막 쓰기 커밋 후 lagTolerance 이내 (방금 쓴 데이터를 읽도록, 다른 writer 의 쓰기와는 무관)
+ * - writerKey 가 null 이면 누구의 쓰기든 마지막 쓰기 커밋 후 lagTolerance 이내
+ * - replica 연결 실패 후 retryInterval 이내
+ * writer 는 writerKey 로 구분 (기본은 스레드, ReplicaDataSourceConfig 는 클라이언트 토큰)
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    public enum Route { PRIMARY, REPLICA }
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final long lagToleranceNanos;
+    private final long retryIntervalNanos;
+
+    private static final int CLEANUP_THRESHOLD = 1024;
+
+    private final Supplier<Object> writerKey;
+    // writer -> 마지막 쓰기 커밋 시각, lagTolerance 가 지난 항목은 조회할 때 / 많아지면 정리
+    private final Map<Object, Long> lastWrites = new ConcurrentHashMap<>();
+    // writer 구분 없이 마지막 쓰기 커밋 시각 (writerKey 가 null 인 읽기용)
+    private volatile long lastWriteAt;
+    private volatile long replicaDownUntil;
+
+    private final LongAdder primaryConnections = new LongAdder();
+    private final LongAdder replicaConnections = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, Duration lagTolerance, Duration retryInterval) {
+        this(primary, replica, lagTolerance, retryInterval, () -> Thread.currentThread().getId());
+    }
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, Duration lagTolerance, Duration retryInterval,
+                                    Supplier<Object> writerKey) {
+        this.primary = primary;
+        this.replica = replica;
+        this.lagToleranceNanos = lagTolerance.toNanos();
+        this.retryIntervalNanos = retryInterval.toNanos();
+        this.writerKey = writerKey;
+        this.replicaDownUntil = System.nanoTime();
+        this.lastWriteAt = replicaDownUntil - lagToleranceNanos - 1;
+
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return Route.PRIMARY;
+        }
+        long now = System.nanoTime();
+        if (now - replicaDownUntil < 0 || wroteRecently(writerKey.get(), now)) {
+            return Route.PRIMARY;
+        }
+        return Route.REPLICA;
+    }
+
+    private boolean wroteRecently(Object writer, long now) {
+        if (writer == null) {
+            return now - this.lastWriteAt <= lagToleranceNanos;
+        }
+        Long lastWriteAt = lastWrites.get(writer);
+        if (lastWriteAt == null) {
+            return false;
+        }
+        if (now - lastWriteAt <= lagToleranceNanos) {
+            return true;
+        }
+        lastWrites.remove(writer, lastWriteAt);
+        return false;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (determineCurrentLookupKey() == Route.REPLICA) {
+            try {
+                Connection connection = replica.getConnection();
+                replicaConnections.increment();
+                return connection;
+            } catch (SQLException e) {
+                replicaDownUntil = System.nanoTime() + retryIntervalNanos;
+                fallbacks.increment();
+                log.warn("replica unavailable, routing reads to primary for {} ms: {}",
+                        retryIntervalNanos / 1_000_000, e.getMessage());
+            }
+            return primaryConnection(false);
+        }
+        return primaryConnection(!TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return getConnection();
+    }
+
+    private Connection primaryConnection(boolean write) throws SQLException {
+        Connection connection = primary.getConnection();
+        primaryConnections.increment();
+        if (write) {
+            recordWrite();
+        }
+        return connection;
+    }
+
+    // 쓰기 트랜잭션의 커밋 시점을 writer 별로 기록 (트랜잭션 밖의 커넥션은 커넥션 풀 초기화, 메타데이터 조회 등이므로 제외)
+    private void recordWrite() {
+        if (lagToleranceNanos > 0 && TransactionSynchronizationManager.isSynchronizationActive()) {
+            Object writer = writerKey.get();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    long now = System.nanoTime();
+                    lastWriteAt = now;
+                    if (writer == null) {
+                        return;
+                    }
+                    lastWrites.put(writer, now);
+                    if (lastWrites.size() > CLEANUP_THRESHOLD) {
+                        lastWrites.values().removeIf(lastWriteAt -> now - lastWriteAt > lagToleranceNanos);
+                    }
+                }
+            });
+        }
+    }
+
+    public long getPrimaryConnections() {
+        return primaryConnections.sum();
+    }
+
+    public long getReplicaConnections() {
+        return replicaConnections.sum();
+    }
+
+    public long getFallbacks() {
+        return fallbacks.sum();
+    }
+
+    // 풀 사용량 확인용 (PoolSizeAdvisor)
+    public List<HikariDataSource> getPools() {
+        List<HikariDataSource> pools = new ArrayList<>();
+        for (DataSource target : new DataSource[]{primary, replica}) {
+            if (target instanceof HikariDataSource) {
+                pools.add((HikariDataSource) target);
+            }
+        }
+        return pools;
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (DataSource target : new DataSource[]{primary, replica}) {
+            if (target instanceof Closeable) {
+                ((Closeable) target).close();
+            }
+        }
+    }
+}
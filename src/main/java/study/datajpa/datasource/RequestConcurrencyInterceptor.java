@@ -0,0 +1,57 @@
+package study.datajpa.datasource;
+
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// 처리 중인 요청 수와 구간 최대값 (PoolSizeAdvisor 가 커넥션 풀 크기와 비교)
+public class RequestConcurrencyInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String COUNTED_ATTRIBUTE = RequestConcurrencyInterceptor.class.getName() + ".counted";
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peak = new AtomicInteger();
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod && request.getAttribute(COUNTED_ATTRIBUTE) == null) {
+            request.setAttribute(COUNTED_ATTRIBUTE, Boolean.TRUE);
+            peak.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        release(request);
+    }
+
+    // 비동기 처리는 요청 스레드를 반납하고 repositoryExecutor 에서 실행되므로 여기서 뺌
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        release(request);
+    }
+
+    private void release(HttpServletRequest request) {
+        if (request.getAttribute(COUNTED_ATTRIBUTE) != null) {
+            request.removeAttribute(COUNTED_ATTRIBUTE);
+            inFlight.decrementAndGet();
+        }
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public int getPeak() {
+        return peak.get();
+    }
+
+    // 구간 최대값을 돌려주고 현재 값부터 다시 셈
+    int resetPeak() {
+        return peak.getAndSet(inFlight.get());
+    }
+}
@@ -0,0 +1,81 @@
+package study.datajpa.datasource;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.Getter;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.ObjectProvider;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.function.ToDoubleFunction;
+
+/*
+ * 문장 캐시 통계 (datajpa.datasource.pool.statement-statistics 로 Hibernate Statistics 를 켰을 때만 메트릭 등록)
+ * - JPQL -> SQL 변환 결과(query plan) 캐시 hit / miss (크기는 hibernate.query.plan_cache_max_size)
+ * - JDBC PreparedStatement 생성 수 (H2, Hikari 는 클라이언트 쪽 statement 캐시가 없으므로 실행마다 prepare)
+ * EntityManagerFactory 는 메트릭을 읽을 때 꺼냄 (MeterBinder 가 먼저 초기화되므로)
+ */
+public class StatementCacheMetrics implements MeterBinder {
+
+    static final String PLAN_CACHE_HITS = "datajpa.statement.plan-cache.hits";
+    static final String PLAN_CACHE_MISSES = "datajpa.statement.plan-cache.misses";
+    static final String PLAN_CACHE_HIT_RATIO = "datajpa.statement.plan-cache.hit-ratio";
+    static final String PREPARED = "datajpa.statement.prepared";
+
+    private final ObjectProvider<EntityManagerFactory> entityManagerFactory;
+    private final boolean enabled;
+
+    public StatementCacheMetrics(ObjectProvider<EntityManagerFactory> entityManagerFactory, boolean enabled) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!enabled) {
+            return;
+        }
+        counter(registry, PLAN_CACHE_HITS, "JPQL plans found in the query plan cache", Statistics::getQueryPlanCacheHitCount);
+        counter(registry, PLAN_CACHE_MISSES, "JPQL plans compiled because of a cache miss", Statistics::getQueryPlanCacheMissCount);
+        counter(registry, PREPARED, "JDBC statements prepared", Statistics::getPrepareStatementCount);
+        Gauge.builder(PLAN_CACHE_HIT_RATIO, this, metrics -> metrics.snapshot().getPlanCacheHitRatio())
+                .description("query plan cache hits / lookups")
+                .register(registry);
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot(statistics());
+    }
+
+    private void counter(MeterRegistry registry, String name, String description, ToDoubleFunction<Statistics> value) {
+        FunctionCounter.builder(name, this, metrics -> value.applyAsDouble(metrics.statistics()))
+                .description(description)
+                .register(registry);
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.getObject().unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Getter
+    public static class Snapshot {
+
+        private final boolean enabled;
+        private final long planCacheHits;
+        private final long planCacheMisses;
+        private final double planCacheHitRatio;
+        private final long preparedStatements;
+
+        Snapshot(Statistics statistics) {
+            this.enabled = statistics.isStatisticsEnabled();
+            this.planCacheHits = statistics.getQueryPlanCacheHitCount();
+            this.planCacheMisses = statistics.getQueryPlanCacheMissCount();
+            long lookups = planCacheHits + planCacheMisses;
+            this.planCacheHitRatio = lookups == 0 ? Double.NaN : (double) planCacheHits / lookups;
+            this.preparedStatements = statistics.getPrepareStatementCount();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package study.datajpa.dto;
+
+import lombok.Getter;
+import org.springframework.data.domain.Slice;
+import study.datajpa.entity.Member;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Getter
+public class KeysetPage<T> {
+
+    private final List<T> content;
+    private final int size;
+    private final boolean hasNext;
+    private final String nextCursor;
+
+    public KeysetPage(List<T> content, int size, boolean hasNext, String nextCursor) {
+        this.content = content;
+        this.size = size;
+        this.hasNext = hasNext;
+        this.nextCursor = nextCursor;
+    }
+
+    public static KeysetPage<Member> of(Slice<Member> slice) {
+        List<Member> content = slice.getContent();
+        String nextCursor = null;
+        if (slice.hasNext() && !content.isEmpty()) {
+            nextCursor = MemberCursor.of(content.get(content.size() - 1)).encode();
+        }
+        return new KeysetPage<>(content, slice.getSize(), slice.hasNext(), nextCursor);
+    }
+
+    public <U> KeysetPage<U> map(Function<? super T, ? extends U> converter) {
+        List<U> converted = content.stream().map(converter).collect(Collectors.toList());
+        return new KeysetPage<>(converted, size, hasNext, nextCursor);
+    }
+}
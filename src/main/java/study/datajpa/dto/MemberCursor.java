@@ -0,0 +1,52 @@
+package study.datajpa.dto;
+
+import lombok.Getter;
+import study.datajpa.entity.Member;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+@Getter
+public class MemberCursor {
+
+    // 마지막으로 조회한 (username, id) 를 opaque token 으로 인코딩
+    // "id:username", username 이 null 이면 "id!" (문자열 "null" 과 구분)
+    private static final char VALUE = ':';
+    private static final char NULL = '!';
+
+    private final String username;
+    private final Long id;
+
+    public MemberCursor(String username, Long id) {
+        this.username = username;
+        this.id = id;
+    }
+
+    public static MemberCursor of(Member member) {
+        return new MemberCursor(member.getUsername(), member.getId());
+    }
+
+    public String encode() {
+        String raw = username == null ? id + String.valueOf(NULL) : id + String.valueOf(VALUE) + username;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static MemberCursor decode(String token) {
+        String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        int separator = 0;
+        while (separator < raw.length() && Character.isDigit(raw.charAt(separator))) {
+            separator++;
+        }
+        if (separator == 0 || separator == raw.length()) {
+            throw new IllegalArgumentException("invalid cursor: " + token);
+        }
+        Long id = Long.valueOf(raw.substring(0, separator));
+        if (raw.charAt(separator) == NULL && separator == raw.length() - 1) {
+            return new MemberCursor(null, id);
+        }
+        if (raw.charAt(separator) != VALUE) {
+            throw new IllegalArgumentException("invalid cursor: " + token);
+        }
+        return new MemberCursor(raw.substring(separator + 1), id);
+    }
+}
@@ -2,12 +2,15 @@ package study.datajpa.dto;
 
 import lombok.Data;
 import study.datajpa.entity.Member;
+import study.datajpa.projection.ProjectionPath;
 
+// DtoQueryExecutor 로 조회할 때는 필드 선언 순서대로 select 하므로 (id, username, teamName) 생성자가 필요
 @Data
 public class MemberDto {
 
     private Long id;
     private String username;
+    @ProjectionPath("team.name")
     private String teamName;
 
     public MemberDto(Long id, String username, String teamName) {
@@ -0,0 +1,22 @@
+package study.datajpa.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// 회원 검색 조건, 값이 없는(null, 빈 문자열) 조건은 무시
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MemberSearchCondition {
+
+    private String username;
+    private String teamName;
+    private Integer ageGoe;     // 나이 >= ageGoe
+    private Integer ageLoe;     // 나이 <= ageLoe
+
+    public MemberSearchCondition(String username, String teamName) {
+        this.username = username;
+        this.teamName = teamName;
+    }
+}
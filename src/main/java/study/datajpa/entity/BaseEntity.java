@@ -5,14 +5,15 @@ import org.springframework.data.annotation.CreatedBy;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedBy;
 import org.springframework.data.annotation.LastModifiedDate;
-import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+import study.datajpa.audit.SkippableAuditingEntityListener;
 
 import javax.persistence.Column;
 import javax.persistence.EntityListeners;
 import javax.persistence.MappedSuperclass;
+import javax.persistence.Version;
 import java.time.LocalDateTime;
 
-@EntityListeners(AuditingEntityListener.class)
+@EntityListeners(SkippableAuditingEntityListener.class)
 @MappedSuperclass
 @Getter
 public class BaseEntity {
@@ -30,5 +31,9 @@ public class BaseEntity {
     @LastModifiedBy
     private String lastModifiedBy;
 
+    // 낙관적 락: 동시에 수정하면 나중에 커밋하는 쪽이 OptimisticLockingFailureException (OptimisticRetryExecutor 로 재시도)
+    // JPQL bulk update 는 버전을 올리지 않으므로 "update versioned" 사용
+    @Version
+    private Long version;
 
 }
@@ -4,7 +4,7 @@ import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.domain.Persistable;
-import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+import study.datajpa.audit.SkippableAuditingEntityListener;
 
 import javax.persistence.Entity;
 import javax.persistence.EntityListeners;
@@ -12,7 +12,7 @@ import javax.persistence.Id;
 import java.time.LocalDateTime;
 
 @Entity
-@EntityListeners(AuditingEntityListener.class)
+@EntityListeners(SkippableAuditingEntityListener.class)
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 public class Item implements Persistable<String> {
 
@@ -28,9 +28,10 @@ public class Item implements Persistable<String> {
 
     @Override
     public String getId() {
-        return null;
+        return id;
     }
 
+    // 식별자를 직접 할당하므로 id 로는 판단할 수 없음 -> 저장 전에는 createdDate 가 없음
     @Override
     public boolean isNew() {
         return createdDate == null;
@@ -1,5 +1,6 @@
 package study.datajpa.entity;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -7,6 +8,7 @@ import javax.persistence.Column;
 import javax.persistence.MappedSuperclass;
 import javax.persistence.PrePersist;
 import javax.persistence.PreUpdate;
+import javax.persistence.Version;
 import java.time.LocalDateTime;
 
 @MappedSuperclass
@@ -17,6 +19,11 @@ public class JpaBaseEntity {
     private LocalDateTime createdDate;
     private LocalDateTime updatedDate;
 
+    // 버전은 Hibernate 가 관리하므로 setter 없음
+    @Version
+    @Setter(AccessLevel.NONE)
+    private Long version;
+
     @PrePersist
     public void prePersist() {
         LocalDateTime now = LocalDateTime.now();
@@ -1,13 +1,20 @@
 package study.datajpa.entity;
 
 import lombok.*;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
+import java.util.List;
 
 import static javax.persistence.FetchType.*;
+import static javax.persistence.GenerationType.*;
 import static lombok.AccessLevel.*;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "member")
 @Getter @Setter
 @NoArgsConstructor(access = PROTECTED)
 @ToString(of = {"id", "username", "age"})
@@ -15,10 +22,25 @@ import static lombok.AccessLevel.*;
         name = "Member.findByUsername",
         query = "select m from Member m where m.username = :username"
 )
+@NamedQuery(
+        name = "Member.findMemberDtoById",
+        query = "select new study.datajpa.dto.MemberDto(m.id, m.username, t.name) from Member m left join m.team t where m.id = :id"
+)
 @NamedEntityGraph(name = "Member.all", attributeNodes = @NamedAttributeNode("team"))
+@SequenceGenerator(name = "member_seq_generator", sequenceName = "member_seq", allocationSize = 50)
+// 검색(/v1/members/search) 과 keyset paging 의 조건 + 정렬 모양에 맞춤
+// - username = ? order by username, id (keyset 포함)
+// - age = ? / age 범위 + order by username (findSliceByAge, countByAge)
+// - team_id = ? + age 범위 (팀 이름 검색은 team.name 인덱스로 team_id 를 찾은 뒤 조인)
+@Table(indexes = {
+        @Index(name = "idx_member_username_id", columnList = "username, member_id"),
+        @Index(name = "idx_member_age_username", columnList = "age, username"),
+        @Index(name = "idx_member_team_age", columnList = "team_id, age")
+})
 public class Member extends BaseEntity {
 
-    @Id @GeneratedValue
+    // pooled sequence: insert 마다 sequence 를 호출하지 않고 JDBC batch insert 가능
+    @Id @GeneratedValue(strategy = SEQUENCE, generator = "member_seq_generator")
     @Column(name = "member_id")
     private Long id;
     private String username;
@@ -43,9 +65,14 @@ public class Member extends BaseEntity {
         this.age = age;
     }
 
+    // 바이트코드 향상(association management)으로 빌드하면 위 대입에서 이미 team.members 에 추가됐을 수 있음
+    // 초기화되지 않은 컬렉션에는 contains 를 호출하지 않음 (add 는 로딩 없이 flush 때까지 대기)
     public void changeTeam(Team team) {
         this.team = team;
-        team.getMembers().add(this);
+        List<Member> members = team.getMembers();
+        if (!Hibernate.isInitialized(members) || !members.contains(this)) {
+            members.add(this);
+        }
     }
 
 }
@@ -0,0 +1,32 @@
+package study.datajpa.lock;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.persistence.EntityManagerFactory;
+
+@Configuration
+@EnableConfigurationProperties(LockProperties.class)
+public class LockConfig {
+
+    @Bean
+    public LockMetrics lockMetrics(ObjectProvider<MeterRegistry> registry) {
+        return new LockMetrics(registry);
+    }
+
+    @Bean
+    public PessimisticLockTemplate pessimisticLockTemplate(EntityManagerFactory emf, LockProperties properties,
+                                                           LockMetrics lockMetrics) {
+        return new PessimisticLockTemplate(emf, properties, lockMetrics);
+    }
+
+    @Bean
+    public OptimisticRetryExecutor optimisticRetryExecutor(PlatformTransactionManager transactionManager,
+                                                           LockProperties properties, LockMetrics lockMetrics) {
+        return new OptimisticRetryExecutor(transactionManager, properties, lockMetrics);
+    }
+}
@@ -0,0 +1,24 @@
+package study.datajpa.lock;
+
+import com.zaxxer.hikari.SQLExceptionOverride;
+
+import java.sql.SQLException;
+
+/*
+ * Hikari 는 SQLTimeoutException 이 나면 커넥션을 broken 으로 보고 닫아버림
+ * H2 의 락 timeout (HYT00) 도 SQLTimeoutException 이라서 그대로 두면 롤백도 못 하고 (Connection is closed) 커넥션만 버려짐
+ * -> 락 timeout, deadlock 은 커넥션 문제가 아니므로 닫지 않음
+ * spring.datasource.hikari.exception-override-class-name 으로 설정
+ */
+public class LockExceptionOverride implements SQLExceptionOverride {
+
+    // Override 가 SQLExceptionOverride.Override(enum) 를 가리키므로 @java.lang.Override
+    @java.lang.Override
+    public Override adjudicate(SQLException e) {
+        LockOutcome outcome = LockOutcome.of(e);
+        if (outcome == LockOutcome.TIMEOUT || outcome == LockOutcome.DEADLOCK) {
+            return Override.DO_NOT_EVICT;
+        }
+        return Override.CONTINUE_EVICT;
+    }
+}
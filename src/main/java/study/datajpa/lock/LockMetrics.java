@@ -0,0 +1,72 @@
+package study.datajpa.lock;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * 비관적 락 조회마다
+ * - 락을 얻기까지 걸린 시간 (datajpa.lock.wait, entity / mode / outcome 태그)
+ * - timeout, deadlock 건수 (datajpa.lock.timeouts, datajpa.lock.deadlocks, entity 태그)
+ * 낙관적 락 충돌 건수 (datajpa.lock.optimistic.conflicts, entity / outcome(RETRIED, EXHAUSTED) 태그)
+ */
+public class LockMetrics {
+
+    static final String WAIT = "datajpa.lock.wait";
+    static final String TIMEOUTS = "datajpa.lock.timeouts";
+    static final String DEADLOCKS = "datajpa.lock.deadlocks";
+    static final String OPTIMISTIC_CONFLICTS = "datajpa.lock.optimistic.conflicts";
+
+    private final ObjectProvider<MeterRegistry> registry;
+    // 호출마다 builder 로 등록(registry 조회)하지 않도록 태그 값 조합별로 캐시
+    private final Map<List<String>, Timer> waitTimers = new ConcurrentHashMap<>();
+    private final Map<List<String>, Counter> counters = new ConcurrentHashMap<>();
+
+    public LockMetrics(ObjectProvider<MeterRegistry> registry) {
+        this.registry = registry;
+    }
+
+    public void record(Class<?> entity, LockWait wait, LockOutcome outcome, long nanos) {
+        MeterRegistry meterRegistry = registry.getIfAvailable();
+        if (meterRegistry == null) {
+            return;
+        }
+        String entityName = entity.getSimpleName();
+        String mode = wait.getMode().name();
+
+        waitTimers.computeIfAbsent(List.of(entityName, mode, outcome.name()), key -> Timer.builder(WAIT)
+                        .tags("entity", entityName, "mode", mode, "outcome", outcome.name())
+                        .publishPercentiles(0.5, 0.95, 0.99)
+                        .register(meterRegistry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+
+        if (outcome == LockOutcome.TIMEOUT) {
+            counter(meterRegistry, TIMEOUTS, "entity", entityName, "mode", mode).increment();
+        } else if (outcome == LockOutcome.DEADLOCK) {
+            counter(meterRegistry, DEADLOCKS, "entity", entityName).increment();
+        }
+    }
+
+    public void recordOptimisticConflict(String entity, boolean exhausted) {
+        MeterRegistry meterRegistry = registry.getIfAvailable();
+        if (meterRegistry == null) {
+            return;
+        }
+        counter(meterRegistry, OPTIMISTIC_CONFLICTS, "entity", entity, "outcome", exhausted ? "EXHAUSTED" : "RETRIED").increment();
+    }
+
+    private Counter counter(MeterRegistry meterRegistry, String name, String... tags) {
+        List<String> key = new ArrayList<>(tags.length + 1);
+        key.add(name);
+        key.addAll(Arrays.asList(tags));
+        return counters.computeIfAbsent(key, k -> Counter.builder(name).tags(tags).register(meterRegistry));
+    }
+}
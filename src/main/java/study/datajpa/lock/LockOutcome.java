@@ -0,0 +1,38 @@
+package study.datajpa.lock;
+
+import javax.persistence.LockTimeoutException;
+import javax.persistence.PessimisticLockException;
+import java.sql.SQLException;
+import java.util.Set;
+
+public enum LockOutcome {
+
+    ACQUIRED, TIMEOUT, DEADLOCK, ERROR;
+
+    // 40001: H2, Oracle 등 deadlock (serialization failure), 40P01: PostgreSQL deadlock
+    private static final Set<String> DEADLOCK_STATES = Set.of("40001", "40P01");
+    // HYT00: H2 lock timeout, 55P03: PostgreSQL lock_not_available (NOWAIT, lock_timeout)
+    private static final Set<String> TIMEOUT_STATES = Set.of("HYT00", "55P03");
+    private static final int MYSQL_DEADLOCK = 1213;
+    private static final int MYSQL_LOCK_WAIT_TIMEOUT = 1205;
+
+    public static LockOutcome of(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException) {
+                SQLException sqlException = (SQLException) cause;
+                String state = sqlException.getSQLState();
+                if (DEADLOCK_STATES.contains(state) || sqlException.getErrorCode() == MYSQL_DEADLOCK) {
+                    return DEADLOCK;
+                }
+                if (TIMEOUT_STATES.contains(state) || sqlException.getErrorCode() == MYSQL_LOCK_WAIT_TIMEOUT) {
+                    return TIMEOUT;
+                }
+            }
+        }
+        // SQLException 이 없으면 JPA 예외 타입으로 판단
+        if (e instanceof LockTimeoutException || e instanceof PessimisticLockException) {
+            return TIMEOUT;
+        }
+        return ERROR;
+    }
+}
@@ -0,0 +1,37 @@
+package study.datajpa.lock;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter @Setter
+@ConfigurationProperties(prefix = "datajpa.lock")
+public class LockProperties {
+
+    // LockWait 를 지정하지 않은 락 조회의 대기 시간 (0 이면 NOWAIT)
+    private Duration timeout = Duration.ofSeconds(3);
+
+    // SKIP LOCKED 를 지원하지 않는 DB 에서 skipLocked 대신 기다릴 시간
+    private Duration skipLockedFallbackTimeout = Duration.ofSeconds(1);
+
+    public LockWait defaultWait() {
+        return LockWait.wait(timeout);
+    }
+
+    private final OptimisticRetry optimisticRetry = new OptimisticRetry();
+
+    // 낙관적 락 충돌 시 재시도 (OptimisticRetryExecutor)
+    @Getter @Setter
+    public static class OptimisticRetry {
+
+        // 처음 실행을 포함한 최대 실행 횟수
+        private int maxAttempts = 5;
+
+        // 재시도 전 대기 시간: initialBackoff * multiplier^(n-1), 최대 maxBackoff, 그 범위 안에서 무작위 (jitter)
+        private Duration initialBackoff = Duration.ofMillis(10);
+        private Duration maxBackoff = Duration.ofMillis(200);
+        private double multiplier = 2.0;
+    }
+}
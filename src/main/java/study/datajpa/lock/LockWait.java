@@ -0,0 +1,63 @@
+package study.datajpa.lock;
+
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.LockOptions;
+
+import java.time.Duration;
+
+/*
+ * 비관적 락을 얻지 못했을 때의 동작
+ * - WAIT: timeout 만큼 기다린 뒤 실패 (LockTimeoutException)
+ * - NOWAIT: 기다리지 않고 바로 실패
+ * - SKIP_LOCKED: 다른 트랜잭션이 잠근 row 는 건너뜀 (작업 큐에서 여러 worker 가 서로 다른 row 를 가져갈 때)
+ */
+@Getter
+@EqualsAndHashCode
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public final class LockWait {
+
+    public enum Mode {
+        WAIT, NOWAIT, SKIP_LOCKED
+    }
+
+    private final Mode mode;
+    private final Duration timeout;
+
+    public static LockWait wait(Duration timeout) {
+        if (timeout == null || timeout.isNegative()) {
+            throw new IllegalArgumentException("timeout must not be negative: " + timeout);
+        }
+        if (timeout.isZero()) {
+            return noWait();
+        }
+        return new LockWait(Mode.WAIT, timeout);
+    }
+
+    public static LockWait noWait() {
+        return new LockWait(Mode.NOWAIT, Duration.ZERO);
+    }
+
+    public static LockWait skipLocked() {
+        return new LockWait(Mode.SKIP_LOCKED, Duration.ZERO);
+    }
+
+    // javax.persistence.lock.timeout 힌트 값
+    public int getHintValue() {
+        switch (mode) {
+            case NOWAIT:
+                return LockOptions.NO_WAIT;
+            case SKIP_LOCKED:
+                return LockOptions.SKIP_LOCKED;
+            default:
+                return (int) Math.min(timeout.toMillis(), Integer.MAX_VALUE);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return mode == Mode.WAIT ? "WAIT(" + timeout.toMillis() + "ms)" : mode.name();
+    }
+}
@@ -0,0 +1,110 @@
+package study.datajpa.lock;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.hibernate.StaleStateException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.OptimisticLockException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/*
+ * 낙관적 락 충돌(OptimisticLockingFailureException) 이 나면 새 트랜잭션으로 처음부터 다시 실행
+ * - 매 시도마다 REQUIRES_NEW: 엔티티를 다시 읽어야 최신 버전으로 수정할 수 있으므로 바깥 트랜잭션과 분리
+ * - 재시도 간격은 지수 backoff + jitter (동시에 충돌한 요청들이 다시 같은 시점에 부딪히지 않도록)
+ * - maxAttempts 를 넘으면 마지막 예외를 그대로 던짐
+ * 작업 안에서 외부 시스템 호출 등 재실행하면 안 되는 부수 효과는 피해야 함
+ */
+@Slf4j
+public class OptimisticRetryExecutor {
+
+    private final TransactionTemplate transaction;
+    private final LockProperties.OptimisticRetry properties;
+    private final LockMetrics metrics;
+
+    public OptimisticRetryExecutor(PlatformTransactionManager transactionManager, LockProperties properties,
+                                   LockMetrics metrics) {
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.properties = properties.getOptimisticRetry();
+        this.metrics = metrics;
+    }
+
+    public <T> T execute(Supplier<T> work) {
+        return execute(null, work);
+    }
+
+    // entityType: 메트릭 태그용, JDBC batch update 충돌(StaleStateException) 처럼 예외에 엔티티 정보가 없을 때 사용
+    public <T> T execute(Class<?> entityType, Supplier<T> work) {
+        String defaultEntity = entityType == null ? "unknown" : entityType.getSimpleName();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transaction.execute(status -> work.get());
+            } catch (RuntimeException e) {
+                String entity = conflictEntity(e, defaultEntity);
+                if (entity == null) {
+                    throw e;
+                }
+                if (attempt >= properties.getMaxAttempts()) {
+                    metrics.recordOptimisticConflict(entity, true);
+                    throw e;
+                }
+                metrics.recordOptimisticConflict(entity, false);
+                log.debug("optimistic lock conflict on {}, retry {}/{}", entity, attempt, properties.getMaxAttempts() - 1);
+                sleep(backoff(attempt));
+            }
+        }
+    }
+
+    public void run(Class<?> entityType, Runnable work) {
+        execute(entityType, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    // attempt 번째 실패 후 대기 시간 (full jitter)
+    Duration backoff(int attempt) {
+        double millis = properties.getInitialBackoff().toMillis() * Math.pow(properties.getMultiplier(), attempt - 1);
+        long max = (long) Math.min(millis, properties.getMaxBackoff().toMillis());
+        return Duration.ofMillis(max <= 0 ? 0 : ThreadLocalRandom.current().nextLong(max + 1));
+    }
+
+    /*
+     * 낙관적 락 충돌이면 엔티티 이름, 아니면 null
+     * 커밋 시점 충돌은 트랜잭션 매니저가 ObjectOptimisticLockingFailureException 으로 변환하지만
+     * 작업 중 flush (쿼리 실행 전 자동 flush 등) 에서 난 충돌은 JPA 예외 그대로 올라옴
+     */
+    private String conflictEntity(RuntimeException e, String defaultEntity) {
+        if (e instanceof ObjectOptimisticLockingFailureException) {
+            String className = ((ObjectOptimisticLockingFailureException) e).getPersistentClassName();
+            return className == null ? defaultEntity : className.substring(className.lastIndexOf('.') + 1);
+        }
+        if (e instanceof OptimisticLockException) {
+            Object entity = ((OptimisticLockException) e).getEntity();
+            return entity == null ? defaultEntity : Hibernate.getClass(entity).getSimpleName();
+        }
+        if (e instanceof OptimisticLockingFailureException || e instanceof StaleStateException) {
+            return defaultEntity;
+        }
+        return null;
+    }
+
+    private void sleep(Duration backoff) {
+        if (backoff.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(backoff.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting to retry", e);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package study.datajpa.lock;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.LockModeType;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*
+ * select ... for update 를 LockWait 에 맞게 실행하고 LockMetrics 에 기록
+ * - 대기 시간은 javax.persistence.lock.timeout 힌트로 넘김 (Dialect 가 for update wait n / nowait / skip locked 로 변환)
+ * - H2 처럼 쿼리 단위 timeout 이 없는 DB 는 세션의 LOCK_TIMEOUT 을 바꿨다가 원래 값으로 되돌림
+ * - SKIP LOCKED 를 지원하지 않는 DB 는 skipLockedFallbackTimeout 만큼 기다리는 것으로 대신함
+ * 호출하는 쪽에 (readOnly 가 아닌) 트랜잭션이 있어야 함
+ */
+@Slf4j
+public class PessimisticLockTemplate {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private final Dialect dialect;
+    private final LockProperties properties;
+    private final LockMetrics metrics;
+    private final AtomicBoolean skipLockedWarned = new AtomicBoolean();
+
+    public PessimisticLockTemplate(EntityManagerFactory emf, LockProperties properties, LockMetrics metrics) {
+        this.dialect = emf.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+        this.properties = properties;
+        this.metrics = metrics;
+    }
+
+    public <T> List<T> getResultList(TypedQuery<T> query, Class<?> entity, LockWait wait) {
+        LockWait effective = effectiveWait(wait);
+        query.setLockMode(LockModeType.PESSIMISTIC_WRITE);
+        query.setHint("javax.persistence.lock.timeout", effective.getHintValue());
+
+        long start = System.nanoTime();
+        Integer previousTimeout = useSessionTimeout() ? setSessionTimeout(effective) : null;
+        try {
+            List<T> result = query.getResultList();
+            metrics.record(entity, effective, LockOutcome.ACQUIRED, System.nanoTime() - start);
+            return result;
+        } catch (RuntimeException e) {
+            metrics.record(entity, effective, LockOutcome.of(e), System.nanoTime() - start);
+            throw e;
+        } finally {
+            if (previousTimeout != null) {
+                restoreSessionTimeout(previousTimeout);
+            }
+        }
+    }
+
+    public LockWait defaultWait() {
+        return properties.defaultWait();
+    }
+
+    private LockWait effectiveWait(LockWait wait) {
+        if (wait.getMode() != LockWait.Mode.SKIP_LOCKED || dialect.supportsSkipLocked()) {
+            return wait;
+        }
+        if (skipLockedWarned.compareAndSet(false, true)) {
+            log.warn("{} does not support SKIP LOCKED, waiting up to {} instead",
+                    dialect.getClass().getSimpleName(), properties.getSkipLockedFallbackTimeout());
+        }
+        return LockWait.wait(properties.getSkipLockedFallbackTimeout());
+    }
+
+    private boolean useSessionTimeout() {
+        return dialect instanceof H2Dialect;
+    }
+
+    // H2 는 0 이 기본값(2초) 대기로 동작하므로 NOWAIT 는 1ms, 실제 대기는 설정 값보다 길어질 수 있음
+    private Integer setSessionTimeout(LockWait wait) {
+        long millis = Math.max(1, wait.getTimeout().toMillis());
+        return em.unwrap(Session.class).doReturningWork(connection -> {
+            int previous = currentSessionTimeout(connection);
+            execute(connection, "set lock_timeout " + millis);
+            return previous;
+        });
+    }
+
+    private void restoreSessionTimeout(int previous) {
+        em.unwrap(Session.class).doWork(connection -> execute(connection, "set lock_timeout " + previous));
+    }
+
+    private int currentSessionTimeout(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("select lock_timeout()")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private void execute(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
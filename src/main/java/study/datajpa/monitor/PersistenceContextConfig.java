@@ -0,0 +1,63 @@
+package study.datajpa.monitor;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.boot.Metadata;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.persistence.EntityManagerFactory;
+
+@Configuration
+@ConditionalOnProperty(prefix = "datajpa.persistence-context", name = "enabled", matchIfMissing = true)
+public class PersistenceContextConfig implements WebMvcConfigurer {
+
+    private final ObjectProvider<MeterRegistry> registry;
+
+    public PersistenceContextConfig(ObjectProvider<MeterRegistry> registry) {
+        this.registry = registry;
+    }
+
+    @Bean
+    public PersistenceContextProfiler persistenceContextProfiler() {
+        return new PersistenceContextProfiler(registry);
+    }
+
+    @Bean
+    public PersistenceContextEndpoint persistenceContextEndpoint(MeterRegistry registry,
+                                                                 ObjectProvider<EntityManagerFactory> entityManagerFactory) {
+        return new PersistenceContextEndpoint(registry, entityManagerFactory);
+    }
+
+    @Bean
+    public Integrator persistenceContextIntegrator() {
+        PersistenceContextEventListener listener = new PersistenceContextEventListener(persistenceContextProfiler());
+        return new Integrator() {
+            @Override
+            public void integrate(Metadata metadata, SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+                EventListenerRegistry registry = serviceRegistry.getService(EventListenerRegistry.class);
+                registry.prependListeners(EventType.FLUSH, listener);
+                registry.prependListeners(EventType.AUTO_FLUSH, listener);
+                registry.appendListeners(EventType.POST_LOAD, listener);
+                registry.appendListeners(EventType.INIT_COLLECTION, listener);
+            }
+
+            @Override
+            public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+            }
+        };
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new PersistenceContextInterceptor(persistenceContextProfiler()));
+    }
+}
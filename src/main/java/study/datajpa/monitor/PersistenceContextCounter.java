@@ -0,0 +1,41 @@
+package study.datajpa.monitor;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Consumer;
+
+/**
+ * 현재 스레드의 영속성 컨텍스트 이벤트를 열려있는 모든 PersistenceContextScope 에 기록
+ * (QueryCounter 와 같은 방식, HTTP 요청 scope 안에 테스트 scope 가 중첩될 수 있음)
+ */
+public final class PersistenceContextCounter {
+
+    private static final ThreadLocal<Deque<PersistenceContextScope>> SCOPES = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private PersistenceContextCounter() {
+    }
+
+    public static PersistenceContextScope open(String name) {
+        PersistenceContextScope scope = new PersistenceContextScope(name);
+        SCOPES.get().push(scope);
+        return scope;
+    }
+
+    static void record(Consumer<PersistenceContextStats> event) {
+        Deque<PersistenceContextScope> scopes = SCOPES.get();
+        if (scopes.isEmpty()) {
+            return;
+        }
+        for (PersistenceContextScope scope : scopes) {
+            event.accept(scope);
+        }
+    }
+
+    static void close(PersistenceContextScope scope) {
+        Deque<PersistenceContextScope> scopes = SCOPES.get();
+        scopes.remove(scope);
+        if (scopes.isEmpty()) {
+            SCOPES.remove();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package study.datajpa.monitor;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/*
+ * GET /actuator/persistencecontext
+ * - transactions / endpoints: 트랜잭션, 요청 별 작업량 (엔티티 로딩 수가 많은 순)
+ * - hibernate: Hibernate Statistics 누적값, 엔티티 / 컬렉션 별 (datajpa.datasource.pool.statement-statistics 를 켰을 때만, enabled 로 구분)
+ */
+@Endpoint(id = "persistencecontext")
+public class PersistenceContextEndpoint {
+
+    private final MeterRegistry registry;
+    private final ObjectProvider<EntityManagerFactory> entityManagerFactory;
+
+    public PersistenceContextEndpoint(MeterRegistry registry, ObjectProvider<EntityManagerFactory> entityManagerFactory) {
+        this.registry = registry;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @ReadOperation
+    public Report persistenceContext() {
+        return new Report(units(PersistenceContextProfiler.TRANSACTION), units(PersistenceContextProfiler.ENDPOINT),
+                new HibernateStats(entityManagerFactory.getObject().unwrap(SessionFactory.class).getStatistics()));
+    }
+
+    private List<UnitStats> units(String kind) {
+        return registry.find(PersistenceContextProfiler.ENTITY_LOADS).tag("kind", kind).summaries().stream()
+                .map(loads -> toStats(loads, Tags.of(loads.getId().getTags())))
+                .sorted(Comparator.comparingDouble(UnitStats::getTotalEntityLoads).reversed())
+                .collect(Collectors.toList());
+    }
+
+    private UnitStats toStats(DistributionSummary loads, Tags tags) {
+        return new UnitStats(loads.getId().getTag("name"), loads,
+                summary(PersistenceContextProfiler.COLLECTION_FETCHES, tags),
+                summary(PersistenceContextProfiler.FLUSHES, tags),
+                summary(PersistenceContextProfiler.AUTO_FLUSHES, tags),
+                summary(PersistenceContextProfiler.DIRTY_CHECKS, tags),
+                summary(PersistenceContextProfiler.MANAGED_ENTITIES, tags),
+                registry.get(PersistenceContextProfiler.DIRTY_CHECK_TIME).tags(tags).timer());
+    }
+
+    private DistributionSummary summary(String name, Tags tags) {
+        return registry.get(name).tags(tags).summary();
+    }
+
+    @Getter
+    public static class Report {
+
+        private final List<UnitStats> transactions;
+        private final List<UnitStats> endpoints;
+        private final HibernateStats hibernate;
+
+        Report(List<UnitStats> transactions, List<UnitStats> endpoints, HibernateStats hibernate) {
+            this.transactions = transactions;
+            this.endpoints = endpoints;
+            this.hibernate = hibernate;
+        }
+    }
+
+    @Getter
+    public static class UnitStats {
+
+        private final String name;
+        private final long count;
+        private final double totalEntityLoads;
+        private final double meanEntityLoads;
+        private final double maxEntityLoads;
+        private final double meanCollectionFetches;
+        private final double maxCollectionFetches;
+        private final double meanFlushes;
+        private final double meanAutoFlushes;
+        private final double meanDirtyChecks;
+        private final double maxDirtyChecks;
+        private final double totalDirtyCheckMillis;
+        private final double maxDirtyCheckMillis;
+        private final double maxManagedEntities;
+
+        UnitStats(String name, DistributionSummary loads, DistributionSummary collectionFetches, DistributionSummary flushes,
+                  DistributionSummary autoFlushes, DistributionSummary dirtyChecks, DistributionSummary managed, Timer dirtyCheckTime) {
+            this.name = name;
+            this.count = loads.count();
+            this.totalEntityLoads = loads.totalAmount();
+            this.meanEntityLoads = loads.mean();
+            this.maxEntityLoads = loads.max();
+            this.meanCollectionFetches = collectionFetches.mean();
+            this.maxCollectionFetches = collectionFetches.max();
+            this.meanFlushes = flushes.mean();
+            this.meanAutoFlushes = autoFlushes.mean();
+            this.meanDirtyChecks = dirtyChecks.mean();
+            this.maxDirtyChecks = dirtyChecks.max();
+            this.totalDirtyCheckMillis = dirtyCheckTime.totalTime(TimeUnit.MILLISECONDS);
+            this.maxDirtyCheckMillis = dirtyCheckTime.max(TimeUnit.MILLISECONDS);
+            this.maxManagedEntities = managed.max();
+        }
+    }
+
+    @Getter
+    public static class HibernateStats {
+
+        private final boolean enabled;
+        private final long sessionsOpened;
+        private final long transactions;
+        private final long flushes;
+        private final long entityLoads;
+        private final long entityFetches;
+        private final long entityUpdates;
+        private final long collectionLoads;
+        private final long collectionFetches;
+        private final Map<String, Long> entityLoadsByName;
+        private final Map<String, Long> collectionFetchesByRole;
+
+        HibernateStats(Statistics statistics) {
+            this.enabled = statistics.isStatisticsEnabled();
+            this.sessionsOpened = statistics.getSessionOpenCount();
+            this.transactions = statistics.getTransactionCount();
+            this.flushes = statistics.getFlushCount();
+            this.entityLoads = statistics.getEntityLoadCount();
+            this.entityFetches = statistics.getEntityFetchCount();
+            this.entityUpdates = statistics.getEntityUpdateCount();
+            this.collectionLoads = statistics.getCollectionLoadCount();
+            this.collectionFetches = statistics.getCollectionFetchCount();
+            this.entityLoadsByName = byName(statistics.getEntityNames(),
+                    name -> statistics.getEntityStatistics(name).getLoadCount());
+            this.collectionFetchesByRole = byName(statistics.getCollectionRoleNames(),
+                    role -> statistics.getCollectionStatistics(role).getFetchCount());
+        }
+
+        // 0 은 빼고 많은 순
+        private static Map<String, Long> byName(String[] names, ToLongFunction<String> count) {
+            return Stream.of(names)
+                    .map(name -> Map.entry(name, count.applyAsLong(name)))
+                    .filter(entry -> entry.getValue() > 0)
+                    .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                    .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new));
+        }
+    }
+}
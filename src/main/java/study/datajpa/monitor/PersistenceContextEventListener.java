@@ -0,0 +1,74 @@
+package study.datajpa.monitor;
+
+import org.hibernate.event.spi.AutoFlushEvent;
+import org.hibernate.event.spi.AutoFlushEventListener;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.FlushEvent;
+import org.hibernate.event.spi.FlushEventListener;
+import org.hibernate.event.spi.InitializeCollectionEvent;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * 엔티티 로딩 / 컬렉션 초기화를 세션의 SessionProfileListener 에 전달
+ * 세션 리스너는 세션에서 처음 이벤트가 발생할 때 붙이고 세션이 닫히면 제거
+ * - FLUSH, AUTO_FLUSH 는 기본 리스너 앞에 등록 (prepend) -> 첫 flush 의 dirty check 부터 기록
+ * - POST_LOAD, INIT_COLLECTION 은 기본 리스너 뒤에 등록 (append) -> 로딩 후 관리 중인 엔티티 수
+ */
+public class PersistenceContextEventListener implements PostLoadEventListener, InitializeCollectionEventListener,
+        FlushEventListener, AutoFlushEventListener {
+
+    private final PersistenceContextProfiler profiler;
+    private final Map<EventSource, SessionProfileListener> sessions = new ConcurrentHashMap<>();
+
+    public PersistenceContextEventListener(PersistenceContextProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    @Override
+    public void onPostLoad(PostLoadEvent event) {
+        String entityName = event.getPersister().getEntityName();
+        int managed = managedEntities(event.getSession());
+        profile(event.getSession()).record(stats -> stats.entityLoaded(entityName, managed));
+    }
+
+    @Override
+    public void onInitializeCollection(InitializeCollectionEvent event) {
+        String role = event.getCollection().getRole();
+        int managed = managedEntities(event.getSession());
+        profile(event.getSession()).record(stats -> stats.collectionFetched(role, managed));
+    }
+
+    @Override
+    public void onFlush(FlushEvent event) {
+        managed(event.getSession());
+    }
+
+    @Override
+    public void onAutoFlush(AutoFlushEvent event) {
+        managed(event.getSession());
+    }
+
+    private void managed(EventSource session) {
+        int managed = managedEntities(session);
+        profile(session).record(stats -> stats.managed(managed));
+    }
+
+    private SessionProfileListener profile(EventSource session) {
+        SessionProfileListener profile = sessions.get(session);
+        if (profile == null) {
+            profile = new SessionProfileListener(profiler, () -> sessions.remove(session));
+            session.getEventListenerManager().addListener(profile);
+            sessions.put(session, profile);
+        }
+        return profile;
+    }
+
+    private static int managedEntities(EventSource session) {
+        return session.getPersistenceContext().getNumberOfManagedEntities();
+    }
+}
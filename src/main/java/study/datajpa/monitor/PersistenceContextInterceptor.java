@@ -0,0 +1,49 @@
+package study.datajpa.monitor;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+// 요청 별 영속성 컨텍스트 작업량, URI 대신 URL 패턴으로 기록 (/v1/members/{id})
+@RequiredArgsConstructor
+public class PersistenceContextInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String SCOPE_ATTRIBUTE = PersistenceContextInterceptor.class.getName() + ".scope";
+
+    private final PersistenceContextProfiler profiler;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod) {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String name = request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI());
+            request.setAttribute(SCOPE_ATTRIBUTE, PersistenceContextCounter.open(name));
+        }
+        return true;
+    }
+
+    // @ResponseBody 직렬화(OSIV 지연 로딩 포함)까지 끝난 뒤
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        closeScope(request);
+    }
+
+    // 비동기 처리는 요청 스레드를 반납하므로 여기까지만 기록
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        closeScope(request);
+    }
+
+    private void closeScope(HttpServletRequest request) {
+        PersistenceContextScope scope = (PersistenceContextScope) request.getAttribute(SCOPE_ATTRIBUTE);
+        if (scope != null) {
+            request.removeAttribute(SCOPE_ATTRIBUTE);
+            scope.close();
+            profiler.record(PersistenceContextProfiler.ENDPOINT, scope.getName(), scope);
+        }
+    }
+}
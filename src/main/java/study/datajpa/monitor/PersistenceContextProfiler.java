@@ -0,0 +1,92 @@
+package study.datajpa.monitor;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * 트랜잭션 / 요청이 끝날 때 영속성 컨텍스트 작업량을 메트릭으로 기록 (GET /actuator/persistencecontext)
+ * tag kind: transaction (스프링 트랜잭션 이름, 클래스.메서드) 또는 endpoint (HTTP 메서드 + URL 패턴)
+ * MeterRegistry 는 기록할 때 꺼냄 (EntityManagerFactory 를 만드는 중에 Integrator 로 생성되므로)
+ */
+@Slf4j
+public class PersistenceContextProfiler {
+
+    static final String ENTITY_LOADS = "datajpa.persistence-context.entity-loads";
+    static final String COLLECTION_FETCHES = "datajpa.persistence-context.collection-fetches";
+    static final String FLUSHES = "datajpa.persistence-context.flushes";
+    static final String AUTO_FLUSHES = "datajpa.persistence-context.auto-flushes";
+    static final String DIRTY_CHECKS = "datajpa.persistence-context.dirty-checks";
+    static final String DIRTY_CHECK_TIME = "datajpa.persistence-context.dirty-check";
+    static final String MANAGED_ENTITIES = "datajpa.persistence-context.managed-entities";
+
+    static final String TRANSACTION = "transaction";
+    static final String ENDPOINT = "endpoint";
+
+    private final ObjectProvider<MeterRegistry> registry;
+    // 트랜잭션 완료마다 builder 로 등록(registry 조회)하지 않도록 (kind, name) 별로 캐시
+    private final Map<List<String>, Meters> meters = new ConcurrentHashMap<>();
+
+    public PersistenceContextProfiler(ObjectProvider<MeterRegistry> registry) {
+        this.registry = registry;
+    }
+
+    void record(String kind, String name, PersistenceContextStats stats) {
+        MeterRegistry registry = this.registry.getIfAvailable();
+        if (registry == null) {
+            return;
+        }
+        meters.computeIfAbsent(List.of(kind, name), key -> new Meters(registry, Tags.of("kind", kind, "name", name)))
+                .record(stats);
+        log.debug("{} {}: {}", kind, name, stats);
+    }
+
+    private static class Meters {
+
+        private final DistributionSummary entityLoads;
+        private final DistributionSummary collectionFetches;
+        private final DistributionSummary flushes;
+        private final DistributionSummary autoFlushes;
+        private final DistributionSummary dirtyChecks;
+        private final DistributionSummary managedEntities;
+        private final Timer dirtyCheckTime;
+
+        Meters(MeterRegistry registry, Tags tags) {
+            this.entityLoads = summary(registry, ENTITY_LOADS, tags, "entities loaded into the persistence context");
+            this.collectionFetches = summary(registry, COLLECTION_FETCHES, tags, "lazy collections initialized");
+            this.flushes = summary(registry, FLUSHES, tags, "flushes");
+            this.autoFlushes = summary(registry, AUTO_FLUSHES, tags, "auto flushes before queries that dirty-checked entities");
+            this.dirtyChecks = summary(registry, DIRTY_CHECKS, tags, "entities dirty-checked");
+            this.managedEntities = summary(registry, MANAGED_ENTITIES, tags, "maximum entities managed at once");
+            this.dirtyCheckTime = Timer.builder(DIRTY_CHECK_TIME)
+                    .description("time spent dirty-checking entities")
+                    .tags(tags)
+                    .register(registry);
+        }
+
+        void record(PersistenceContextStats stats) {
+            entityLoads.record(stats.getEntityLoads());
+            collectionFetches.record(stats.getCollectionFetches());
+            flushes.record(stats.getFlushes());
+            autoFlushes.record(stats.getAutoFlushes());
+            dirtyChecks.record(stats.getDirtyChecks());
+            managedEntities.record(stats.getMaxManagedEntities());
+            dirtyCheckTime.record(stats.getDirtyCheckNanos(), TimeUnit.NANOSECONDS);
+        }
+
+        private static DistributionSummary summary(MeterRegistry registry, String name, Tags tags, String description) {
+            return DistributionSummary.builder(name)
+                    .description(description)
+                    .tags(tags)
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package study.datajpa.monitor;
+
+import lombok.Getter;
+
+/*
+ * 테스트에서 영속성 컨텍스트 작업량 검증
+ * try (PersistenceContextScope scope = PersistenceContextCounter.open("...")) { ... }
+ * assertThat(scope.getFlushes()).isEqualTo(1);
+ */
+@Getter
+public class PersistenceContextScope extends PersistenceContextStats implements AutoCloseable {
+
+    private final String name;
+
+    PersistenceContextScope(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public void close() {
+        PersistenceContextCounter.close(this);
+    }
+
+    @Override
+    public String toString() {
+        return name + ": " + super.toString();
+    }
+}
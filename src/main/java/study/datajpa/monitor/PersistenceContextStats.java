@@ -0,0 +1,101 @@
+package study.datajpa.monitor;
+
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * 영속성 컨텍스트 작업량 (트랜잭션 하나, 요청 하나, 또는 PersistenceContextScope 하나)
+ * - entityLoads: 영속성 컨텍스트에 올라온 엔티티 수 (쿼리 결과, 프록시 초기화, 2차 캐시 포함)
+ * - collectionFetches: 지연 로딩 컬렉션 초기화 수 (배치 fetch 로 함께 초기화된 컬렉션은 제외)
+ * - flushes / autoFlushes: flush 수 / 쿼리 전 auto flush 로 dirty check 를 한 수
+ * - flushedEntities: flush 때 비교한 엔티티 수
+ * - dirtyChecks / dirtyEntities: 스냅샷 비교(dirty check) 횟수 / 변경을 찾은 횟수
+ *   (@PreUpdate 콜백이 값을 바꾸면 같은 엔티티를 한 번 더 비교하므로 flushedEntities 보다 클 수 있음,
+ *    바이트코드 향상으로 변경을 직접 추적하는 엔티티는 비교하지 않으므로 0)
+ * 세션(스레드) 하나에서만 기록하므로 동기화하지 않음
+ */
+@Getter
+public class PersistenceContextStats {
+
+    private int entityLoads;
+    private int collectionFetches;
+    private int flushes;
+    private int autoFlushes;
+    private int flushedEntities;
+    private int dirtyChecks;
+    private int dirtyEntities;
+    private long dirtyCheckNanos;
+    private int maxManagedEntities;
+    private final Map<String, Integer> entityLoadsByName = new LinkedHashMap<>();
+    private final Map<String, Integer> collectionFetchesByRole = new LinkedHashMap<>();
+
+    void entityLoaded(String entityName, int managedEntities) {
+        entityLoads++;
+        entityLoadsByName.merge(entityName, 1, Integer::sum);
+        managed(managedEntities);
+    }
+
+    void collectionFetched(String role, int managedEntities) {
+        collectionFetches++;
+        collectionFetchesByRole.merge(role, 1, Integer::sum);
+        managed(managedEntities);
+    }
+
+    void flushed(int entities) {
+        flushes++;
+        flushedEntities += entities;
+    }
+
+    void autoFlushed() {
+        autoFlushes++;
+    }
+
+    void dirtyChecked(boolean dirty, long nanos) {
+        dirtyChecks++;
+        if (dirty) {
+            dirtyEntities++;
+        }
+        dirtyCheckNanos += nanos;
+    }
+
+    void managed(int managedEntities) {
+        maxManagedEntities = Math.max(maxManagedEntities, managedEntities);
+    }
+
+    public int getEntityLoads(Class<?> entityClass) {
+        return entityLoadsByName.getOrDefault(entityClass.getName(), 0);
+    }
+
+    // ex) getCollectionFetches(Team.class, "members")
+    public int getCollectionFetches(Class<?> ownerClass, String property) {
+        return collectionFetchesByRole.getOrDefault(ownerClass.getName() + '.' + property, 0);
+    }
+
+    public Map<String, Integer> getEntityLoadsByName() {
+        return Collections.unmodifiableMap(entityLoadsByName);
+    }
+
+    public Map<String, Integer> getCollectionFetchesByRole() {
+        return Collections.unmodifiableMap(collectionFetchesByRole);
+    }
+
+    public double getDirtyCheckMillis() {
+        return (double) dirtyCheckNanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public boolean isEmpty() {
+        return entityLoads == 0 && collectionFetches == 0 && flushes == 0 && autoFlushes == 0 && dirtyChecks == 0;
+    }
+
+    @Override
+    public String toString() {
+        return "entityLoads=" + entityLoads + ", collectionFetches=" + collectionFetches
+                + ", flushes=" + flushes + ", autoFlushes=" + autoFlushes + ", flushedEntities=" + flushedEntities
+                + ", dirtyChecks=" + dirtyChecks + ", dirtyEntities=" + dirtyEntities
+                + ", dirtyCheckMillis=" + getDirtyCheckMillis() + ", maxManagedEntities=" + maxManagedEntities;
+    }
+}
@@ -0,0 +1,18 @@
+package study.datajpa.monitor;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// 컨트롤러 메서드 한 번 호출(응답 직렬화 포함)에 허용되는 최대 SQL 수
+// repository 메서드에 붙이면 호출 단위 한도 (붙이지 않으면 한도 없이 N+1 만 검사)
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudget {
+
+    int value();
+
+    // 같은 모양의 select 반복이 의도된 경우 (chunk 단위 처리 등) N+1 검사 제외
+    boolean allowRepeatedSelects() default false;
+}
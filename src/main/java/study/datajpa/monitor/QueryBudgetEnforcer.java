@@ -0,0 +1,43 @@
+package study.datajpa.monitor;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+
+@Slf4j
+@RequiredArgsConstructor
+public class QueryBudgetEnforcer {
+
+    public static final int UNLIMITED = Integer.MAX_VALUE;
+
+    private final QueryBudgetProperties properties;
+
+    public void check(QueryScope scope, int maxQueries) {
+        check(scope, maxQueries, false);
+    }
+
+    public void check(QueryScope scope, int maxQueries, boolean allowRepeatedSelects) {
+        StringBuilder violations = new StringBuilder();
+
+        if (scope.getCount() > maxQueries) {
+            violations.append(String.format("%n  %d queries (budget %d)", scope.getCount(), maxQueries));
+        }
+        if (!allowRepeatedSelects) {
+            Map<String, Integer> repeated = scope.getRepeatedSelects(properties.getRepeatedSelectThreshold());
+            repeated.forEach((sql, times) ->
+                    violations.append(String.format("%n  N+1 suspected, %d times: %s", times, sql)));
+        }
+
+        if (violations.length() == 0) {
+            log.debug("[{}] {} queries", scope.getName(), scope.getCount());
+            return;
+        }
+
+        String message = "[" + scope.getName() + "] query budget exceeded" + violations;
+        if (properties.getMode() == QueryBudgetProperties.Mode.FAIL) {
+            throw new QueryBudgetExceededException(message);
+        }
+        log.warn(message);
+    }
+}
@@ -0,0 +1,60 @@
+package study.datajpa.monitor;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+@RequiredArgsConstructor
+public class QueryBudgetInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String SCOPE_ATTRIBUTE = QueryBudgetInterceptor.class.getName() + ".scope";
+
+    private final QueryBudgetProperties properties;
+    private final QueryBudgetEnforcer enforcer;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod) {
+            request.setAttribute(SCOPE_ATTRIBUTE, QueryCounter.open(request.getMethod() + " " + request.getRequestURI()));
+        }
+        return true;
+    }
+
+    // @ResponseBody 직렬화(lazy 로딩 포함)까지 끝난 뒤 호출됨
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler, ModelAndView modelAndView) {
+        QueryScope scope = (QueryScope) request.getAttribute(SCOPE_ATTRIBUTE);
+        if (scope == null) {
+            return;
+        }
+        request.removeAttribute(SCOPE_ATTRIBUTE);
+        scope.close();
+        QueryBudget budget = ((HandlerMethod) handler).getMethodAnnotation(QueryBudget.class);
+        enforcer.check(scope, budget != null ? budget.value() : properties.getDefaultMaxQueries(),
+                budget != null && budget.allowRepeatedSelects());
+    }
+
+    // 예외로 postHandle 이 호출되지 않은 경우 정리
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        closeScope(request);
+    }
+
+    // 비동기 처리(StreamingResponseBody 등)는 요청 스레드를 반납하므로 여기서 정리
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        closeScope(request);
+    }
+
+    private void closeScope(HttpServletRequest request) {
+        QueryScope scope = (QueryScope) request.getAttribute(SCOPE_ATTRIBUTE);
+        if (scope != null) {
+            request.removeAttribute(SCOPE_ATTRIBUTE);
+            scope.close();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package study.datajpa.monitor;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter @Setter
+@ConfigurationProperties(prefix = "datajpa.query-budget")
+public class QueryBudgetProperties {
+
+    public enum Mode {
+        LOG,    // 운영: 경고 로그만 남김
+        FAIL    // 테스트: 예외를 던져서 실패시킴
+    }
+
+    private boolean enabled = true;
+    private Mode mode = Mode.LOG;
+
+    // @QueryBudget 이 없는 요청의 기본 한도
+    private int defaultMaxQueries = 20;
+
+    // 같은 모양의 select 가 이 횟수 이상이면 N+1 로 판단
+    private int repeatedSelectThreshold = 3;
+}
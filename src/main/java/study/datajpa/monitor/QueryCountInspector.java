@@ -0,0 +1,13 @@
+package study.datajpa.monitor;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// hibernate.session_factory.statement_inspector 로 등록 (Hibernate 가 직접 생성)
+public class QueryCountInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        QueryCounter.record(sql);
+        return sql;
+    }
+}
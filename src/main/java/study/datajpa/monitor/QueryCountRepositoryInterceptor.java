@@ -0,0 +1,40 @@
+package study.datajpa.monitor;
+
+import lombok.RequiredArgsConstructor;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+
+// repository 메서드 호출 단위로 SQL 수를 세고 N+1 을 검사
+@RequiredArgsConstructor
+public class QueryCountRepositoryInterceptor implements MethodInterceptor {
+
+    private final Class<?> repositoryInterface;
+    private final ObjectProvider<QueryBudgetEnforcer> enforcer;
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        QueryBudget budget = AnnotatedElementUtils.findMergedAnnotation(invocation.getMethod(), QueryBudget.class);
+        int maxQueries = budget != null ? budget.value() : QueryBudgetEnforcer.UNLIMITED;
+        boolean allowRepeatedSelects = budget != null && budget.allowRepeatedSelects();
+
+        QueryScope scope = QueryCounter.open(repositoryInterface.getSimpleName() + "." + invocation.getMethod().getName());
+        Object result;
+        try {
+            result = invocation.proceed();
+        } catch (Throwable e) {
+            // repository 예외(제약 조건 위반, 락 타임아웃 등)가 우선, 예산 초과는 suppressed 로 붙임
+            scope.close();
+            try {
+                enforcer.getObject().check(scope, maxQueries, allowRepeatedSelects);
+            } catch (QueryBudgetExceededException exceeded) {
+                e.addSuppressed(exceeded);
+            }
+            throw e;
+        }
+        scope.close();
+        enforcer.getObject().check(scope, maxQueries, allowRepeatedSelects);
+        return result;
+    }
+}
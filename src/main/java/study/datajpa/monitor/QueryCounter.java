@@ -0,0 +1,46 @@
+package study.datajpa.monitor;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * 현재 스레드에서 실행되는 SQL 을 열려있는 모든 QueryScope 에 기록
+ * (HTTP 요청 scope 안에 repository 호출 scope 가 중첩될 수 있음)
+ */
+public final class QueryCounter {
+
+    private static final ThreadLocal<Deque<QueryScope>> SCOPES = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private QueryCounter() {
+    }
+
+    public static QueryScope open(String name) {
+        QueryScope scope = new QueryScope(name);
+        SCOPES.get().push(scope);
+        return scope;
+    }
+
+    static void record(String sql) {
+        Deque<QueryScope> scopes = SCOPES.get();
+        if (scopes.isEmpty()) {
+            return;
+        }
+        String shape = normalize(sql);
+        for (QueryScope scope : scopes) {
+            scope.record(shape);
+        }
+    }
+
+    static void close(QueryScope scope) {
+        Deque<QueryScope> scopes = SCOPES.get();
+        scopes.remove(scope);
+        if (scopes.isEmpty()) {
+            SCOPES.remove();
+        }
+    }
+
+    // 바인딩 파라미터는 이미 ? 이므로 공백만 정리하면 같은 모양의 SQL 은 같은 문자열이 됨
+    private static String normalize(String sql) {
+        return sql.trim().replaceAll("\\s+", " ");
+    }
+}
@@ -0,0 +1,40 @@
+package study.datajpa.monitor;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import study.datajpa.config.RepositoryAdvicePostProcessor;
+
+@Configuration
+@EnableConfigurationProperties(QueryBudgetProperties.class)
+@ConditionalOnProperty(prefix = "datajpa.query-budget", name = "enabled", matchIfMissing = true)
+public class QueryMonitorConfig implements WebMvcConfigurer {
+
+    private final QueryBudgetProperties properties;
+
+    public QueryMonitorConfig(QueryBudgetProperties properties) {
+        this.properties = properties;
+    }
+
+    @Bean
+    public QueryBudgetEnforcer queryBudgetEnforcer() {
+        return new QueryBudgetEnforcer(properties);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new QueryBudgetInterceptor(properties, queryBudgetEnforcer()));
+    }
+
+    // 모든 Spring Data repository 프록시에 QueryCountRepositoryInterceptor 추가
+    @Bean
+    public static BeanPostProcessor queryCountRepositoryPostProcessor(ObjectProvider<QueryBudgetEnforcer> enforcer) {
+        return new RepositoryAdvicePostProcessor(repositoryInformation ->
+                new QueryCountRepositoryInterceptor(repositoryInformation.getRepositoryInterface(), enforcer));
+    }
+}
@@ -0,0 +1,44 @@
+package study.datajpa.monitor;
+
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Getter
+public class QueryScope implements AutoCloseable {
+
+    private final String name;
+    private int count;
+    private final Map<String, Integer> statements = new LinkedHashMap<>();
+
+    QueryScope(String name) {
+        this.name = name;
+    }
+
+    void record(String sql) {
+        count++;
+        statements.merge(sql, 1, Integer::sum);
+    }
+
+    public Map<String, Integer> getStatements() {
+        return Collections.unmodifiableMap(statements);
+    }
+
+    // 같은 모양의 select 가 threshold 번 이상 실행되면 N+1 의심
+    public Map<String, Integer> getRepeatedSelects(int threshold) {
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        statements.forEach((sql, times) -> {
+            if (times >= threshold && sql.regionMatches(true, 0, "select", 0, 6)) {
+                repeated.put(sql, times);
+            }
+        });
+        return repeated;
+    }
+
+    @Override
+    public void close() {
+        QueryCounter.close(this);
+    }
+}
@@ -0,0 +1,28 @@
+package study.datajpa.monitor;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import study.datajpa.config.RepositoryAdvicePostProcessor;
+
+import javax.persistence.EntityManagerFactory;
+
+@Configuration
+public class RepositoryMetricsConfig {
+
+    @Bean
+    public RepositoryMetricsEndpoint repositoryMetricsEndpoint(MeterRegistry registry) {
+        return new RepositoryMetricsEndpoint(registry);
+    }
+
+    // 모든 Spring Data repository 프록시에 RepositoryMetricsInterceptor 추가
+    @Bean
+    public static BeanPostProcessor repositoryMetricsPostProcessor(ObjectProvider<MeterRegistry> registry,
+                                                                   ObjectProvider<EntityManagerFactory> entityManagerFactory) {
+        return new RepositoryAdvicePostProcessor(repositoryInformation ->
+                new RepositoryMetricsInterceptor(repositoryInformation.getRepositoryInterface(),
+                        repositoryInformation.getDomainType(), registry, entityManagerFactory));
+    }
+}
@@ -0,0 +1,82 @@
+package study.datajpa.monitor;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.Getter;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// GET /actuator/repositories : 총 실행 시간이 긴 repository 메서드 순으로 정렬
+@Endpoint(id = "repositories")
+public class RepositoryMetricsEndpoint {
+
+    private final MeterRegistry registry;
+
+    public RepositoryMetricsEndpoint(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @ReadOperation
+    public List<MethodStats> repositories() {
+        return registry.find(RepositoryMetricsInterceptor.INVOCATIONS).timers().stream()
+                .map(this::toStats)
+                .sorted(Comparator.comparingDouble(MethodStats::getTotalMillis).reversed())
+                .collect(Collectors.toList());
+    }
+
+    private MethodStats toStats(Timer timer) {
+        DistributionSummary rows = registry.find(RepositoryMetricsInterceptor.ROWS).tags(timer.getId().getTags()).summary();
+        DistributionSummary managed = registry.find(RepositoryMetricsInterceptor.PERSISTENCE_CONTEXT).tags(timer.getId().getTags()).summary();
+        return new MethodStats(timer, rows, managed);
+    }
+
+    @Getter
+    public static class MethodStats {
+
+        private final String repository;
+        private final String entity;
+        private final String method;
+        private final String signature;
+        private final String outcome;
+        private final long count;
+        private final double totalMillis;
+        private final double meanMillis;
+        private final double maxMillis;
+        private final double p95Millis;
+        private final double p99Millis;
+        private final double meanRows;
+        private final double maxPersistenceContext;
+
+        MethodStats(Timer timer, DistributionSummary rows, DistributionSummary managed) {
+            this.repository = timer.getId().getTag("repository");
+            this.entity = timer.getId().getTag("entity");
+            this.method = timer.getId().getTag("method");
+            this.signature = timer.getId().getTag("signature");
+            this.outcome = timer.getId().getTag("outcome");
+            this.count = timer.count();
+            this.totalMillis = timer.totalTime(TimeUnit.MILLISECONDS);
+            this.meanMillis = timer.mean(TimeUnit.MILLISECONDS);
+            this.maxMillis = timer.max(TimeUnit.MILLISECONDS);
+            this.p95Millis = percentile(timer, 0.95);
+            this.p99Millis = percentile(timer, 0.99);
+            this.meanRows = rows != null ? rows.mean() : 0;
+            this.maxPersistenceContext = managed != null ? managed.max() : 0;
+        }
+
+        private static double percentile(Timer timer, double percentile) {
+            for (ValueAtPercentile value : timer.takeSnapshot().percentileValues()) {
+                if (value.percentile() == percentile) {
+                    return value.value(TimeUnit.MILLISECONDS);
+                }
+            }
+            return Double.NaN;
+        }
+    }
+}
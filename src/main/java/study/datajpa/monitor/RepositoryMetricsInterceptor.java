@@ -0,0 +1,176 @@
+package study.datajpa.monitor;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Slice;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/*
+ * repository 메서드 호출마다
+ * - 실행 시간 (datajpa.repository.invocations)
+ * - 반환 건수 (datajpa.repository.rows)
+ * - 호출 후 영속성 컨텍스트의 엔티티 수 (datajpa.repository.persistence.context)
+ * 를 repository, entity, method, signature, outcome 태그로 기록
+ * CompletionStage 를 반환하는 @Async 메서드는 완료 시점의 실행 시간, 결과로 기록
+ * 미터는 메서드마다 한 번만 등록해서 재사용
+ */
+public class RepositoryMetricsInterceptor implements MethodInterceptor {
+
+    static final String INVOCATIONS = "datajpa.repository.invocations";
+    static final String ROWS = "datajpa.repository.rows";
+    static final String PERSISTENCE_CONTEXT = "datajpa.repository.persistence.context";
+
+    private final Class<?> repositoryInterface;
+    private final Class<?> domainType;
+    private final ObjectProvider<MeterRegistry> registry;
+    private final ObjectProvider<EntityManagerFactory> entityManagerFactory;
+    private final Map<Method, Meters> successMeters = new ConcurrentHashMap<>();
+    private final Map<Method, Meters> errorMeters = new ConcurrentHashMap<>();
+
+    public RepositoryMetricsInterceptor(Class<?> repositoryInterface, Class<?> domainType,
+                                        ObjectProvider<MeterRegistry> registry,
+                                        ObjectProvider<EntityManagerFactory> entityManagerFactory) {
+        this.repositoryInterface = repositoryInterface;
+        this.domainType = domainType;
+        this.registry = registry;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        MeterRegistry meterRegistry = registry.getIfAvailable();
+        if (meterRegistry == null) {
+            return invocation.proceed();
+        }
+
+        Method method = invocation.getMethod();
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = invocation.proceed();
+        } catch (Throwable e) {
+            record(meters(meterRegistry, method, false), start);
+            throw e;
+        }
+
+        if (result instanceof CompletionStage) {
+            // @Async 조회는 완료될 때 실행 시간, 건수, outcome 을 기록 (호출은 작업을 넘기기만 함)
+            // 작업 스레드의 영속성 컨텍스트는 완료 전에 닫히므로 크기는 기록하지 않음
+            ((CompletionStage<?>) result).whenComplete((value, e) -> {
+                Meters meters = meters(meterRegistry, method, e == null);
+                meters.invocations.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                if (e == null) {
+                    meters.recordRows(rowsOf(value));
+                }
+            });
+            return result;
+        }
+
+        Meters meters = meters(meterRegistry, method, true);
+        record(meters, start);
+        meters.recordRows(rowsOf(result));
+        return result;
+    }
+
+    private void record(Meters meters, long start) {
+        meters.invocations.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        int managed = managedEntities();
+        if (managed >= 0) {
+            meters.persistenceContext.record(managed);
+        }
+    }
+
+    // 호출마다 builder 로 등록(registry 조회)하지 않도록 메서드, outcome 별로 캐시
+    private Meters meters(MeterRegistry meterRegistry, Method method, boolean success) {
+        Map<Method, Meters> cache = success ? successMeters : errorMeters;
+        return cache.computeIfAbsent(method, key -> new Meters(meterRegistry, Tags.of(
+                "repository", repositoryInterface.getSimpleName(),
+                "entity", domainType.getSimpleName(),
+                "method", key.getName(),
+                "signature", signature(key),
+                "outcome", success ? "SUCCESS" : "ERROR")));
+    }
+
+    // 오버로드된 메서드를 구분하는 태그, ex) findByUsername(String,LockWait)
+    static String signature(Method method) {
+        return Arrays.stream(method.getParameterTypes())
+                .map(Class::getSimpleName)
+                .collect(Collectors.joining(",", method.getName() + "(", ")"));
+    }
+
+    // 건수를 알 수 없는 반환 타입(Stream, 숫자 등)은 -1
+    private long rowsOf(Object result) {
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Slice) {
+            return ((Slice<?>) result).getNumberOfElements();
+        }
+        if (result instanceof Optional) {
+            return ((Optional<?>) result).isPresent() ? 1 : 0;
+        }
+        if (result instanceof Stream || result instanceof Future || result instanceof Number || result instanceof Boolean) {
+            return -1;
+        }
+        return 1;
+    }
+
+    // 트랜잭션(또는 OSIV)에 묶인 EntityManager 가 없으면 -1
+    private int managedEntities() {
+        EntityManagerFactory emf = entityManagerFactory.getIfAvailable();
+        if (emf == null) {
+            return -1;
+        }
+        EntityManager em = EntityManagerFactoryUtils.getTransactionalEntityManager(emf);
+        if (em == null || !em.isOpen()) {
+            return -1;
+        }
+        return em.unwrap(SessionImplementor.class).getPersistenceContext().getNumberOfManagedEntities();
+    }
+
+    private static class Meters {
+
+        private final Timer invocations;
+        private final DistributionSummary rows;
+        private final DistributionSummary persistenceContext;
+
+        Meters(MeterRegistry registry, Tags tags) {
+            this.invocations = Timer.builder(INVOCATIONS)
+                    .tags(tags)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .publishPercentileHistogram()
+                    .register(registry);
+            this.rows = DistributionSummary.builder(ROWS).tags(tags).register(registry);
+            this.persistenceContext = DistributionSummary.builder(PERSISTENCE_CONTEXT).tags(tags).register(registry);
+        }
+
+        void recordRows(long count) {
+            if (count >= 0) {
+                rows.record(count);
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package study.datajpa.monitor;
+
+import org.hibernate.BaseSessionEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Consumer;
+
+/*
+ * 세션 하나의 영속성 컨텍스트 작업량, 트랜잭션이 끝날 때마다 PersistenceContextProfiler 에 기록하고 새로 시작
+ * - flush, dirty check: 세션 이벤트 (이 리스너)
+ * - 엔티티 로딩, 컬렉션 초기화: PersistenceContextEventListener 가 전달
+ * 트랜잭션 밖의 작업 (OSIV 로 응답 직렬화 중 지연 로딩 등) 은 세션이 닫힐 때 NON_TRANSACTIONAL 로 기록
+ */
+class SessionProfileListener extends BaseSessionEventListener {
+
+    static final String NON_TRANSACTIONAL = "non-transactional";
+    static final String UNNAMED = "unnamed";
+
+    private final transient PersistenceContextProfiler profiler;
+    private final transient Runnable onEnd;
+    private PersistenceContextStats transaction = new PersistenceContextStats();
+    private long dirtyCheckStart;
+
+    SessionProfileListener(PersistenceContextProfiler profiler, Runnable onEnd) {
+        this.profiler = profiler;
+        this.onEnd = onEnd;
+    }
+
+    void record(Consumer<PersistenceContextStats> event) {
+        event.accept(transaction);
+        PersistenceContextCounter.record(event);
+    }
+
+    @Override
+    public void flushEnd(int numberOfEntities, int numberOfCollections) {
+        record(stats -> stats.flushed(numberOfEntities));
+    }
+
+    // 쿼리 전 auto flush, 관리 중인 엔티티가 없거나 MANUAL 이면 dirty check 없이 0
+    @Override
+    public void partialFlushEnd(int numberOfEntities, int numberOfCollections) {
+        if (numberOfEntities > 0) {
+            record(PersistenceContextStats::autoFlushed);
+        }
+    }
+
+    @Override
+    public void dirtyCalculationStart() {
+        dirtyCheckStart = System.nanoTime();
+    }
+
+    @Override
+    public void dirtyCalculationEnd(boolean dirty) {
+        long nanos = System.nanoTime() - dirtyCheckStart;
+        record(stats -> stats.dirtyChecked(dirty, nanos));
+    }
+
+    // commit/rollback 직후, 스프링 트랜잭션 이름이 아직 남아있음
+    @Override
+    public void transactionCompletion(boolean successful) {
+        complete(transactionName());
+    }
+
+    @Override
+    public void end() {
+        complete(NON_TRANSACTIONAL);
+        onEnd.run();
+    }
+
+    private void complete(String name) {
+        if (!transaction.isEmpty()) {
+            profiler.record(PersistenceContextProfiler.TRANSACTION, name, transaction);
+            transaction = new PersistenceContextStats();
+        }
+    }
+
+    // study.datajpa.repository.MemberRepositoryImpl.findDtoPage -> MemberRepositoryImpl.findDtoPage
+    private static String transactionName() {
+        String name = TransactionSynchronizationManager.getCurrentTransactionName();
+        if (name == null) {
+            return UNNAMED;
+        }
+        int method = name.lastIndexOf('.');
+        int type = method > 0 ? name.lastIndexOf('.', method - 1) : -1;
+        return name.substring(type + 1);
+    }
+}
@@ -0,0 +1,291 @@
+package study.datajpa.projection;
+
+import lombok.Getter;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.ManagedType;
+import javax.persistence.metamodel.Metamodel;
+import javax.persistence.metamodel.SingularAttribute;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.function.Function;
+
+/*
+ * projection 타입(인터페이스 또는 DTO 클래스) 을 필요한 컬럼만 select 하는 tuple 쿼리 + row 변환 함수로 바꿈
+ * - 인터페이스: getter 이름 또는 단순한 @Value SpEL (ProjectionExpressions) -> 값은 row 에서 미리 읽어 proxy 에 담음
+ *   중첩 인터페이스(ex. TeamInfo getTeam()) 는 left join, 연관관계 id 가 null 이면 null
+ * - 클래스: public 생성자가 하나, 파라미터 이름 = 속성 이름 (필드의 @ProjectionPath 우선), MethodHandle 로 생성
+ * 바꿀 수 없는 타입(복잡한 SpEL, default 메서드, 타입 변환이 필요한 getter 등) 은 of() 가 empty
+ */
+@Getter
+public class ClosedProjection<T> {
+
+    private static final ParameterNameDiscoverer PARAMETER_NAMES = new DefaultParameterNameDiscoverer();
+    private static final InvocationHandler NO_HANDLER = (proxy, method, args) -> null;
+
+    private final Class<T> type;
+    private final String selectClause;
+    private final String fromClause;
+    private final Function<Object[], T> mapper;
+
+    private ClosedProjection(Class<T> type, String selectClause, String fromClause, Function<Object[], T> mapper) {
+        this.type = type;
+        this.selectClause = selectClause;
+        this.fromClause = fromClause;
+        this.mapper = mapper;
+    }
+
+    public static <T> Optional<ClosedProjection<T>> of(Metamodel metamodel, Class<?> entityClass, Class<T> type) {
+        EntityType<?> entity = metamodel.entity(entityClass);
+        Columns columns = new Columns(entity, type);
+        Function<Object[], T> mapper;
+        try {
+            mapper = type.isInterface() ? forInterface(type, "", columns) : forClass(type, columns);
+        } catch (NotClosedException e) {
+            return Optional.empty();
+        }
+
+        StringBuilder from = new StringBuilder(" from ").append(entity.getName()).append(' ').append(DtoProjection.ROOT_ALIAS);
+        columns.joins.forEach((path, alias) -> from.append(" left join ").append(path).append(' ').append(alias));
+        return Optional.of(new ClosedProjection<>(type, columns.selectClause(), from.toString(), mapper));
+    }
+
+    // where: 루트 엔티티 alias 는 e (ex. "e.username = :username")
+    public String query(String where) {
+        return where == null ? selectClause + fromClause : selectClause + fromClause + " where " + where;
+    }
+
+    // row: query() 의 select 순서대로 (컬럼이 하나면 길이 1)
+    public T materialize(Object[] row) {
+        return mapper.apply(row);
+    }
+
+    private static <T> Function<Object[], T> forInterface(Class<T> type, String prefix, Columns columns) {
+        List<Method> getters = new ArrayList<>();
+        List<Function<Object[], Object>> readers = new ArrayList<>();
+        for (Method method : type.getMethods()) {
+            if (Modifier.isStatic(method.getModifiers())) {
+                continue;
+            }
+            if (method.isDefault() || method.getParameterCount() > 0) {
+                throw new NotClosedException();
+            }
+            getters.add(method);
+            readers.add(reader(method, prefix, columns));
+        }
+
+        Map<Method, Integer> slots = new HashMap<>();
+        String[] names = new String[getters.size()];
+        for (int i = 0; i < getters.size(); i++) {
+            slots.put(getters.get(i), i);
+            names[i] = getters.get(i).getName();
+        }
+        @SuppressWarnings("unchecked")
+        Function<Object[], Object>[] readerArray = (Function<Object[], Object>[]) readers.toArray(new Function<?, ?>[0]);
+        MethodHandle proxyConstructor = proxyConstructor(type);
+
+        return row -> {
+            Object[] values = new Object[readerArray.length];
+            for (int i = 0; i < readerArray.length; i++) {
+                values[i] = readerArray[i].apply(row);
+            }
+            return type.cast(invoke(proxyConstructor, new ProjectionInvocationHandler(type, slots, names, values)));
+        };
+    }
+
+    private static Function<Object[], Object> reader(Method method, String prefix, Columns columns) {
+        Value value = method.getAnnotation(Value.class);
+        if (value != null) {
+            if (!ClassUtils.isAssignable(method.getReturnType(), String.class)) {
+                throw new NotClosedException();
+            }
+            Function<Object[], Object> reader = ProjectionExpressions.compile(value.value(), prefix,
+                    path -> columns.column(path, Object.class));
+            if (reader == null) {
+                throw new NotClosedException();
+            }
+            return reader;
+        }
+
+        PropertyDescriptor property = BeanUtils.findPropertyForMethod(method);
+        if (property == null) {
+            throw new NotClosedException();
+        }
+        String path = prefix + property.getName();
+        Class<?> returnType = method.getReturnType();
+        if (returnType.isInterface() && !returnType.getName().startsWith("java.")) {
+            // 중첩 projection: 연관관계가 없으면 (id 가 null) null
+            Function<Object[], ?> nested = forInterface(returnType, path + ".", columns);
+            Integer idIndex = columns.idColumn(path);
+            if (idIndex == null) {
+                return nested::apply;
+            }
+            int index = idIndex;
+            return row -> row[index] == null ? null : nested.apply(row);
+        }
+        int index = columns.column(path, returnType);
+        return row -> row[index];
+    }
+
+    private static <T> Function<Object[], T> forClass(Class<T> type, Columns columns) {
+        Constructor<?>[] constructors = type.getConstructors();
+        if (constructors.length != 1 || !Modifier.isPublic(type.getModifiers())) {
+            throw new NotClosedException();
+        }
+        Constructor<?> constructor = constructors[0];
+        String[] names = PARAMETER_NAMES.getParameterNames(constructor);
+        if (names == null) {
+            throw new NotClosedException();
+        }
+
+        Class<?>[] parameterTypes = constructor.getParameterTypes();
+        int[] indexes = new int[names.length];
+        for (int i = 0; i < names.length; i++) {
+            Field field = ReflectionUtils.findField(type, names[i]);
+            ProjectionPath annotation = field == null ? null : field.getAnnotation(ProjectionPath.class);
+            indexes[i] = columns.column(annotation == null ? names[i] : annotation.value(), parameterTypes[i]);
+        }
+
+        MethodHandle handle;
+        try {
+            handle = MethodHandles.publicLookup().unreflectConstructor(constructor)
+                    .asSpreader(Object[].class, names.length)
+                    .asType(MethodType.methodType(Object.class, Object[].class));
+        } catch (IllegalAccessException e) {
+            throw new NotClosedException();
+        }
+        return row -> {
+            Object[] args = new Object[indexes.length];
+            for (int i = 0; i < indexes.length; i++) {
+                args[i] = row[indexes[i]];
+            }
+            return type.cast(invoke(handle, args));
+        };
+    }
+
+    // proxy 클래스 생성자는 한 번만 찾아둠 (Proxy.newProxyInstance 는 호출마다 proxy 클래스 캐시를 조회)
+    private static MethodHandle proxyConstructor(Class<?> type) {
+        Class<?> proxyClass = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, NO_HANDLER).getClass();
+        try {
+            return MethodHandles.publicLookup()
+                    .findConstructor(proxyClass, MethodType.methodType(void.class, InvocationHandler.class))
+                    .asType(MethodType.methodType(Object.class, Object.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new NotClosedException();
+        }
+    }
+
+    private static Object invoke(MethodHandle handle, Object argument) {
+        try {
+            return handle.invokeExact(argument);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new UndeclaredThrowableException(e);
+        }
+    }
+
+    private static Object invoke(MethodHandle handle, Object[] arguments) {
+        try {
+            return handle.invokeExact(arguments);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new UndeclaredThrowableException(e);
+        }
+    }
+
+    // select 할 컬럼 (같은 경로는 한 번만)
+    private static final class Columns {
+
+        private final EntityType<?> entity;
+        private final Class<?> type;
+        private final Map<String, String> joins = new LinkedHashMap<>();
+        private final Map<String, Integer> indexes = new LinkedHashMap<>();     // JPQL 경로 -> row index
+
+        private Columns(EntityType<?> entity, Class<?> type) {
+            this.entity = entity;
+            this.type = type;
+        }
+
+        // 값 타입이 expected 에 대입될 수 없으면 스프링 변환이 필요하므로 NotClosed
+        int column(String path, Class<?> expected) {
+            Attribute<?, ?> attribute = attribute(path);
+            if (attribute == null || attribute.isAssociation() || attribute.isCollection()
+                    || !ClassUtils.isAssignable(expected, attribute.getJavaType())) {
+                throw new NotClosedException();
+            }
+            String jpqlPath = DtoProjection.resolve(entity, type, path, joins);
+            return indexes.computeIfAbsent(jpqlPath, p -> indexes.size());
+        }
+
+        // ToOne 연관관계면 대상 엔티티 id 컬럼, embedded 면 null
+        Integer idColumn(String path) {
+            Attribute<?, ?> attribute = attribute(path);
+            if (attribute == null || attribute.isCollection()) {
+                throw new NotClosedException();
+            }
+            if (!attribute.isAssociation()) {
+                return null;
+            }
+            EntityType<?> target = (EntityType<?>) ((SingularAttribute<?, ?>) attribute).getType();
+            String id = target.getId(target.getIdType().getJavaType()).getName();
+            return column(path + "." + id, Object.class);
+        }
+
+        String selectClause() {
+            StringJoiner select = new StringJoiner(", ", "select ", "");
+            indexes.keySet().forEach(select::add);
+            return select.toString();
+        }
+
+        private Attribute<?, ?> attribute(String path) {
+            ManagedType<?> managedType = entity;
+            Attribute<?, ?> attribute = null;
+            for (String segment : path.split("\\.")) {
+                if (attribute != null) {
+                    if (!(attribute instanceof SingularAttribute) || !(((SingularAttribute<?, ?>) attribute).getType() instanceof ManagedType)) {
+                        return null;
+                    }
+                    managedType = (ManagedType<?>) ((SingularAttribute<?, ?>) attribute).getType();
+                }
+                try {
+                    attribute = managedType.getAttribute(segment);
+                } catch (IllegalArgumentException e) {
+                    return null;
+                }
+            }
+            return attribute;
+        }
+    }
+
+    private static final class NotClosedException extends RuntimeException {
+
+        private NotClosedException() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package study.datajpa.projection;
+
+import lombok.Getter;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mapping.PropertyReferenceException;
+import org.springframework.data.util.ClassTypeInformation;
+
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.ManagedType;
+import javax.persistence.metamodel.Metamodel;
+import javax.persistence.metamodel.SingularAttribute;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/*
+ * DTO 클래스에서 만든 생성자 표현식(select new ...) 쿼리
+ * - DTO 의 인스턴스 필드를 선언 순서대로 select (경로는 필드 이름 또는 @ProjectionPath)
+ * - 같은 순서, 같은 타입의 파라미터를 받는 생성자가 있어야 함
+ * - 중간 경로(ToOne 연관관계) 는 left join, 같은 경로는 join 한 번만
+ * - 정렬은 DTO 속성 이름 또는 엔티티 속성 경로
+ * 엔티티를 만들지 않으므로 영속성 컨텍스트, 스냅샷(변경 감지), 2차 캐시를 거치지 않음
+ */
+@Getter
+public class DtoProjection<D> {
+
+    static final String ROOT_ALIAS = "e";
+
+    private final Class<D> dtoClass;
+    private final EntityType<?> entity;
+    private final String selectClause;
+    private final Map<String, String> joins;            // select 에 필요한 연관관계 경로 -> alias
+    private final Map<String, String> propertyPaths;    // DTO 속성 이름 -> 엔티티 경로 (정렬용)
+
+    private DtoProjection(Class<D> dtoClass, EntityType<?> entity, String selectClause, Map<String, String> joins,
+                          Map<String, String> propertyPaths) {
+        this.dtoClass = dtoClass;
+        this.entity = entity;
+        this.selectClause = selectClause;
+        this.joins = Collections.unmodifiableMap(joins);
+        this.propertyPaths = Collections.unmodifiableMap(propertyPaths);
+    }
+
+    public static <D> DtoProjection<D> of(Metamodel metamodel, Class<?> entityClass, Class<D> dtoClass) {
+        EntityType<?> entity = metamodel.entity(entityClass);
+        List<Field> fields = projectedFields(dtoClass);
+        requireConstructor(dtoClass, fields);
+
+        Map<String, String> joins = new LinkedHashMap<>();     // 연관관계 경로 -> alias
+        Map<String, String> propertyPaths = new LinkedHashMap<>();
+        StringJoiner select = new StringJoiner(", ", "select new " + dtoClass.getName() + "(", ")");
+        for (Field field : fields) {
+            ProjectionPath annotation = field.getAnnotation(ProjectionPath.class);
+            String path = annotation == null ? field.getName() : annotation.value();
+            select.add(resolve(entity, dtoClass, path, joins));
+            propertyPaths.put(field.getName(), path);
+        }
+        return new DtoProjection<>(dtoClass, entity, select.toString(), joins, propertyPaths);
+    }
+
+    public String query(Sort sort) {
+        Map<String, String> queryJoins = new LinkedHashMap<>(joins);
+        String orderBy = orderBy(sort, queryJoins);
+        return selectClause + from(queryJoins) + orderBy;
+    }
+
+    /*
+     * 페이지 조회는 두 단계
+     * 1. idQuery: 정렬에 필요한 join 만 해서 id 만 offset/limit 으로 조회 (건너뛰는 row 는 select 할 연관관계를 join 하지 않음)
+     * 2. pageQuery: 그 id 들(:ids) 만 DTO 로 조회, 같은 정렬
+     */
+    public String idQuery(Sort sort) {
+        Map<String, String> queryJoins = new LinkedHashMap<>();
+        String orderBy = orderBy(sort, queryJoins);
+        return "select " + ROOT_ALIAS + '.' + idAttribute() + from(queryJoins) + orderBy;
+    }
+
+    public String pageQuery(Sort sort) {
+        Map<String, String> queryJoins = new LinkedHashMap<>(joins);
+        String orderBy = orderBy(sort, queryJoins);
+        return selectClause + from(queryJoins) + " where " + ROOT_ALIAS + '.' + idAttribute() + " in :ids" + orderBy;
+    }
+
+    // ToOne left join 만 하므로 루트 엔티티 건수와 같음
+    public String countQuery() {
+        return "select count(" + ROOT_ALIAS + ") from " + entity.getName() + ' ' + ROOT_ALIAS;
+    }
+
+    private String idAttribute() {
+        return entity.getId(entity.getIdType().getJavaType()).getName();
+    }
+
+    private String from(Map<String, String> queryJoins) {
+        StringBuilder from = new StringBuilder(" from ").append(entity.getName()).append(' ').append(ROOT_ALIAS);
+        queryJoins.forEach((path, alias) -> from.append(" left join ").append(path).append(' ').append(alias));
+        return from.toString();
+    }
+
+    // DTO 속성 이름이 아니면 엔티티 경로로 정렬 (ex. age, team.name), 필요한 join 은 queryJoins 에 추가
+    private String orderBy(Sort sort, Map<String, String> queryJoins) {
+        if (sort.isUnsorted()) {
+            return "";
+        }
+        StringJoiner orderBy = new StringJoiner(", ", " order by ", "");
+        for (Sort.Order order : sort) {
+            String path = propertyPaths.getOrDefault(order.getProperty(), order.getProperty());
+            String jpqlPath;
+            try {
+                jpqlPath = resolve(entity, dtoClass, path, queryJoins);
+            } catch (IllegalArgumentException e) {
+                throw new PropertyReferenceException(order.getProperty(), ClassTypeInformation.from(dtoClass),
+                        Collections.emptyList());
+            }
+            orderBy.add((order.isIgnoreCase() ? "lower(" + jpqlPath + ")" : jpqlPath) + ' ' + order.getDirection().name().toLowerCase());
+        }
+        return orderBy.toString();
+    }
+
+    // path 를 JPQL 경로로 바꿈, 중간 ToOne 연관관계는 joins 에 alias 추가
+    static String resolve(EntityType<?> entity, Class<?> dtoClass, String path, Map<String, String> joins) {
+        String[] segments = path.split("\\.");
+        ManagedType<?> type = entity;
+        String current = ROOT_ALIAS;
+        for (int i = 0; i < segments.length; i++) {
+            Attribute<?, ?> attribute = attribute(type, segments[i], dtoClass, path);
+            if (attribute.isCollection()) {
+                throw new IllegalArgumentException(dtoClass.getSimpleName() + ": collection path is not supported - " + path);
+            }
+
+            boolean last = i == segments.length - 1;
+            boolean association = attribute.isAssociation();
+            if (last) {
+                if (association) {
+                    throw new IllegalArgumentException(dtoClass.getSimpleName()
+                            + ": path must end with a basic attribute, not an entity - " + path);
+                }
+                return current + '.' + segments[i];
+            }
+            if (association) {
+                String joinPath = current + '.' + segments[i];
+                current = joins.computeIfAbsent(joinPath, p -> "j" + (joins.size() + 1));
+            } else {
+                current = current + '.' + segments[i];     // embedded
+            }
+            type = (ManagedType<?>) ((SingularAttribute<?, ?>) attribute).getType();
+        }
+        throw new IllegalArgumentException(dtoClass.getSimpleName() + ": empty path");
+    }
+
+    private static Attribute<?, ?> attribute(ManagedType<?> type, String name, Class<?> dtoClass, String path) {
+        try {
+            return type.getAttribute(name);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(dtoClass.getSimpleName() + ": unknown path " + path, e);
+        }
+    }
+
+    private static List<Field> projectedFields(Class<?> dtoClass) {
+        List<Field> fields = new ArrayList<>();
+        for (Field field : dtoClass.getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers()) && !field.isSynthetic()) {
+                fields.add(field);
+            }
+        }
+        if (fields.isEmpty()) {
+            throw new IllegalArgumentException(dtoClass.getSimpleName() + " has no fields to project");
+        }
+        return fields;
+    }
+
+    private static void requireConstructor(Class<?> dtoClass, List<Field> fields) {
+        Class<?>[] types = fields.stream().map(Field::getType).toArray(Class<?>[]::new);
+        try {
+            Constructor<?> constructor = dtoClass.getConstructor(types);
+            if (!Modifier.isPublic(dtoClass.getModifiers())) {
+                throw new IllegalArgumentException(dtoClass.getName() + " must be public: " + constructor);
+            }
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException(dtoClass.getSimpleName() + " needs a public constructor with its fields in declaration order "
+                    + fields.stream().map(Field::getName).reduce((a, b) -> a + ", " + b).orElse(""), e);
+        }
+    }
+}
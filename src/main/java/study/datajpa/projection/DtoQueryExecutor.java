@@ -0,0 +1,55 @@
+package study.datajpa.projection;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * DTO 클래스만 넘기면 생성자 표현식 쿼리로 바로 조회 (엔티티 -> DTO 변환 없이)
+ * (엔티티, DTO) 별 DtoProjection 은 한 번만 만들어서 캐시
+ */
+@Component
+public class DtoQueryExecutor {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private final Map<ProjectionKey, DtoProjection<?>> projections = new ConcurrentHashMap<>();
+
+    public <D> List<D> findAll(Class<?> entityClass, Class<D> dtoClass, Sort sort) {
+        DtoProjection<D> projection = projection(entityClass, dtoClass);
+        return em.createQuery(projection.query(sort), dtoClass).getResultList();
+    }
+
+    // id 페이지를 먼저 조회하고 그 id 들만 DTO 로 조회 (DtoProjection.idQuery, pageQuery)
+    public <D> Page<D> findAll(Class<?> entityClass, Class<D> dtoClass, Pageable pageable) {
+        DtoProjection<D> projection = projection(entityClass, dtoClass);
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(em.createQuery(projection.query(pageable.getSort()), dtoClass).getResultList());
+        }
+        List<?> ids = em.createQuery(projection.idQuery(pageable.getSort()))
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+        List<D> content = ids.isEmpty() ? Collections.emptyList()
+                : em.createQuery(projection.pageQuery(pageable.getSort()), dtoClass).setParameter("ids", ids).getResultList();
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> em.createQuery(projection.countQuery(), Long.class).getSingleResult());
+    }
+
+    @SuppressWarnings("unchecked")
+    public <D> DtoProjection<D> projection(Class<?> entityClass, Class<D> dtoClass) {
+        return (DtoProjection<D>) projections.computeIfAbsent(new ProjectionKey(entityClass, dtoClass),
+                key -> DtoProjection.of(em.getMetamodel(), entityClass, dtoClass));
+    }
+}
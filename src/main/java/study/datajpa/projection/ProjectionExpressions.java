@@ -0,0 +1,133 @@
+package study.datajpa.projection;
+
+import org.springframework.expression.Expression;
+import org.springframework.expression.ParserContext;
+import org.springframework.expression.common.CompositeStringExpression;
+import org.springframework.expression.common.LiteralExpression;
+import org.springframework.expression.spel.SpelNode;
+import org.springframework.expression.spel.ast.CompoundExpression;
+import org.springframework.expression.spel.ast.OpPlus;
+import org.springframework.expression.spel.ast.PropertyOrFieldReference;
+import org.springframework.expression.spel.ast.StringLiteral;
+import org.springframework.expression.spel.standard.SpelExpression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/*
+ * projection 의 @Value("#{...}") 중 단순한 식만 row 에서 바로 읽는 함수로 바꿈
+ * - target.a.b (엔티티 속성 경로), 'literal', 문자열 + (한쪽이 문자열일 때)
+ * - 그 외 (메서드 호출, 빈 참조, 숫자 연산 등) 는 null -> 스프링의 SpEL proxy 로 처리
+ * 필요한 속성 경로는 column 으로 넘겨서 select 할 컬럼으로 등록함
+ */
+final class ProjectionExpressions {
+
+    private static final SpelExpressionParser PARSER = new SpelExpressionParser();
+    private static final String TARGET = "target";
+
+    private ProjectionExpressions() {
+    }
+
+    static Function<Object[], Object> compile(String template, String prefix, ToIntFunction<String> column) {
+        Expression expression = PARSER.parseExpression(template, ParserContext.TEMPLATE_EXPRESSION);
+        return compile(expression, prefix, column);
+    }
+
+    private static Function<Object[], Object> compile(Expression expression, String prefix, ToIntFunction<String> column) {
+        if (expression instanceof LiteralExpression) {
+            Object value = ((LiteralExpression) expression).getValue();
+            return row -> value;
+        }
+        if (expression instanceof SpelExpression) {
+            Part part = compile(((SpelExpression) expression).getAST(), prefix, column);
+            return part == null ? null : part.reader;
+        }
+        if (expression instanceof CompositeStringExpression) {
+            // "Name: #{target.username}" -> 부분별로 이어붙임 (null 인 부분은 생략, CompositeStringExpression 과 같음)
+            List<Function<Object[], Object>> parts = new ArrayList<>();
+            for (Expression each : ((CompositeStringExpression) expression).getExpressions()) {
+                Function<Object[], Object> part = compile(each, prefix, column);
+                if (part == null) {
+                    return null;
+                }
+                parts.add(part);
+            }
+            return row -> {
+                StringBuilder sb = new StringBuilder();
+                for (Function<Object[], Object> part : parts) {
+                    Object value = part.apply(row);
+                    if (value != null) {
+                        sb.append(value);
+                    }
+                }
+                return sb.toString();
+            };
+        }
+        return null;
+    }
+
+    private static Part compile(SpelNode node, String prefix, ToIntFunction<String> column) {
+        if (node instanceof StringLiteral) {
+            Object value = ((StringLiteral) node).getLiteralValue().getValue();
+            return new Part(row -> value, true);
+        }
+        if (node instanceof CompoundExpression) {
+            String path = targetPath(node);
+            if (path == null) {
+                return null;
+            }
+            int index = column.applyAsInt(prefix + path);
+            return new Part(row -> row[index], false);
+        }
+        if (node instanceof OpPlus && node.getChildCount() == 2) {
+            Part left = compile(node.getChild(0), prefix, column);
+            Part right = compile(node.getChild(1), prefix, column);
+            // 숫자 덧셈은 타입에 따라 결과가 달라지므로 문자열 연결만
+            if (left == null || right == null || !(left.string || right.string)) {
+                return null;
+            }
+            Function<Object[], Object> l = left.reader;
+            Function<Object[], Object> r = right.reader;
+            return new Part(row -> String.valueOf(l.apply(row)) + r.apply(row), true);
+        }
+        return null;
+    }
+
+    // target.team.name -> "team.name"
+    private static String targetPath(SpelNode node) {
+        if (node.getChildCount() < 2) {
+            return null;
+        }
+        StringJoiner path = new StringJoiner(".");
+        for (int i = 0; i < node.getChildCount(); i++) {
+            SpelNode child = node.getChild(i);
+            if (!(child instanceof PropertyOrFieldReference) || ((PropertyOrFieldReference) child).isNullSafe()) {
+                return null;
+            }
+            String name = ((PropertyOrFieldReference) child).getName();
+            if (i == 0) {
+                if (!TARGET.equals(name)) {
+                    return null;
+                }
+            } else {
+                path.add(name);
+            }
+        }
+        return path.toString();
+    }
+
+    private static final class Part {
+
+        private final Function<Object[], Object> reader;
+        private final boolean string;      // 결과가 항상 문자열인지 (+ 를 문자열 연결로 볼 수 있는지)
+
+        private Part(Function<Object[], Object> reader, boolean string) {
+            this.reader = reader;
+            this.string = string;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package study.datajpa.projection;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/*
+ * 인터페이스 projection 의 proxy
+ * getter 값은 만들 때 row 에서 미리 읽어둠 -> 호출 시 slot 조회만 (SpEL 평가, BeanWrapper, 변환 없음)
+ */
+final class ProjectionInvocationHandler implements InvocationHandler {
+
+    private final Class<?> type;
+    private final Map<Method, Integer> slots;   // 타입별로 공유
+    private final String[] names;
+    private final Object[] values;
+
+    ProjectionInvocationHandler(Class<?> type, Map<Method, Integer> slots, String[] names, Object[] values) {
+        this.type = type;
+        this.slots = slots;
+        this.names = names;
+        this.values = values;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        Integer slot = slots.get(method);
+        if (slot != null) {
+            return values[slot];
+        }
+        switch (method.getName()) {
+            case "equals":
+                return args[0] != null && Proxy.isProxyClass(args[0].getClass()) && equalValues(Proxy.getInvocationHandler(args[0]));
+            case "hashCode":
+                return type.hashCode() * 31 + Arrays.hashCode(values);
+            case "toString":
+                StringJoiner joiner = new StringJoiner(", ", type.getSimpleName() + "{", "}");
+                for (int i = 0; i < names.length; i++) {
+                    joiner.add(names[i] + "=" + values[i]);
+                }
+                return joiner.toString();
+            default:
+                throw new UnsupportedOperationException(method.toString());
+        }
+    }
+
+    private boolean equalValues(InvocationHandler other) {
+        if (!(other instanceof ProjectionInvocationHandler)) {
+            return false;
+        }
+        ProjectionInvocationHandler that = (ProjectionInvocationHandler) other;
+        return type == that.type && Arrays.equals(values, that.values);
+    }
+}
@@ -0,0 +1,32 @@
+package study.datajpa.projection;
+
+import java.util.Objects;
+
+// (엔티티, projection 타입) 별 캐시 key
+final class ProjectionKey {
+
+    private final Class<?> entityClass;
+    private final Class<?> type;
+
+    ProjectionKey(Class<?> entityClass, Class<?> type) {
+        this.entityClass = entityClass;
+        this.type = type;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ProjectionKey)) {
+            return false;
+        }
+        ProjectionKey key = (ProjectionKey) o;
+        return entityClass.equals(key.entityClass) && type.equals(key.type);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(entityClass, type);
+    }
+}
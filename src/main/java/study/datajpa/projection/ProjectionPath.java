@@ -0,0 +1,18 @@
+package study.datajpa.projection;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/*
+ * DTO 필드가 가져올 엔티티 경로 (기본은 필드 이름과 같은 속성)
+ * ex) @ProjectionPath("team.name") private String teamName;  -> left join m.team t ... t.name
+ * ToOne 연관관계만 따라갈 수 있음 (컬렉션은 row 가 늘어나므로 불가)
+ */
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ProjectionPath {
+
+    String value();
+}
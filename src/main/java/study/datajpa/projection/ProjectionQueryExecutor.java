@@ -0,0 +1,86 @@
+package study.datajpa.projection;
+
+import org.springframework.beans.factory.BeanClassLoaderAware;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * 인터페이스/DTO projection 조회 (스프링 데이터의 동적 projection 대신)
+ * - ClosedProjection 으로 바꿀 수 있으면 필요한 컬럼만 tuple 로 조회해서 row 마다 변환 (엔티티, SpEL 평가 없음)
+ * - 바꿀 수 없는 인터페이스는 엔티티를 조회해서 스프링의 SpEL proxy 로 감쌈 (기존과 같은 동작)
+ * (엔티티, 타입) 별 변환 결과는 한 번만 만들어서 캐시
+ */
+@Component
+public class ProjectionQueryExecutor implements BeanFactoryAware, BeanClassLoaderAware {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private final SpelAwareProxyProjectionFactory projectionFactory = new SpelAwareProxyProjectionFactory();
+    private final Map<ProjectionKey, Optional<ClosedProjection<?>>> projections = new ConcurrentHashMap<>();
+
+    // where: 루트 엔티티 alias 는 e (ex. "e.username = :username"), null 이면 전체
+    public <T> List<T> findAll(Class<?> entityClass, Class<T> type, String where, Map<String, ?> parameters) {
+        Optional<ClosedProjection<T>> projection = projection(entityClass, type);
+        if (projection.isEmpty()) {
+            return findAllOpen(entityClass, type, where, parameters);
+        }
+
+        ClosedProjection<T> closed = projection.get();
+        List<?> rows = bind(em.createQuery(closed.query(where)), parameters).getResultList();
+        List<T> result = new ArrayList<>(rows.size());
+        for (Object row : rows) {
+            result.add(closed.materialize(row instanceof Object[] ? (Object[]) row : new Object[]{row}));
+        }
+        return result;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public <T> Optional<ClosedProjection<T>> projection(Class<?> entityClass, Class<T> type) {
+        Optional<?> projection = projections.computeIfAbsent(new ProjectionKey(entityClass, type),
+                key -> (Optional) ClosedProjection.of(em.getMetamodel(), entityClass, type));
+        return (Optional<ClosedProjection<T>>) projection;
+    }
+
+    private <T> List<T> findAllOpen(Class<?> entityClass, Class<T> type, String where, Map<String, ?> parameters) {
+        if (!type.isInterface()) {
+            throw new IllegalArgumentException(type.getName()
+                    + " needs a single public constructor whose parameter names match " + entityClass.getSimpleName() + " properties");
+        }
+        String entityName = em.getMetamodel().entity(entityClass).getName();
+        String query = "select " + DtoProjection.ROOT_ALIAS + " from " + entityName + ' ' + DtoProjection.ROOT_ALIAS
+                + (where == null ? "" : " where " + where);
+        List<?> entities = bind(em.createQuery(query, entityClass), parameters).getResultList();
+        List<T> result = new ArrayList<>(entities.size());
+        for (Object entity : entities) {
+            result.add(projectionFactory.createProjection(type, entity));
+        }
+        return result;
+    }
+
+    private static Query bind(Query query, Map<String, ?> parameters) {
+        parameters.forEach(query::setParameter);
+        return query;
+    }
+
+    @Override
+    public void setBeanFactory(BeanFactory beanFactory) {
+        projectionFactory.setBeanFactory(beanFactory);
+    }
+
+    @Override
+    public void setBeanClassLoader(ClassLoader classLoader) {
+        projectionFactory.setBeanClassLoader(classLoader);
+    }
+}
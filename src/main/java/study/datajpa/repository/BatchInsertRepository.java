@@ -0,0 +1,7 @@
+package study.datajpa.repository;
+
+public interface BatchInsertRepository<T> {
+
+    // batchSize 단위로 JDBC batch insert 후 flush, 저장한 엔티티는 준영속으로 (영속성 컨텍스트가 계속 커지지 않음)
+    long saveAllBatched(Iterable<T> entities, int batchSize);
+}
@@ -0,0 +1,56 @@
+package study.datajpa.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.batch.CallerPersistenceContext;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class BatchInsertRepositoryImpl<T> implements BatchInsertRepository<T> {
+
+    private final EntityManager em;
+
+    /*
+     * 신규 엔티티 전용: merge 없이 persist 만 사용
+     * 호출한 쪽 트랜잭션에 참여하므로 em.clear() 대신 이번에 저장한 엔티티만 batch 마다 준영속으로
+     * (호출 전에 관리 중이던 엔티티는 그대로, flush 되지 않은 변경이 있으면 시작하지 않음)
+     */
+    @Override
+    @Transactional
+    public long saveAllBatched(Iterable<T> entities, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+        }
+
+        CallerPersistenceContext.requireFlushed(em.getEntityManagerFactory(), "saveAllBatched");
+
+        Session session = em.unwrap(Session.class);
+        Integer previousBatchSize = session.getJdbcBatchSize();
+        session.setJdbcBatchSize(batchSize);
+        try {
+            long count = 0;
+            List<T> batch = new ArrayList<>(batchSize);
+            for (T entity : entities) {
+                em.persist(entity);
+                batch.add(entity);
+                if (++count % batchSize == 0) {
+                    flushAndDetach(batch);
+                }
+            }
+            flushAndDetach(batch);
+            return count;
+        } finally {
+            session.setJdbcBatchSize(previousBatchSize);
+        }
+    }
+
+    private void flushAndDetach(List<T> batch) {
+        em.flush();
+        batch.forEach(em::detach);
+        batch.clear();
+    }
+}
@@ -0,0 +1,170 @@
+package study.datajpa.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.query.Query;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * JpaSpecificationExecutor 는 호출마다 Criteria 트리를 만들고 JPQL 로 렌더링함
+ * 조건 모양(ShapedSpecification.shape) + 정렬 별로 한 번만 렌더링한 JPQL 을 캐시하고, 이후에는 값만 바인딩
+ * (같은 JPQL 이므로 Hibernate 쿼리 plan 캐시도 그대로 재사용됨)
+ * 정렬이 요청 값에 따라 무한히 늘어날 수 있으므로 MAX_ENTRIES 를 넘으면 캐시하지 않고 매번 렌더링
+ */
+@Slf4j
+@Component
+public class CompiledSpecificationCache {
+
+    private static final int MAX_ENTRIES = 1000;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private final Map<Key, String> queries = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public <T> List<T> findAll(Class<T> domainClass, ShapedSpecification<T> spec, Sort sort) {
+        return createQuery(domainClass, spec, sort).getResultList();
+    }
+
+    public <T> Page<T> findAll(Class<T> domainClass, ShapedSpecification<T> spec, Pageable pageable) {
+        TypedQuery<T> query = createQuery(domainClass, spec, pageable.getSort());
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(query.getResultList());
+        }
+        query.setFirstResult((int) pageable.getOffset());
+        query.setMaxResults(pageable.getPageSize());
+        return PageableExecutionUtils.getPage(query.getResultList(), pageable, () -> count(domainClass, spec));
+    }
+
+    public <T> long count(Class<T> domainClass, ShapedSpecification<T> spec) {
+        String jpql = jpql(new Key(domainClass, spec.shape(), Sort.unsorted(), true), spec);
+        TypedQuery<Long> query = em.createQuery(jpql, Long.class);
+        spec.parameters().forEach(query::setParameter);
+        return query.getSingleResult();
+    }
+
+    public int size() {
+        return queries.size();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    // 값이 바인딩된 쿼리 (paging 등을 직접 설정할 때)
+    public <T> TypedQuery<T> createQuery(Class<T> domainClass, ShapedSpecification<T> spec, Sort sort) {
+        String jpql = jpql(new Key(domainClass, spec.shape(), sort, false), spec);
+        TypedQuery<T> query = em.createQuery(jpql, domainClass);
+        spec.parameters().forEach(query::setParameter);
+        return query;
+    }
+
+    private String jpql(Key key, ShapedSpecification<?> spec) {
+        String cached = queries.get(key);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        String rendered = render(key, spec);
+        if (queries.size() < MAX_ENTRIES) {
+            queries.putIfAbsent(key, rendered);
+        } else {
+            log.debug("specification cache is full ({} entries), not caching {}", MAX_ENTRIES, key);
+        }
+        return rendered;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private String render(Key key, ShapedSpecification spec) {
+        CriteriaBuilder builder = em.getCriteriaBuilder();
+        CriteriaQuery query = builder.createQuery(key.count ? Long.class : (Class) key.domainClass);
+        Root root = query.from(key.domainClass);
+        Predicate predicate = spec.toSpecification().toPredicate(root, query, builder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        if (key.count) {
+            query.select(query.isDistinct() ? builder.countDistinct(root) : builder.count(root));
+            query.orderBy();
+        } else {
+            query.select(root);
+            if (key.sort.isSorted()) {
+                query.orderBy(QueryUtils.toOrders(key.sort, root, builder));
+            }
+        }
+
+        Query<?> rendered = em.createQuery(query).unwrap(Query.class);
+        Set<String> names = rendered.getParameterMetadata().getNamedParameterNames();
+        if (!spec.parameters().keySet().containsAll(names)) {
+            // literal 은 Hibernate 가 param0 같은 이름으로 바인딩하므로 캐시한 JPQL 로는 실행할 수 없음
+            throw new IllegalStateException("specification for shape " + key.shape
+                    + " must bind values only through named parameters " + spec.parameters().keySet() + ": " + names);
+        }
+        log.debug("compiled specification {} -> {}", key, rendered.getQueryString());
+        return rendered.getQueryString();
+    }
+
+    private static final class Key {
+
+        private final Class<?> domainClass;
+        private final Object shape;
+        private final Sort sort;
+        private final boolean count;
+
+        private Key(Class<?> domainClass, Object shape, Sort sort, boolean count) {
+            this.domainClass = domainClass;
+            this.shape = shape;
+            this.sort = sort;
+            this.count = count;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return count == key.count && domainClass.equals(key.domainClass)
+                    && shape.equals(key.shape) && sort.equals(key.sort);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(domainClass, shape, sort, count);
+        }
+
+        @Override
+        public String toString() {
+            return domainClass.getSimpleName() + shape + (count ? " count" : " " + sort);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package study.datajpa.repository;
+
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.function.Function;
+
+// totalExact == false 이면 totalElements 는 캐시/통계에서 가져온 근사값
+public class CountAwarePage<T> extends PageImpl<T> {
+
+    private final boolean totalExact;
+
+    public CountAwarePage(List<T> content, Pageable pageable, long total, boolean totalExact) {
+        super(content, pageable, total);
+        this.totalExact = totalExact;
+    }
+
+    public boolean isTotalExact() {
+        return totalExact;
+    }
+
+    @Override
+    public <U> CountAwarePage<U> map(Function<? super T, ? extends U> converter) {
+        return new CountAwarePage<>(getConvertedContent(converter), getPageable(), getTotalElements(), totalExact);
+    }
+}
@@ -3,5 +3,10 @@ package study.datajpa.repository;
 import org.springframework.data.jpa.repository.JpaRepository;
 import study.datajpa.entity.Item;
 
-public interface ItemRepository extends JpaRepository<Item, Long> {
+/*
+ * 외부에서 받은 키를 그대로 쓰는 Item 대량 적재
+ * - 신규만 들어오는 경우: saveAllBatched (persist + JDBC batch, merge 전 select 없음)
+ * - 중복 키가 섞여 있는 경우: insertIgnoringDuplicates (MERGE, 이미 있는 키는 건너뜀)
+ */
+public interface ItemRepository extends JpaRepository<Item, String>, ItemRepositoryCustom, BatchInsertRepository<Item> {
 }
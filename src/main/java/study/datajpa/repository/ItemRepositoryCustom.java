@@ -0,0 +1,11 @@
+package study.datajpa.repository;
+
+import study.datajpa.entity.Item;
+
+import java.util.List;
+
+public interface ItemRepositoryCustom {
+
+    // 없는 키만 insert 하고, 이미 있어서 건너뛴 id 를 반환
+    List<String> insertIgnoringDuplicates(List<Item> items, int batchSize);
+}
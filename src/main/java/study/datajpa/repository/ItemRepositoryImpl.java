@@ -0,0 +1,52 @@
+package study.datajpa.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Item;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class ItemRepositoryImpl implements ItemRepositoryCustom {
+
+    // 키가 없을 때만 insert -> 건별 update count 가 1 이면 insert, 0 이면 중복
+    private static final String INSERT_IF_ABSENT = "merge into item t" +
+            " using (select cast(? as varchar) as id, cast(? as timestamp) as created_date) s on (t.id = s.id)" +
+            " when not matched then insert (id, created_date) values (s.id, s.created_date)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /*
+     * 영속성 컨텍스트를 거치지 않고 JDBC batch 로 실행 (엔티티 상태 확인, 중복 키 예외로 인한 롤백 없음)
+     * 주의) @CreatedDate 가 적용되지 않으므로 createdDate 를 직접 채움, 전달한 Item 객체는 변경되지 않음
+     */
+    @Override
+    @Transactional
+    public List<String> insertIgnoringDuplicates(List<Item> items, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int[][] counts = jdbcTemplate.batchUpdate(INSERT_IF_ABSENT, items, batchSize, (ps, item) -> {
+            ps.setString(1, item.getId());
+            ps.setTimestamp(2, now);
+        });
+
+        List<String> duplicates = new ArrayList<>();
+        int index = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                if (count == 0) {
+                    duplicates.add(items.get(index).getId());
+                }
+                index++;
+            }
+        }
+        return duplicates;
+    }
+}
@@ -1,20 +1,26 @@
 package study.datajpa.repository;
 
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
+import org.springframework.scheduling.annotation.Async;
+import study.datajpa.config.AsyncConfig;
+import study.datajpa.dto.MemberCursor;
 import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
 import study.datajpa.entity.MemberProjection;
 
-import javax.persistence.LockModeType;
 import javax.persistence.QueryHint;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
-public interface MemberRepository extends JpaRepository<Member, Long>, MemberRepositoryCustom, JpaSpecificationExecutor<Member> {
+public interface MemberRepository extends JpaRepository<Member, Long>, MemberRepositoryCustom, JpaSpecificationExecutor<Member>,
+        BatchInsertRepository<Member> {
 
     /*
      * [구현체가 없는데 동작하는 이유]
@@ -24,6 +30,7 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     List<Member> findByUsernameAndAgeGreaterThan(String username, int age);
 
     // @Query 부분이 없어도 관례와 맞으면 실행됨
+    @QueryHints(value = @QueryHint(name = "org.hibernate.cacheable", value = "true"))
     @Query(name = "Member.findByUsername")
     List<Member> findByUsername(@Param("username") String username);
 
@@ -54,10 +61,42 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
 
     Slice<Member> findSliceByAge(int age, Pageable pageable);
 
+    long countByAge(int age);
+
+    // keyset paging (offset, count 쿼리 없이 마지막 (username, id) 다음부터 조회)
+    // username 이 null 인 회원이 먼저 (nulls first), null 은 비교 연산으로 찾을 수 없으므로 커서가 null 이면 따로 조회
+
+    @Query("select m from Member m order by m.username asc nulls first, m.id asc")
+    Slice<Member> findKeysetFirst(Pageable pageable);
+
+    @Query("select m from Member m" +
+            " where m.username > :username or (m.username = :username and m.id > :id)" +
+            " order by m.username asc nulls first, m.id asc")
+    Slice<Member> findKeysetAfter(@Param("username") String username, @Param("id") Long id, Pageable pageable);
+
+    @Query("select m from Member m" +
+            " where m.username is not null or m.id > :id" +
+            " order by m.username asc nulls first, m.id asc")
+    Slice<Member> findKeysetAfterNullUsername(@Param("id") Long id, Pageable pageable);
+
+    default Slice<Member> findKeyset(MemberCursor cursor, int size) {
+        PageRequest limit = PageRequest.of(0, size);
+        if (cursor == null) {
+            return findKeysetFirst(limit);
+        }
+        if (cursor.getUsername() == null) {
+            return findKeysetAfterNullUsername(cursor.getId(), limit);
+        }
+        return findKeysetAfter(cursor.getUsername(), cursor.getId(), limit);
+    }
+
     // bulk update
+    // JPQL bulk 연산은 Hibernate 가 member region, 쿼리 캐시를 무효화함 (native query 는 전체 region 무효화)
+    // 대용량 테이블은 한 번에 락을 오래 잡으므로 bulkAgePlusInChunks 사용
+    // versioned: 버전도 올림 (bulk 연산 전에 읽어둔 엔티티를 수정하면 낙관적 락 충돌)
 
     @Modifying(clearAutomatically = true)
-    @Query("update Member m set m.age = m.age + 1 where m.age >= :age")
+    @Query("update versioned Member m set m.age = m.age + 1 where m.age >= :age")
     int bulkAgePlus(@Param("age") int age);
 
     @Query("select m from Member m join fetch m.team")
@@ -80,20 +119,22 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     List<Member> findNamedEntityGraphByUsername(@Param("username") String username);
 
     // QueryHint
+    // 조회 메서드는 SimpleJpaRepository 의 readOnly 트랜잭션 -> replica 설정 시 replica 에서 실행
 
     @QueryHints(value = @QueryHint(name = "org.hibernate.readOnly", value = "true"))
     Member findReadOnlyByUsername(String username);
 
-    // Lock
+    // Lock: 대기 시간(timeout, nowait, skip locked) 지정이 필요하므로 MemberRepositoryCustom 에 있음
 
-    @Lock(LockModeType.PESSIMISTIC_WRITE)
-    List<Member> findLockByUsername(String username);
+    // Projection: SpEL proxy 대신 필요한 컬럼만 조회해서 변환하므로 MemberRepositoryCustom 에 있음
 
-    // Projection
+    // Streaming: 호출하는 쪽에 트랜잭션이 있어야 하고, 다 쓰면 close 해야 함
 
-    List<UsernameOnly> findProjectionByUsername(@Param("username") String username);
-
-    <T> List<T> findProjectionDtoByUsername(@Param("username") String username, Class<T> type);
+    @QueryHints(value = {
+            @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")})
+    @Query("select new study.datajpa.dto.MemberDto(m.id, m.username, t.name) from Member m left join m.team t order by m.id")
+    Stream<MemberDto> streamMemberDto();
 
     @Query(value = "select * from member where username = ?", nativeQuery = true)
     Member findByNativeQuery(String username);
@@ -102,4 +143,19 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
             nativeQuery = true,
             countQuery = "select count(*) from member")
     Page<MemberProjection> findByNativeProjection(Pageable pageable);
+
+    // count 는 PageCountCache 에서 (TableStatistics 추정치) 채움
+    @Query(value = "select m.member_id as id, m.username, t.name as teamName from member m left join team t on m.team_id = t.team_id",
+            nativeQuery = true)
+    Slice<MemberProjection> findSliceByNativeProjection(Pageable pageable);
+
+    // 비동기 조회: repositoryExecutor 스레드에서 별도 트랜잭션으로 실행되므로 지연 로딩 없이 DTO 로 조회
+    @Async(AsyncConfig.REPOSITORY_EXECUTOR)
+    @Query(name = "Member.findMemberDtoById")
+    CompletableFuture<MemberDto> findMemberDtoById(@Param("id") Long id);
+
+    @Async(AsyncConfig.REPOSITORY_EXECUTOR)
+    @Query(value = "select new study.datajpa.dto.MemberDto(m.id, m.username, t.name) from Member m left join m.team t",
+            countQuery = "select count(m) from Member m")
+    CompletableFuture<Page<MemberDto>> findMemberDtoPage(Pageable pageable);
 }
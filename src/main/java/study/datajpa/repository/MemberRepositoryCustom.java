@@ -1,9 +1,71 @@
 package study.datajpa.repository;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.batch.BulkUpdateListener;
+import study.datajpa.batch.BulkUpdateResult;
+import study.datajpa.dto.MemberSearchCondition;
 import study.datajpa.entity.Member;
+import study.datajpa.lock.LockWait;
+import study.datajpa.monitor.QueryBudget;
+import study.datajpa.monitor.QueryBudgetEnforcer;
 
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
 
 public interface MemberRepositoryCustom {
     List<Member> findMemberCustom();
+
+    // DTO 클래스에서 만든 생성자 표현식 쿼리로 바로 조회, Member 엔티티를 만들지 않음 (DtoQueryExecutor)
+    @Transactional(readOnly = true)
+    <D> Page<D> findDtoPage(Class<D> dtoClass, Pageable pageable);
+
+    // MemberSpec.condition 과 같은 결과, 조건 조합(모양) 별로 렌더링한 JPQL 을 재사용 (CompiledSpecificationCache)
+    @Transactional(readOnly = true)
+    Page<Member> search(MemberSearchCondition condition, Pageable pageable);
+
+    // Projection: 필요한 컬럼만 조회해서 타입별로 캐시된 변환 함수로 만듦 (ProjectionQueryExecutor)
+    // 단순한 @Value SpEL (속성 + 문자열 연결) 도 컬럼 값으로 바로 계산, 그 외는 스프링 SpEL proxy
+
+    @Transactional(readOnly = true)
+    List<UsernameOnly> findProjectionByUsername(String username);
+
+    @Transactional(readOnly = true)
+    <T> List<T> findProjectionDtoByUsername(String username, Class<T> type);
+
+    Stream<Member> streamMembers(int fetchSize);
+
+    // member_id 구간 partitions 개를 각각 readOnly 트랜잭션(커넥션)에서 동시에 조회 (PartitionedQueryExecutor)
+    // spec 이 null 이면 전체, 결과는 준영속 엔티티 (team 이 필요하면 spec 에서 fetch), 다 쓰면 Stream 을 close 해야 함
+    Stream<Member> streamPartitioned(Specification<Member> spec, int partitions, boolean ordered);
+
+    // partition 스레드에서 collector 로 누적한 뒤 합침 ex) aggregatePartitioned(null, 4, Collectors.averagingInt(Member::getAge))
+    <R> R aggregatePartitioned(Specification<Member> spec, int partitions, Collector<? super Member, ?, R> collector);
+
+    // bulkAgePlus 를 PK 구간 chunk 단위로 커밋, 실패 시 resumeAfter 에 마지막 커밋 id 를 넘겨서 재개
+    // chunk 마다 다음 id 구간을 같은 select 로 조회하므로 N+1 검사 제외
+    @QueryBudget(value = QueryBudgetEnforcer.UNLIMITED, allowRepeatedSelects = true)
+    BulkUpdateResult bulkAgePlusInChunks(int age, int chunkSize, Long resumeAfter, BulkUpdateListener listener);
+
+    // select for update 는 replica 로 가면 안 되므로 readOnly 가 아닌 트랜잭션으로 실행
+    // 기본 대기 시간은 datajpa.lock.timeout, 락을 얻지 못하면 PessimisticLockingFailureException
+
+    @Transactional
+    List<Member> findLockByUsername(String username);
+
+    @Transactional
+    List<Member> findLockByUsername(String username, LockWait wait);
+
+    // 작업 큐: age 가 같은 회원 중 id 순으로 count 명을 잠가서 가져감
+    // skipLocked 면 다른 worker 가 잡고 있는 회원은 건너뜀, 처리 후 age 를 바꾸고 커밋해야 큐에서 빠짐
+    @Transactional
+    List<Member> claimNext(int age, int count, LockWait wait);
+
+    // 낙관적 락: 새 트랜잭션에서 회원을 다시 읽어 change 를 적용, 버전 충돌이면 backoff 후 재시도 (datajpa.lock.optimistic-retry)
+    // 회원이 없으면 EmptyResultDataAccessException
+    Member updateWithRetry(Long id, Consumer<Member> change);
 }
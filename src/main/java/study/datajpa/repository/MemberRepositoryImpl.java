@@ -1,10 +1,35 @@
 package study.datajpa.repository;
 
 import lombok.RequiredArgsConstructor;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import study.datajpa.batch.BulkUpdateJob;
+import study.datajpa.batch.BulkUpdateListener;
+import study.datajpa.batch.BulkUpdateResult;
+import study.datajpa.batch.ChunkedBulkUpdateExecutor;
+import study.datajpa.dto.MemberSearchCondition;
 import study.datajpa.entity.Member;
+import study.datajpa.lock.LockWait;
+import study.datajpa.lock.OptimisticRetryExecutor;
+import study.datajpa.lock.PessimisticLockTemplate;
+import study.datajpa.projection.DtoQueryExecutor;
+import study.datajpa.projection.ProjectionQueryExecutor;
 
 import javax.persistence.EntityManager;
+import java.util.Collections;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @RequiredArgsConstructor
 public class MemberRepositoryImpl implements MemberRepositoryCustom {
@@ -12,9 +37,123 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
     // 클래스 이름 규칙: JpaRepository 를 상속받은 인터페이스 이름+Impl
 
     private final EntityManager em;
+    private final ChunkedBulkUpdateExecutor bulkUpdateExecutor;
+    private final PessimisticLockTemplate lockTemplate;
+    private final OptimisticRetryExecutor retryExecutor;
+    private final CompiledSpecificationCache specificationCache;
+    private final DtoQueryExecutor dtoQueryExecutor;
+    private final ProjectionQueryExecutor projectionQueryExecutor;
+    private final PartitionedQueryExecutor partitionedQueryExecutor;
 
     @Override
     public List<Member> findMemberCustom() {
         return em.createQuery("select m from Member m", Member.class).getResultList();
     }
+
+    @Override
+    public <D> Page<D> findDtoPage(Class<D> dtoClass, Pageable pageable) {
+        return dtoQueryExecutor.findAll(Member.class, dtoClass, pageable);
+    }
+
+    @Override
+    public List<UsernameOnly> findProjectionByUsername(String username) {
+        return findProjectionDtoByUsername(username, UsernameOnly.class);
+    }
+
+    @Override
+    public <T> List<T> findProjectionDtoByUsername(String username, Class<T> type) {
+        // null 은 is null 로 비교 (= null 은 항상 거짓)
+        if (username == null) {
+            return projectionQueryExecutor.findAll(Member.class, type, "e.username is null", Collections.emptyMap());
+        }
+        return projectionQueryExecutor.findAll(Member.class, type, "e.username = :username", Collections.singletonMap("username", username));
+    }
+
+    @Override
+    public Page<Member> search(MemberSearchCondition condition, Pageable pageable) {
+        return specificationCache.findAll(Member.class, MemberSpec.search(condition), pageable);
+    }
+
+    /*
+     * 전체 회원을 한 건씩 읽으면서 처리가 끝난 엔티티는 바로 evict
+     * -> 영속성 컨텍스트가 커지지 않으므로 건수와 상관없이 메모리 사용량이 일정함
+     * 호출하는 쪽에 트랜잭션이 있어야 하고, 다 쓰면 Stream 을 close 해야 함
+     */
+    @Override
+    public Stream<Member> streamMembers(int fetchSize) {
+        Session session = em.unwrap(Session.class);
+        ScrollableResults results = session.createQuery("select m from Member m order by m.id", Member.class)
+                .setFetchSize(fetchSize)
+                .setReadOnly(true)
+                .setCacheMode(CacheMode.IGNORE)
+                .scroll(ScrollMode.FORWARD_ONLY);
+
+        Spliterator<Member> spliterator = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super Member> action) {
+                if (!results.next()) {
+                    return false;
+                }
+                Member member = (Member) results.get(0);
+                action.accept(member);
+                session.evict(member);
+                return true;
+            }
+        };
+        return StreamSupport.stream(spliterator, false).onClose(results::close);
+    }
+
+    @Override
+    public Stream<Member> streamPartitioned(Specification<Member> spec, int partitions, boolean ordered) {
+        return partitionedQueryExecutor.stream(Member.class, spec, partitions, ordered);
+    }
+
+    @Override
+    public <R> R aggregatePartitioned(Specification<Member> spec, int partitions, Collector<? super Member, ?, R> collector) {
+        return partitionedQueryExecutor.aggregate(Member.class, spec, partitions, collector);
+    }
+
+    @Override
+    public BulkUpdateResult bulkAgePlusInChunks(int age, int chunkSize, Long resumeAfter, BulkUpdateListener listener) {
+        BulkUpdateJob job = new BulkUpdateJob(Member.class,
+                "update versioned Member m set m.age = m.age + 1 where m.age >= :age and m.id between :fromId and :toId")
+                .parameter("age", age)
+                .chunkSize(chunkSize)
+                .resumeAfter(resumeAfter);
+        return bulkUpdateExecutor.execute(job, listener);
+    }
+
+    @Override
+    public List<Member> findLockByUsername(String username) {
+        return findLockByUsername(username, lockTemplate.defaultWait());
+    }
+
+    @Override
+    public List<Member> findLockByUsername(String username, LockWait wait) {
+        return lockTemplate.getResultList(
+                em.createQuery("select m from Member m where m.username = :username", Member.class)
+                        .setParameter("username", username),
+                Member.class, wait);
+    }
+
+    @Override
+    public List<Member> claimNext(int age, int count, LockWait wait) {
+        return lockTemplate.getResultList(
+                em.createQuery("select m from Member m where m.age = :age order by m.id", Member.class)
+                        .setParameter("age", age)
+                        .setMaxResults(count),
+                Member.class, wait);
+    }
+
+    @Override
+    public Member updateWithRetry(Long id, Consumer<Member> change) {
+        return retryExecutor.execute(Member.class, () -> {
+            Member member = em.find(Member.class, id);
+            if (member == null) {
+                throw new EmptyResultDataAccessException("No Member entity with id " + id + " exists", 1);
+            }
+            change.accept(member);
+            return member;
+        });
+    }
 }
@@ -2,29 +2,156 @@ package study.datajpa.repository;
 
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.util.StringUtils;
+import study.datajpa.dto.MemberSearchCondition;
 import study.datajpa.entity.Member;
 import study.datajpa.entity.Team;
 
 import javax.persistence.criteria.*;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 public class MemberSpec {
 
-    public static Specification<Member> teamName(final String teamName) {
-        return (root, query, builder) -> {
+    /*
+     * 검색 조건 하나의 정의 (값은 Expression 으로 받음)
+     * 같은 정의로 값을 그대로 쓰는 Specification(literal) 과 이름 있는 파라미터를 쓰는 Specification(parameter) 을 만듦
+     */
+    private interface Filter<V> {
+        Predicate toPredicate(Root<Member> root, CriteriaBuilder builder, Expression<V> value);
+    }
+
+    private static final Filter<String> USERNAME = (root, builder, value) -> builder.equal(root.get("username"), value);
+    private static final Filter<String> TEAM_NAME = (root, builder, value) -> builder.equal(team(root).get("name"), value);
+    private static final Filter<Integer> AGE_GOE = (root, builder, value) -> builder.greaterThanOrEqualTo(root.get("age"), value);
+    private static final Filter<Integer> AGE_LOE = (root, builder, value) -> builder.lessThanOrEqualTo(root.get("age"), value);
 
-            if (!StringUtils.hasText(teamName)) {
-                return null;
+    // team 을 fetch 했으면 그 join 에 조건을 걸어서 team 을 한 번만 join
+    @SuppressWarnings("unchecked")
+    private static Join<Member, Team> team(Root<Member> root) {
+        for (Fetch<Member, ?> fetch : root.getFetches()) {
+            if (fetch.getAttribute().getName().equals("team")) {
+                return (Join<Member, Team>) fetch;
             }
+        }
+        return root.join("team", JoinType.INNER);
+    }
 
-            Join<Member, Team> t = root.join("team", JoinType.INNER);
-            return builder.equal(t.get("name"), teamName);
+    // 목록 조회에서 팀 이름을 쓰도록 team 을 fetch (count 쿼리에는 fetch 하지 않음)
+    // 팀 이름 조건이 있으면 팀이 없는 회원은 어차피 빠지므로 inner join (DB 가 팀 쪽 인덱스부터 읽을 수 있도록)
+    private static Specification<Member> fetchTeam(JoinType joinType) {
+        return (root, query, builder) -> {
+            if (!Long.class.equals(query.getResultType())) {
+                root.fetch("team", joinType);
+            }
+            return null;
         };
     }
 
+    public static Specification<Member> teamName(final String teamName) {
+        return literal(TEAM_NAME, StringUtils.hasText(teamName) ? teamName : null);
+    }
+
+    // username 이 null 이면 조건 없음 (= null 로 비교하면 항상 거짓)
     public static Specification<Member> username(final String username) {
-        return (root, query, builder) -> builder.equal(root.get("username"), username);
+        return literal(USERNAME, username);
+    }
+
+    public static Specification<Member> ageGoe(final Integer age) {
+        return literal(AGE_GOE, age);
+    }
+
+    public static Specification<Member> ageLoe(final Integer age) {
+        return literal(AGE_LOE, age);
+    }
+
+    // 검색 조건을 매번 Criteria 로 만드는 방식 (JpaSpecificationExecutor 용)
+    public static Specification<Member> condition(MemberSearchCondition condition) {
+        Specification<Member> spec = Specification.where(null);
+        for (Bound<?> bound : bind(condition)) {
+            spec = spec.and(bound.literal());
+        }
+        return spec;
+    }
+
+    /*
+     * 같은 검색 조건을 CompiledSpecificationCache 용으로 만듦
+     * 값이 있는 조건만 이름 있는 파라미터로 조합 -> 조합 (모양) 마다 JPQL 은 한 번만 렌더링
+     * 결과에 팀 이름이 필요하므로 team 을 fetch join
+     */
+    public static ShapedSpecification<Member> search(MemberSearchCondition condition) {
+        List<Bound<?>> bounds = bind(condition);
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        bounds.forEach(bound -> parameters.put(bound.name, bound.value));
+
+        return new ShapedSpecification<>() {
+            @Override
+            public Object shape() {
+                return parameters.keySet().toString();
+            }
+
+            @Override
+            public Specification<Member> toSpecification() {
+                boolean teamFiltered = bounds.stream().anyMatch(bound -> bound.filter == TEAM_NAME);
+                Specification<Member> spec = Specification.where(fetchTeam(teamFiltered ? JoinType.INNER : JoinType.LEFT));
+                for (Bound<?> bound : bounds) {
+                    spec = spec.and(bound.parameter());
+                }
+                return spec;
+            }
+
+            @Override
+            public Map<String, Object> parameters() {
+                return parameters;
+            }
+        };
+    }
+
+    // 값이 있는 조건만 (username, teamName 은 빈 문자열도 제외)
+    private static List<Bound<?>> bind(MemberSearchCondition condition) {
+        List<Bound<?>> bounds = new ArrayList<>();
+        if (StringUtils.hasText(condition.getUsername())) {
+            bounds.add(new Bound<>("username", String.class, USERNAME, condition.getUsername()));
+        }
+        if (StringUtils.hasText(condition.getTeamName())) {
+            bounds.add(new Bound<>("teamName", String.class, TEAM_NAME, condition.getTeamName()));
+        }
+        if (condition.getAgeGoe() != null) {
+            bounds.add(new Bound<>("ageGoe", Integer.class, AGE_GOE, condition.getAgeGoe()));
+        }
+        if (condition.getAgeLoe() != null) {
+            bounds.add(new Bound<>("ageLoe", Integer.class, AGE_LOE, condition.getAgeLoe()));
+        }
+        return bounds;
+    }
 
+    // 값이 null 이면 조건 없음
+    private static <V> Specification<Member> literal(Filter<V> filter, V value) {
+        return (root, query, builder) -> value == null ? null : filter.toPredicate(root, builder, builder.literal(value));
     }
 
+    // 조건 정의 + 파라미터 이름, 타입, 값
+    private static class Bound<V> {
 
+        private final String name;
+        private final Class<V> type;
+        private final Filter<V> filter;
+        private final V value;
+
+        Bound(String name, Class<V> type, Filter<V> filter, V value) {
+            this.name = name;
+            this.type = type;
+            this.filter = filter;
+            this.value = value;
+        }
+
+        Specification<Member> literal() {
+            return MemberSpec.literal(filter, value);
+        }
+
+        Specification<Member> parameter() {
+            return (root, query, builder) -> filter.toPredicate(root, builder, builder.parameter(type, name));
+        }
+    }
 }
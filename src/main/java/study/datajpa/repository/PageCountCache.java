@@ -0,0 +1,118 @@
+package study.datajpa.repository;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/*
+ * Slice(size + 1 조회) 결과에 total 을 붙여서 Page 로 만듦
+ * - 마지막 페이지: offset + 건수로 정확한 total 계산 (count 쿼리 생략), 마지막 페이지를 지난 빈 페이지는 제외
+ * - 그 외: TTL 동안은 캐시된 count, 캐시가 없을 때만 count 쿼리 실행
+ */
+@Component
+@EnableConfigurationProperties(PageCountProperties.class)
+public class PageCountCache {
+
+    private final PageCountProperties properties;
+    private final Map<String, CachedCount> counts = new ConcurrentHashMap<>();
+
+    public PageCountCache(PageCountProperties properties) {
+        this.properties = properties;
+    }
+
+    public static String key(String queryName, Object... parameters) {
+        return queryName + Arrays.toString(parameters);
+    }
+
+    public <T> CountAwarePage<T> page(Slice<T> slice, String countKey, LongSupplier countQuery) {
+        if (isLastPage(slice)) {
+            long total = slice.getPageable().getOffset() + slice.getNumberOfElements();
+            if (slice.hasContent()) {
+                put(countKey, total);
+            }
+            return new CountAwarePage<>(slice.getContent(), slice.getPageable(), total, true);
+        }
+
+        CachedCount cached = counts.get(countKey);
+        if (cached != null && !cached.isExpired()) {
+            return new CountAwarePage<>(slice.getContent(), slice.getPageable(), atLeastNextPage(slice, cached.count), false);
+        }
+
+        long total = countQuery.getAsLong();
+        put(countKey, total);
+        return new CountAwarePage<>(slice.getContent(), slice.getPageable(), total, true);
+    }
+
+    // count 쿼리 대신 DB 통계(추정치)를 사용
+    public <T> CountAwarePage<T> estimated(Slice<T> slice, LongSupplier estimate) {
+        if (isLastPage(slice)) {
+            long total = slice.getPageable().getOffset() + slice.getNumberOfElements();
+            return new CountAwarePage<>(slice.getContent(), slice.getPageable(), total, true);
+        }
+        return new CountAwarePage<>(slice.getContent(), slice.getPageable(), atLeastNextPage(slice, estimate.getAsLong()), false);
+    }
+
+    public void evict(String countKey) {
+        counts.remove(countKey);
+    }
+
+    public void evictAll() {
+        counts.clear();
+    }
+
+    /*
+     * 다음 페이지가 없고 내용이 있거나 첫 페이지일 때만 offset + 건수가 total
+     * 마지막 페이지를 지난 빈 페이지는 total 을 알 수 없음 (PageableExecutionUtils 와 같은 기준)
+     */
+    private boolean isLastPage(Slice<?> slice) {
+        return !slice.hasNext() && (slice.hasContent() || slice.getPageable().getOffset() == 0);
+    }
+
+    // 다음 페이지가 있으면 그만큼은 확실하므로 근사값이 그보다 작으면 보정
+    private long atLeastNextPage(Slice<?> slice, long approximate) {
+        if (!slice.hasNext()) {
+            return approximate;
+        }
+        long known = slice.getPageable().getOffset() + slice.getNumberOfElements() + 1;
+        return Math.max(approximate, known);
+    }
+
+    private void put(String countKey, long count) {
+        if (!counts.containsKey(countKey) && counts.size() >= properties.getCountCacheMaxEntries()) {
+            evictForNewEntry();
+        }
+        counts.put(countKey, new CachedCount(count, System.nanoTime() + properties.getCountCacheTtl().toNanos()));
+    }
+
+    // 한꺼번에 비우면 자주 쓰는 count 까지 다시 조회하므로 만료된 항목, 그래도 가득 차 있으면 가장 오래된 항목 하나만 제거
+    private void evictForNewEntry() {
+        counts.values().removeIf(CachedCount::isExpired);
+        if (counts.size() < properties.getCountCacheMaxEntries()) {
+            return;
+        }
+        counts.entrySet().stream()
+                .min(Comparator.comparingLong(entry -> entry.getValue().expiresAt))
+                .ifPresent(oldest -> counts.remove(oldest.getKey(), oldest.getValue()));
+    }
+
+    private static class CachedCount {
+
+        private final long count;
+        private final long expiresAt;
+
+        CachedCount(long count, long expiresAt) {
+            this.count = count;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired() {
+            return System.nanoTime() - expiresAt > 0;
+        }
+    }
+}
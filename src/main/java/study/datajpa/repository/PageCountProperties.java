@@ -0,0 +1,15 @@
+package study.datajpa.repository;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter @Setter
+@ConfigurationProperties(prefix = "datajpa.paging")
+public class PageCountProperties {
+
+    private Duration countCacheTtl = Duration.ofSeconds(30);
+    private int countCacheMaxEntries = 10_000;
+}
@@ -0,0 +1,341 @@
+package study.datajpa.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.query.Query;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.batch.IdRange;
+import study.datajpa.config.AsyncConfig;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.metamodel.EntityType;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/*
+ * Specification 조회를 id 구간 partitions 개로 나눠서 repositoryExecutor 에서 동시에 실행
+ * - partition 마다 readOnly 트랜잭션 하나 (커넥션 하나, replica 가 있으면 replica 로 라우팅)
+ * - partition 안에서는 id 순으로 scroll, 넘긴 엔티티는 바로 evict -> partition 크기와 상관없이 메모리 일정
+ * - stream: 결과는 준영속 엔티티이므로 필요한 연관관계는 spec 에서 fetch
+ *   ordered 면 partition 순서대로 이어 붙여 id 순, 뒤 partition 은 버퍼(bufferSize)가 찰 때까지 미리 읽음
+ *   unordered 면 먼저 읽힌 순서
+ * - aggregate: partition 스레드에서 Collector 로 누적하고 combiner 로 합침 (합치는 순서는 partition 순서)
+ *   partition 하나가 실패하면 나머지는 다음 row 에서 중단 (시작 전이면 실행하지 않음)
+ * 동시에 실행되는 partition 수는 repositoryExecutor 크기 (= 커넥션 풀 크기) 로 제한됨
+ * - repositoryExecutor 작업 안에서 호출하면 partition 을 기다리는 동안 스레드를 잡고 있어 deadlock 가능 -> IllegalStateException
+ * - close 하지 않고 버린 Stream: stallTimeout 동안 tryAdvance 가 호출되지 않으면 partition 을 중단 (스레드, 커넥션, 트랜잭션 반환)
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(PartitionedQueryProperties.class)
+public class PartitionedQueryExecutor {
+
+    private static final int FETCH_SIZE = 1000;
+    private static final long POLL_MILLIS = 100;
+    private static final Object END = new Object();
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private final AsyncTaskExecutor executor;
+    private final TransactionTemplate readOnly;
+    private final PartitionedQueryProperties properties;
+
+    public PartitionedQueryExecutor(@Qualifier(AsyncConfig.REPOSITORY_EXECUTOR) AsyncTaskExecutor executor,
+                                    PlatformTransactionManager transactionManager, PartitionedQueryProperties properties) {
+        this.executor = executor;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.properties = properties;
+    }
+
+    // spec 이 null 이면 전체, 다 쓰면 Stream 을 close 해야 함 (남은 partition 을 중단하고 커넥션 반환)
+    public <T> Stream<T> stream(Class<T> domainClass, Specification<T> spec, int partitions, boolean ordered) {
+        requireCallerThread();
+        List<IdRange> ranges = ranges(domainClass, partitions);
+        PartitionedSpliterator<T> spliterator = new PartitionedSpliterator<>(ranges.size(), ordered,
+                properties.getBufferSize(), properties.getStallTimeout().toNanos());
+        for (int i = 0; i < ranges.size(); i++) {
+            int index = i;
+            IdRange range = ranges.get(i);
+            try {
+                executor.execute(() -> spliterator.produce(index, () -> scan(domainClass, spec, range, row -> spliterator.put(index, row))));
+            } catch (RuntimeException e) {
+                spliterator.fail(e);    // TaskRejectedException, 이미 시작한 partition 은 cancel 로 중단
+                break;
+            }
+        }
+        return StreamSupport.stream(spliterator, false).onClose(spliterator::cancel);
+    }
+
+    // ex) aggregate(Member.class, null, 4, Collectors.summingLong(Member::getAge))
+    public <T, A, R> R aggregate(Class<T> domainClass, Specification<T> spec, int partitions, Collector<? super T, A, R> collector) {
+        requireCallerThread();
+        AtomicBoolean stopped = new AtomicBoolean();
+        List<CompletableFuture<A>> futures = Collections.synchronizedList(new ArrayList<>());
+        try {
+            for (IdRange range : ranges(domainClass, partitions)) {
+                CompletableFuture<A> future = CompletableFuture.supplyAsync(() -> {
+                    A container = collector.supplier().get();
+                    BiConsumer<A, ? super T> accumulator = collector.accumulator();
+                    scan(domainClass, spec, range, row -> {
+                        if (stopped.get()) {
+                            throw new CancellationException();
+                        }
+                        accumulator.accept(container, row);
+                    });
+                    return container;
+                }, executor);
+                // 실패하면 나머지 partition 을 중단해서 커넥션을 바로 반환
+                future.whenComplete((container, e) -> {
+                    if (e != null && !stopped.get()) {
+                        stop(stopped, futures);
+                    }
+                });
+                futures.add(future);
+            }
+        } catch (RuntimeException e) {
+            stop(stopped, futures);     // TaskRejectedException
+            throw e;
+        }
+
+        BinaryOperator<A> combiner = collector.combiner();
+        A result = collector.supplier().get();
+        try {
+            for (CompletableFuture<A> future : futures) {
+                result = combiner.apply(result, future.join());
+            }
+        } catch (CompletionException | CancellationException e) {
+            stop(stopped, futures);
+            throw firstFailure(futures, e);
+        }
+        return finish(collector, result);
+    }
+
+    private static <A> void stop(AtomicBoolean stopped, List<CompletableFuture<A>> futures) {
+        stopped.set(true);
+        // 아직 시작하지 않은 partition 은 실행하지 않음 (실행 중인 partition 은 stopped 를 보고 중단)
+        futures.forEach(future -> future.cancel(false));
+    }
+
+    // 중단된 partition 의 CancellationException 이 아니라 처음 실패한 partition 의 예외
+    private static <A> RuntimeException firstFailure(List<CompletableFuture<A>> futures, RuntimeException joined) {
+        for (CompletableFuture<A> future : futures) {
+            try {
+                future.join();
+            } catch (CompletionException e) {
+                if (!(e.getCause() instanceof CancellationException)) {
+                    return e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+                }
+            } catch (CancellationException e) {
+                // stop() 으로 취소됨
+            }
+        }
+        return joined.getCause() instanceof RuntimeException ? (RuntimeException) joined.getCause() : joined;
+    }
+
+    private static void requireCallerThread() {
+        if (AsyncConfig.isRepositoryExecutorThread()) {
+            throw new IllegalStateException("partitioned query cannot be called from a " + AsyncConfig.REPOSITORY_EXECUTOR
+                    + " thread (" + Thread.currentThread().getName() + "), partitions would wait for the caller's own executor");
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <A, R> R finish(Collector<?, A, R> collector, A container) {
+        if (collector.characteristics().contains(Collector.Characteristics.IDENTITY_FINISH)) {
+            return (R) container;
+        }
+        return collector.finisher().apply(container);
+    }
+
+    // 조건과 상관없이 테이블 전체 id 구간 [min, max] 를 나눔
+    private <T> List<IdRange> ranges(Class<T> domainClass, int partitions) {
+        if (partitions < 1) {
+            throw new IllegalArgumentException("partitions must be positive: " + partitions);
+        }
+        String id = idAttribute(domainClass);
+        Object[] minMax = readOnly.execute(status -> (Object[]) em.createQuery(
+                "select min(e." + id + "), max(e." + id + ") from " + em.getMetamodel().entity(domainClass).getName() + " e")
+                .getSingleResult());
+        if (minMax == null || minMax[0] == null) {
+            return new ArrayList<>();
+        }
+        return new IdRange(((Number) minMax[0]).longValue(), ((Number) minMax[1]).longValue()).partition(partitions);
+    }
+
+    // partition 스레드에서 실행, em 은 이 스레드의 readOnly 트랜잭션에 묶인 영속성 컨텍스트
+    @SuppressWarnings("unchecked")
+    private <T> void scan(Class<T> domainClass, Specification<T> spec, IdRange range, Consumer<T> action) {
+        readOnly.executeWithoutResult(status -> {
+            Session session = em.unwrap(Session.class);
+            CriteriaBuilder cb = em.getCriteriaBuilder();
+            CriteriaQuery<T> query = cb.createQuery(domainClass);
+            Root<T> root = query.from(domainClass);
+            Path<Long> id = root.get(idAttribute(domainClass));
+            Predicate predicate = cb.between(id, range.getFrom(), range.getTo());
+            if (spec != null) {
+                Predicate condition = spec.toPredicate(root, query, cb);
+                if (condition != null) {
+                    predicate = cb.and(predicate, condition);
+                }
+            }
+            query.select(root).where(predicate).orderBy(cb.asc(id));
+
+            Query<T> select = em.createQuery(query).unwrap(Query.class)
+                    .setFetchSize(FETCH_SIZE)
+                    .setReadOnly(true)
+                    .setCacheMode(CacheMode.IGNORE);
+            try (ScrollableResults results = select.scroll(ScrollMode.FORWARD_ONLY)) {
+                while (results.next()) {
+                    T row = domainClass.cast(results.get(0));
+                    action.accept(row);
+                    session.evict(row);
+                }
+            }
+        });
+    }
+
+    private String idAttribute(Class<?> domainClass) {
+        EntityType<?> entity = em.getMetamodel().entity(domainClass);
+        return entity.getId(entity.getIdType().getJavaType()).getName();
+    }
+
+    /*
+     * partition 스레드(producer) -> 버퍼 -> Stream 을 읽는 스레드(consumer)
+     * ordered: partition 마다 버퍼, 앞 partition 의 END 를 만나면 다음 partition 버퍼로 넘어감
+     * unordered: 버퍼 하나를 공유, END 가 partition 수만큼 오면 끝
+     * 어느 partition 이든 실패하면 다음 tryAdvance 에서 바로 예외
+     */
+    private static class PartitionedSpliterator<T> extends Spliterators.AbstractSpliterator<T> {
+
+        private final List<BlockingQueue<Object>> buffers = new ArrayList<>();
+        private final int partitions;
+        private final boolean ordered;
+        private final long stallTimeoutNanos;
+        private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        private volatile boolean cancelled;
+        // consumer 가 마지막으로 버퍼를 확인한 시각 (row 가 없었어도 기다리는 중이면 갱신)
+        private volatile long lastPolledNanos = System.nanoTime();
+        private int ended;
+
+        PartitionedSpliterator(int partitions, boolean ordered, int bufferSize, long stallTimeoutNanos) {
+            super(Long.MAX_VALUE, ordered ? Spliterator.ORDERED | Spliterator.NONNULL : Spliterator.NONNULL);
+            this.partitions = partitions;
+            this.ordered = ordered;
+            this.stallTimeoutNanos = stallTimeoutNanos;
+            for (int i = 0; i < (ordered ? partitions : 1); i++) {
+                buffers.add(new ArrayBlockingQueue<>(bufferSize));
+            }
+        }
+
+        void produce(int index, Runnable scan) {
+            try {
+                scan.run();
+                put(index, END);
+            } catch (CancellationException e) {
+                // Stream 이 close 됐거나 다른 partition 이 실패
+            } catch (RuntimeException e) {
+                log.warn("partitioned query failed in partition {}", index, e);
+                fail(e);
+            }
+        }
+
+        // 버퍼가 차 있으면 기다림, 그 사이 cancel 되면 scan 을 중단
+        // consumer 가 stallTimeout 동안 tryAdvance 를 호출하지 않으면 (Stream 을 읽지 않고 버림) 전체를 cancel
+        // (ordered 면 뒤 partition 버퍼는 앞 partition 을 기다리는 동안 차 있으므로 자기 버퍼 대기 시간으로 판단하지 않음)
+        void put(int index, Object row) {
+            BlockingQueue<Object> buffer = buffers.get(ordered ? index : 0);
+            try {
+                do {
+                    if (cancelled) {
+                        throw new CancellationException();
+                    }
+                    if (System.nanoTime() - lastPolledNanos > stallTimeoutNanos) {
+                        log.warn("partitioned stream not consumed for {} ms, cancelling (was it closed?)",
+                                TimeUnit.NANOSECONDS.toMillis(stallTimeoutNanos));
+                        fail(new IllegalStateException("partitioned stream was not consumed within "
+                                + TimeUnit.NANOSECONDS.toMillis(stallTimeoutNanos) + " ms"));
+                        buffers.forEach(BlockingQueue::clear);
+                        throw new CancellationException();
+                    }
+                } while (!buffer.offer(row, POLL_MILLIS, TimeUnit.MILLISECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException();
+            }
+        }
+
+        void fail(RuntimeException e) {
+            failure.compareAndSet(null, e);
+            cancelled = true;
+        }
+
+        void cancel() {
+            cancelled = true;
+            buffers.forEach(BlockingQueue::clear);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean tryAdvance(Consumer<? super T> action) {
+            while (true) {
+                RuntimeException e = failure.get();
+                if (e != null) {
+                    cancel();
+                    throw e;
+                }
+                if (ended == partitions) {
+                    return false;
+                }
+                lastPolledNanos = System.nanoTime();
+                Object row;
+                try {
+                    row = buffers.get(ordered ? ended : 0).poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    cancel();
+                    throw new CancellationException("interrupted while waiting for partition rows");
+                }
+                if (row == END) {
+                    ended++;
+                } else if (row != null) {
+                    action.accept((T) row);
+                    return true;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package study.datajpa.repository;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter @Setter
+@ConfigurationProperties(prefix = "datajpa.partitioned-query")
+public class PartitionedQueryProperties {
+
+    // Stream 을 읽지 않은 채 이 시간이 지나면 partition 을 중단하고 커넥션, 스레드를 반환 (close 하지 않고 버린 Stream)
+    private Duration stallTimeout = Duration.ofSeconds(60);
+
+    // partition 별 (unordered 면 공유) 버퍼 row 수
+    private int bufferSize = 1000;
+}
@@ -0,0 +1,20 @@
+package study.datajpa.repository;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Map;
+
+/*
+ * 조건 "모양"(어떤 조건이 조합됐는지) 과 값을 분리한 Specification
+ * - shape: 모양이 같으면 같은 JPQL 이 나와야 함 (CompiledSpecificationCache 의 key)
+ * - toSpecification: 값 대신 parameters 의 이름으로 만든 ParameterExpression 만 사용해야 함 (literal 금지)
+ * - parameters: 실행할 때마다 바인딩할 값
+ */
+public interface ShapedSpecification<T> {
+
+    Object shape();
+
+    Specification<T> toSpecification();
+
+    Map<String, Object> parameters();
+}
@@ -0,0 +1,20 @@
+package study.datajpa.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// count(*) 대신 DB 가 관리하는 테이블 건수 추정치 (H2: INFORMATION_SCHEMA.TABLES.ROW_COUNT_ESTIMATE)
+@Component
+@RequiredArgsConstructor
+public class TableStatistics {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public long estimateRowCount(String tableName) {
+        Long estimate = jdbcTemplate.queryForObject(
+                "select row_count_estimate from information_schema.tables where table_schema = schema() and table_name = ?",
+                Long.class, tableName.toUpperCase());
+        return estimate != null ? estimate : 0;
+    }
+}
@@ -0,0 +1,114 @@
+package study.datajpa.audit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class AuditingTest {
+
+    @Autowired MemberRepository memberRepository;
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Test
+    public void auditorAndTimePerFlush() throws Exception {
+        // given
+        Member member1 = memberRepository.save(new Member("member1"));
+        Member member2 = memberRepository.save(new Member("member2"));
+        em.flush();
+
+        // when: 같은 flush 에서 수정
+        Thread.sleep(5);
+        member1.setUsername("member1-2");
+        member2.setUsername("member2-2");
+        em.flush();
+
+        Thread.sleep(5);
+        Member member3 = memberRepository.save(new Member("member3"));
+        em.flush();
+
+        // then: 작성자는 트랜잭션 당 하나, 시각은 flush 마다 새로 읽음
+        assertThat(member1.getCreatedBy()).isNotNull();
+        assertThat(member2.getCreatedBy()).isEqualTo(member1.getCreatedBy());
+        assertThat(member3.getCreatedBy()).isEqualTo(member1.getCreatedBy());
+        assertThat(member1.getLastModifiedDate()).isAfter(member1.getCreatedDate());
+        assertThat(member2.getLastModifiedDate()).isEqualTo(member1.getLastModifiedDate());
+        assertThat(member3.getCreatedDate()).isAfter(member1.getLastModifiedDate());
+    }
+
+    @Test
+    public void persistTimeOutsideFlush() throws Exception {
+        // given: 긴 트랜잭션에서 flush 없이 시간 차를 두고 저장 (@PrePersist 는 persist() 시점)
+        Member member1 = memberRepository.save(new Member("member1"));
+        Thread.sleep(5);
+        Member member2 = memberRepository.save(new Member("member2"));
+        em.flush();
+
+        // then: 처음 저장한 시각이 다음 저장에 남지 않음
+        assertThat(member2.getCreatedDate()).isAfter(member1.getCreatedDate());
+        assertThat(member2.getLastModifiedDate()).isEqualTo(member2.getCreatedDate());
+    }
+
+    @Test
+    public void oneSynchronizationPerTransaction() {
+        // given
+        memberRepository.save(new Member("member1"));
+        em.flush();
+        int synchronizations = TransactionSynchronizationManager.getSynchronizations().size();
+
+        // when: flush 마다 시각을 다시 읽어도
+        for (int i = 0; i < 5; i++) {
+            memberRepository.save(new Member("member" + i));
+            em.flush();
+        }
+
+        // then: 시각 캐시의 synchronization 은 다시 등록되지 않음
+        assertThat(TransactionSynchronizationManager.getSynchronizations()).hasSize(synchronizations);
+    }
+
+    @Test
+    public void withoutLastModified() {
+        // when
+        Member member = AuditingContext.withoutLastModified(() -> {
+            Member saved = memberRepository.save(new Member("ingest", 10));
+            em.flush();
+            saved.setUsername("ingest2");
+            em.flush();
+            return saved;
+        });
+
+        // then
+        assertThat(member.getCreatedDate()).isNotNull();
+        assertThat(member.getCreatedBy()).isNotNull();
+        assertThat(member.getLastModifiedDate()).isNull();
+        assertThat(member.getLastModifiedBy()).isNull();
+
+        // 작업 밖에서는 다시 기록
+        member.setUsername("ingest3");
+        em.flush();
+        assertThat(member.getLastModifiedDate()).isAfterOrEqualTo(member.getCreatedDate());
+    }
+
+    @Test
+    public void modifyOnCreate() {
+        Member member = memberRepository.save(new Member("member1"));
+        em.flush();
+
+        LocalDateTime createdDate = member.getCreatedDate();
+        assertThat(member.getLastModifiedDate()).isEqualTo(createdDate);
+        assertThat(member.getLastModifiedBy()).isEqualTo(member.getCreatedBy());
+    }
+}
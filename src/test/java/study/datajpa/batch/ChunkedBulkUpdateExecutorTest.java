@@ -0,0 +1,146 @@
+package study.datajpa.batch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+// chunk 마다 커밋되므로 테스트 트랜잭션(롤백) 없이 실행
+@SpringBootTest
+class ChunkedBulkUpdateExecutorTest {
+
+    // 다른 데이터와 섞이지 않는 나이대 사용
+    private static final int BASE_AGE = 10_000;
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired EntityManagerFactory emf;
+    @Autowired TeamRepository teamRepository;
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired EntityManager em;
+
+    List<Member> members = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 10; i++) {
+            members.add(new Member("chunk" + i, BASE_AGE + i));
+        }
+        memberRepository.saveAllBatched(members, 10);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        members.forEach(member -> memberRepository.deleteById(member.getId()));
+    }
+
+    @Test
+    public void bulkAgePlusInChunks() {
+        // given
+        memberRepository.findById(members.get(9).getId());
+        List<BulkUpdateProgress> progress = new ArrayList<>();
+
+        // when
+        BulkUpdateResult result = memberRepository.bulkAgePlusInChunks(BASE_AGE + 5, 3, null, progress::add);
+
+        // then
+        assertThat(result.getUpdatedRows()).isEqualTo(5);
+        assertThat(progress).hasSize(result.getChunks());
+        assertThat(progress.get(progress.size() - 1).getPercent()).isEqualTo(100.0);
+        assertThat(emf.getCache().contains(Member.class, members.get(9).getId())).isFalse();
+        assertThat(memberRepository.findById(members.get(9).getId()).get().getAge()).isEqualTo(BASE_AGE + 10);
+        assertThat(memberRepository.findById(members.get(0).getId()).get().getAge()).isEqualTo(BASE_AGE);
+    }
+
+    @Test
+    public void resumeAfterFailure() {
+        // given: 두 번째 chunk 커밋 후 중단 (id 가 연속이 아니어도 chunk 는 실제 id 2개씩)
+        List<Long> ids = members.stream().map(Member::getId).sorted().collect(Collectors.toList());
+        AtomicInteger committed = new AtomicInteger();
+        BulkUpdateListener failing = progress -> {
+            if (committed.incrementAndGet() == 2) {
+                throw new IllegalStateException("stop");
+            }
+        };
+        BulkUpdateException exception = catchThrowableOfType(
+                () -> memberRepository.bulkAgePlusInChunks(BASE_AGE, 2, ids.get(0) - 1, failing),
+                BulkUpdateException.class);
+        assertThat(exception.getLastCommittedId()).isEqualTo(ids.get(3));
+        assertThat(exception.getUpdatedRows()).isEqualTo(4);
+
+        // when: 마지막 커밋 id 다음부터 재개
+        BulkUpdateResult result = memberRepository.bulkAgePlusInChunks(
+                BASE_AGE, 2, exception.getLastCommittedId(), BulkUpdateListener.NONE);
+
+        // then: 모든 회원이 정확히 한 번만 +1
+        System.out.println("result = " + result);
+        assertThat(result.getUpdatedRows()).isEqualTo(6);
+        for (Member member : members) {
+            assertThat(memberRepository.findById(member.getId()).get().getAge()).isEqualTo(member.getAge() + 1);
+        }
+    }
+
+    @Test
+    public void sparseIds() {
+        // given: 가운데 회원을 지워서 id 사이에 빈 구간
+        List<Member> removed = new ArrayList<>(members.subList(1, 8));
+        removed.forEach(member -> memberRepository.deleteById(member.getId()));
+        members.removeAll(removed);
+        List<Long> ids = members.stream().map(Member::getId).sorted().collect(Collectors.toList());
+
+        // when
+        List<BulkUpdateProgress> progress = new ArrayList<>();
+        memberRepository.bulkAgePlusInChunks(BASE_AGE, 2, ids.get(0) - 1, progress::add);
+
+        // then: 빈 구간은 chunk 가 되지 않음 (id 2개씩)
+        assertThat(progress.get(0).getChunk().getFrom()).isEqualTo(ids.get(0));
+        assertThat(progress.get(0).getChunk().getTo()).isEqualTo(ids.get(1));
+        assertThat(progress.get(0).getChunkRows()).isEqualTo(2);
+        assertThat(progress.get(1).getChunk().getFrom()).isEqualTo(ids.get(2));
+    }
+
+    @Test
+    public void callerPersistenceContext() {
+        Team team = teamRepository.save(new Team("chunkTeam"));
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                // given: 호출한 쪽 트랜잭션에서 조회한 엔티티
+                Member member = em.find(Member.class, members.get(9).getId());
+                Team managedTeam = em.find(Team.class, team.getId());
+                managedTeam.setName("chunkTeam2");
+
+                // when: flush 되지 않은 변경이 있으면 거부 (변경이 사라지지 않도록)
+                Throwable refused = catchThrowable(() -> memberRepository.bulkAgePlusInChunks(BASE_AGE + 5, 3, null, BulkUpdateListener.NONE));
+                assertThat(refused).hasRootCauseInstanceOf(IllegalStateException.class);
+
+                em.flush();
+                memberRepository.bulkAgePlusInChunks(BASE_AGE + 5, 3, null, BulkUpdateListener.NONE);
+
+                // then: 대상 엔티티만 준영속, 다른 엔티티는 그대로 관리
+                assertThat(em.contains(member)).isFalse();
+                assertThat(em.contains(managedTeam)).isTrue();
+                assertThat(em.find(Member.class, member.getId()).getAge()).isEqualTo(BASE_AGE + 10);
+            });
+
+            assertThat(teamRepository.findById(team.getId()).get().getName()).isEqualTo("chunkTeam2");
+        } finally {
+            teamRepository.deleteById(team.getId());
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package study.datajpa.batch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.config.AsyncConfig;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+// chunk 마다 커밋되므로 테스트 트랜잭션(롤백) 없이 실행
+@SpringBootTest
+class StatelessBatchExecutorTest {
+
+    // 다른 데이터와 섞이지 않는 나이대 사용
+    private static final int BASE_AGE = 60_000;
+
+    @Autowired StatelessBatchExecutor statelessBatchExecutor;
+    @Autowired MemberRepository memberRepository;
+    @Autowired TeamRepository teamRepository;
+    @Autowired EntityManagerFactory emf;
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired EntityManager em;
+    @Autowired @Qualifier(AsyncConfig.REPOSITORY_EXECUTOR) AsyncTaskExecutor repositoryExecutor;
+
+    Team teamA;
+    Team teamB;
+    List<Member> members = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        teamA = teamRepository.save(new Team("statelessA"));
+        teamB = teamRepository.save(new Team("statelessB"));
+        for (int i = 0; i < 20; i++) {
+            members.add(new Member("stateless" + i, BASE_AGE + i, i % 2 == 0 ? teamA : null));
+        }
+        memberRepository.saveAllBatched(members, 20);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        members.forEach(member -> memberRepository.deleteById(member.getId()));
+        teamRepository.deleteById(teamA.getId());
+        teamRepository.deleteById(teamB.getId());
+    }
+
+    private StatelessBatchJob<Member> agePlus() {
+        return new StatelessBatchJob<>(Member.class, member -> {
+            member.setAge(member.getAge() + 1);
+            return member;
+        }).where("e.age between :age and :age + 100").parameter("age", BASE_AGE);
+    }
+
+    @Test
+    public void agePlusInPartitions() {
+        // given
+        memberRepository.findById(members.get(19).getId());
+        List<BulkUpdateProgress> progress = Collections.synchronizedList(new ArrayList<>());
+
+        // when
+        StatelessBatchResult result = statelessBatchExecutor.execute(agePlus().commitInterval(3).partitions(3), progress::add);
+
+        // then
+        System.out.println("result = " + result);
+        assertThat(result.getWrittenRows()).isEqualTo(20);
+        assertThat(result.getChunks()).isEqualTo(progress.size());
+        assertThat(result.getCheckpoints()).hasSize(3);
+        assertThat(progress).allMatch(p -> p.getChunkRows() <= 3);
+        assertThat(emf.getCache().contains(Member.class, members.get(19).getId())).isFalse();
+        for (Member member : members) {
+            Member found = memberRepository.findById(member.getId()).get();
+            assertThat(found.getAge()).isEqualTo(member.getAge() + 1);
+            assertThat(found.getVersion()).isEqualTo(member.getVersion() + 1);
+            assertThat(found.getLastModifiedBy()).isNotEqualTo(member.getLastModifiedBy());
+        }
+    }
+
+    @Test
+    public void partitionsInlineOnRepositoryExecutor() throws Exception {
+        // when: repositoryExecutor 작업 안에서 호출 (@Async repository 메서드)
+        List<String> threads = Collections.synchronizedList(new ArrayList<>());
+        Future<StatelessBatchResult> submitted = repositoryExecutor.submit(() -> statelessBatchExecutor.execute(
+                agePlus().commitInterval(3).partitions(3), progress -> threads.add(Thread.currentThread().getName())));
+        StatelessBatchResult result = submitted.get(30, TimeUnit.SECONDS);
+
+        // then: 자기 executor 를 기다리지 않고 호출한 스레드에서 차례로 실행
+        assertThat(result.getWrittenRows()).isEqualTo(20);
+        assertThat(result.getCheckpoints()).hasSize(3);
+        assertThat(threads).isNotEmpty().containsOnly(threads.get(0));
+    }
+
+    @Test
+    public void changeTeam() {
+        // when: A 팀 회원만 B 팀으로 (팀은 fetch join 으로 같이 읽음)
+        StatelessBatchResult result = statelessBatchExecutor.execute(new StatelessBatchJob<>(Member.class, member -> {
+            if (member.getTeam() == null || !member.getTeam().getName().equals("statelessA")) {
+                return null;
+            }
+            member.setTeam(teamB);
+            return member;
+        }).where("e.age between :age and :age + 100").parameter("age", BASE_AGE).commitInterval(7));
+
+        // then
+        assertThat(result.getReadRows()).isEqualTo(20);
+        assertThat(result.getWrittenRows()).isEqualTo(10);
+        assertThat(memberRepository.findByUsername("stateless0").get(0).getTeam().getId()).isEqualTo(teamB.getId());
+        assertThat(memberRepository.findByUsername("stateless1").get(0).getTeam()).isNull();
+    }
+
+    @Test
+    public void resumeFromCheckpoints() {
+        // given: 두 번째 chunk 커밋 후 중단
+        AtomicInteger committed = new AtomicInteger();
+        BulkUpdateListener failing = progress -> {
+            if (committed.incrementAndGet() == 2) {
+                throw new IllegalStateException("stop");
+            }
+        };
+        StatelessBatchException exception = catchThrowableOfType(
+                () -> statelessBatchExecutor.execute(agePlus().commitInterval(4), failing),
+                StatelessBatchException.class);
+        System.out.println("checkpoints = " + exception.getCheckpoints());
+        assertThat(exception.getWrittenRows()).isEqualTo(8);
+        assertThat(exception.getCheckpoints().get(0).getLastCommittedId())
+                .isEqualTo(members.stream().map(Member::getId).sorted().skip(7).findFirst().get());
+
+        // when: 커밋되지 않은 구간만 재실행
+        StatelessBatchResult result = statelessBatchExecutor.execute(agePlus().resumeFrom(exception.getCheckpoints()));
+
+        // then: 모든 회원이 정확히 한 번만 +1
+        System.out.println("result = " + result);
+        assertThat(result.getWrittenRows() + exception.getWrittenRows()).isEqualTo(20);
+        for (Member member : members) {
+            assertThat(memberRepository.findById(member.getId()).get().getAge()).isEqualTo(member.getAge() + 1);
+        }
+    }
+
+    @Test
+    public void callerPersistenceContext() {
+        transactionTemplate.executeWithoutResult(status -> {
+            // given: 호출한 쪽 트랜잭션에서 조회한 엔티티
+            Member member = em.find(Member.class, members.get(0).getId());
+            Team managedTeam = em.find(Team.class, teamB.getId());
+            managedTeam.setName("statelessB2");
+
+            // when: flush 되지 않은 변경이 있으면 거부 (변경이 사라지지 않도록)
+            assertThat(catchThrowable(() -> statelessBatchExecutor.execute(agePlus())))
+                    .isInstanceOf(IllegalStateException.class);
+
+            em.flush();
+            statelessBatchExecutor.execute(agePlus());
+
+            // then: 대상 엔티티만 준영속, 다른 엔티티는 그대로 관리
+            assertThat(em.contains(member)).isFalse();
+            assertThat(em.contains(managedTeam)).isTrue();
+            assertThat(em.find(Member.class, member.getId()).getAge()).isEqualTo(BASE_AGE + 1);
+        });
+
+        assertThat(teamRepository.findById(teamB.getId()).get().getName()).isEqualTo("statelessB2");
+    }
+}
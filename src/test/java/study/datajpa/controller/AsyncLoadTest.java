@@ -0,0 +1,146 @@
+package study.datajpa.controller;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * Tomcat 스레드(8) 보다 클라이언트(32) 가 많을 때 같은 쿼리 (Member.findMemberDtoById) 를
+ * 동기 (Tomcat 스레드에서 실행, 테스트용 컨트롤러) vs 비동기 (/v3, repositoryExecutor 에서 실행) 로 처리량, p99 비교
+ * 부하 테스트라 기본 test 에서는 제외: ./gradlew loadTest -Dload.clients=200 -Dload.requests=20000
+ * CPU 가 적으면 (1 core) 두 경로 모두 CPU 에서 막혀서 차이가 측정 편차 안에 들어가므로 결과는 출력만 함
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"server.tomcat.threads.max=8", "decorator.datasource.p6spy.enable-logging=false",
+                "logging.level.org.hibernate.SQL=warn"})
+@Import(AsyncLoadTest.SyncController.class)
+class AsyncLoadTest {
+
+    private static final int CLIENTS = Integer.getInteger("load.clients", 32);
+    private static final int REQUESTS = Integer.getInteger("load.requests", 1000);
+
+    @LocalServerPort int port;
+    @Autowired MemberRepository memberRepository;
+
+    HttpClient client = HttpClient.newHttpClient();
+
+    // /v3 와 같은 named query 를 Tomcat 스레드에서 실행
+    @RestController
+    static class SyncController {
+
+        private final EntityManager em;
+
+        SyncController(EntityManager em) {
+            this.em = em;
+        }
+
+        @Transactional(readOnly = true)
+        @GetMapping("/load/members/{id}")
+        public String findMember(@PathVariable("id") Long id) {
+            return em.createNamedQuery("Member.findMemberDtoById", MemberDto.class)
+                    .setParameter("id", id)
+                    .getSingleResult()
+                    .getUsername();
+        }
+    }
+
+    @Test
+    public void syncVsAsync() throws Exception {
+        Long id = memberRepository.save(new Member("load", 10)).getId();
+        try {
+            run("/load/members/" + id, REQUESTS / 5);    // warm up
+            run("/v3/members/" + id, REQUESTS / 5);
+
+            Result sync = run("/load/members/" + id, REQUESTS);
+            Result async = run("/v3/members/" + id, REQUESTS);
+
+            System.out.println("sync  = " + sync);
+            System.out.println("async = " + async);
+            assertThat(sync.errors).isZero();
+            assertThat(async.errors).isZero();
+        } finally {
+            memberRepository.deleteById(id);
+        }
+    }
+
+    private Result run(String path, int requests) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).build();
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>(requests));
+        AtomicInteger remaining = new AtomicInteger(requests);
+        AtomicInteger errors = new AtomicInteger();
+
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        long start = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < CLIENTS; i++) {
+            futures.add(clients.submit(() -> {
+                while (remaining.getAndDecrement() > 0) {
+                    long begin = System.nanoTime();
+                    try {
+                        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                        if (response.statusCode() != 200) {
+                            errors.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    }
+                    latencies.add(System.nanoTime() - begin);
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsed = System.nanoTime() - start;
+        clients.shutdown();
+
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        long p99 = sorted.get((int) Math.ceil(sorted.size() * 0.99) - 1);
+        return new Result(requests * 1_000_000_000L / elapsed, p99 / 1_000_000.0, errors.get());
+    }
+
+    static class Result {
+        final long throughput;
+        final double p99Millis;
+        final int errors;
+
+        Result(long throughput, double p99Millis, int errors) {
+            this.throughput = throughput;
+            this.p99Millis = p99Millis;
+            this.errors = errors;
+        }
+
+        @Override
+        public String toString() {
+            return "throughput=" + throughput + " req/s, p99=" + p99Millis + " ms, errors=" + errors;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package study.datajpa.datasource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import javax.servlet.http.Cookie;
+import javax.sql.DataSource;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/*
+ * 쓰기 요청이 내려준 클라이언트 토큰(쿠키) 으로 다음 요청이 다른 스레드에서 처리되어도 primary 에서 읽는지 확인
+ * 애플리케이션에는 쓰기 API 가 없으므로 테스트용 컨트롤러로 저장
+ * 읽기도 2차 캐시를 타지 않는 쿼리 (findById 는 Member 가 2차 캐시에 있으면 커넥션을 쓰지 않음)
+ */
+@SpringBootTest(properties = {
+        "datajpa.datasource.replica.url=${spring.datasource.url};IFEXISTS=TRUE",
+        "datajpa.datasource.replica.lag-tolerance=1m"})
+@AutoConfigureMockMvc
+@Import(ClientTokenRoutingTest.WriteController.class)
+class ClientTokenRoutingTest {
+
+    @Autowired MockMvc mockMvc;
+    @Autowired MemberRepository memberRepository;
+    @Autowired DataSource dataSource;
+
+    @RestController
+    static class WriteController {
+
+        private final MemberRepository memberRepository;
+
+        WriteController(MemberRepository memberRepository) {
+            this.memberRepository = memberRepository;
+        }
+
+        @PostMapping("/test/members")
+        public Long save(@RequestParam("username") String username) {
+            return memberRepository.save(new Member(username, 10)).getId();
+        }
+
+        @GetMapping("/test/members")
+        public Long find(@RequestParam("username") String username) {
+            return memberRepository.findReadOnlyByUsername(username).getId();
+        }
+    }
+
+    @Test
+    public void readYourWritesAcrossThreads() throws Exception {
+        ReplicaRoutingDataSource routing = dataSource.unwrap(ReplicaRoutingDataSource.class);
+
+        // when: 쓰기 요청 -> 토큰 쿠키를 내려줌
+        Cookie token = mockMvc.perform(post("/test/members").param("username", "client-token"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getCookie(ClientTokenInterceptor.COOKIE);
+        assertThat(token).isNotNull();
+        Long id = memberRepository.findReadOnlyByUsername("client-token").getId();
+
+        ExecutorService other = Executors.newSingleThreadExecutor();
+        try {
+            // then: 같은 클라이언트의 읽기는 다른 스레드에서도 primary
+            assertThat(route(other, routing, read().cookie(token)))
+                    .isEqualTo(ReplicaRoutingDataSource.Route.PRIMARY);
+            // 다른 클라이언트의 읽기는 replica
+            assertThat(route(other, routing, read().header(ClientTokenInterceptor.HEADER, "other")))
+                    .isEqualTo(ReplicaRoutingDataSource.Route.REPLICA);
+            // 토큰이 없는 읽기는 누구의 쓰기인지 모르므로 lagTolerance 동안 primary
+            assertThat(route(other, routing, read()))
+                    .isEqualTo(ReplicaRoutingDataSource.Route.PRIMARY);
+        } finally {
+            other.shutdown();
+            memberRepository.deleteById(id);
+        }
+    }
+
+    private MockHttpServletRequestBuilder read() {
+        return get("/test/members").param("username", "client-token");
+    }
+
+    private ReplicaRoutingDataSource.Route route(ExecutorService thread, ReplicaRoutingDataSource routing,
+                                                 RequestBuilder request) throws Exception {
+        return thread.submit(() -> {
+            long replica = routing.getReplicaConnections();
+            long primary = routing.getPrimaryConnections();
+            mockMvc.perform(request).andExpect(status().isOk());
+            assertThat(routing.getReplicaConnections() - replica + routing.getPrimaryConnections() - primary).isEqualTo(1);
+            return routing.getReplicaConnections() > replica
+                    ? ReplicaRoutingDataSource.Route.REPLICA : ReplicaRoutingDataSource.Route.PRIMARY;
+        }).get();
+    }
+}
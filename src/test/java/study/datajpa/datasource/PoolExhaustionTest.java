@@ -0,0 +1,122 @@
+package study.datajpa.datasource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/*
+ * 커넥션 2개짜리 풀을 미리 다 잡아두고 /v1/members/{id} 를 동시에 요청
+ * -> 요청은 connection-timeout 후 실패, PoolSizeAdvisor 는 UNDERSIZED 로 판단
+ * 판단은 테스트에서 직접 호출 (advice-interval 은 길게)
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.hikari.maximum-pool-size=2",
+        "spring.datasource.hikari.minimum-idle=2",
+        "spring.datasource.hikari.connection-timeout=300",
+        "datajpa.datasource.pool.sample-interval=20ms",
+        "datajpa.datasource.pool.advice-interval=1h",
+        "datajpa.datasource.pool.statement-statistics=true",
+        "datajpa.query-budget.enabled=false",
+        "decorator.datasource.p6spy.enable-logging=false"})
+@AutoConfigureMockMvc
+class PoolExhaustionTest {
+
+    private static final int CLIENTS = 6;
+
+    @Autowired MockMvc mockMvc;
+    @Autowired MemberRepository memberRepository;
+    @Autowired DataSource dataSource;
+    @Autowired PoolSizeAdvisor advisor;
+    @Autowired PoolEndpoint poolEndpoint;
+    @Autowired MeterRegistry registry;
+
+    @Test
+    public void poolExhaustion() throws Exception {
+        Long id = memberRepository.save(new Member("pool", 10)).getId();
+        advisor.advise();   // 지금까지 구간 초기화
+
+        AtomicInteger failures = new AtomicInteger();
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        List<Connection> held = new ArrayList<>();
+        try {
+            // 풀의 커넥션을 모두 점유 (긴 트랜잭션, 커넥션 누수와 같은 상황)
+            held.add(dataSource.getConnection());
+            held.add(dataSource.getConnection());
+
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < CLIENTS; i++) {
+                futures.add(clients.submit(() -> {
+                    try {
+                        int status = mockMvc.perform(get("/v1/members/" + id)).andReturn().getResponse().getStatus();
+                        if (status != 200) {
+                            failures.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        failures.incrementAndGet();     // CannotCreateTransactionException
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            for (Connection connection : held) {
+                connection.close();
+            }
+            clients.shutdown();
+        }
+
+        List<PoolAdvice> advice = advisor.advise();
+        System.out.println("advice = " + advice);
+
+        assertThat(failures.get()).isEqualTo(CLIENTS);
+        assertThat(advice).hasSize(1);
+        PoolAdvice primary = advice.get(0);
+        assertThat(primary.getPool()).isEqualTo("primary");
+        assertThat(primary.getVerdict()).isEqualTo(PoolAdvice.Verdict.UNDERSIZED);
+        assertThat(primary.getTimeouts()).isEqualTo(CLIENTS);
+        assertThat(primary.getPeakConcurrentRequests()).isEqualTo(CLIENTS);
+        assertThat(primary.getPeakPending()).isPositive();
+        assertThat(primary.getSuggestedPoolSize()).isEqualTo(CLIENTS);
+
+        // 커넥션 획득 대기 시간 분포 (timeout 난 요청은 connection-timeout 근처)
+        PoolEndpoint.PoolStats stats = poolEndpoint.pool().getPools().get(0);
+        System.out.println("acquireHistogram = " + stats.getAcquireHistogram());
+        assertThat(stats.getAcquireHistogram()).containsKey("<= 500.0ms");
+        assertThat(registry.get(PoolSizeAdvisor.TIMEOUTS).tag("pool", "primary").counter().count()).isGreaterThanOrEqualTo(CLIENTS);
+
+        memberRepository.deleteById(id);
+    }
+
+    @Test
+    public void statementCache() {
+        StatementCacheMetrics.Snapshot before = poolEndpoint.pool().getStatements();
+        memberRepository.findMemberCustom();
+        memberRepository.findMemberCustom();
+        StatementCacheMetrics.Snapshot after = poolEndpoint.pool().getStatements();
+
+        assertThat(after.isEnabled()).isTrue();
+        assertThat(after.getPlanCacheHits()).isGreaterThan(before.getPlanCacheHits());
+        assertThat(after.getPreparedStatements()).isGreaterThanOrEqualTo(before.getPreparedStatements() + 2);
+        assertThat(registry.get(StatementCacheMetrics.PLAN_CACHE_HIT_RATIO).gauge().value()).isBetween(0.0, 1.0);
+    }
+}
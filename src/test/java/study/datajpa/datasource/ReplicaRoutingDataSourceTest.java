@@ -0,0 +1,134 @@
+package study.datajpa.datasource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// H2 인스턴스 두 개 (primary, replica) 로 라우팅 확인
+class ReplicaRoutingDataSourceTest {
+
+    @Test
+    public void routeByReadOnly() {
+        ReplicaRoutingDataSource routing = routing("jdbc:h2:mem:replica-routing;DB_CLOSE_DELAY=-1", Duration.ZERO);
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+
+        assertThat(currentUrl(dataSource, true)).contains("replica-routing");
+        assertThat(currentUrl(dataSource, false)).contains("primary");
+    }
+
+    @Test
+    public void primaryWithinLagTolerance() {
+        ReplicaRoutingDataSource routing = routing("jdbc:h2:mem:replica-lag;DB_CLOSE_DELAY=-1", Duration.ofMinutes(1));
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        assertThat(currentUrl(dataSource, true)).contains("replica-lag");
+
+        // when: 쓰기 커밋 직후
+        currentUrl(dataSource, false);
+
+        // then
+        assertThat(currentUrl(dataSource, true)).contains("primary");
+    }
+
+    @Test
+    public void readsWithinLagToleranceAreNotWrites() throws Exception {
+        Duration lagTolerance = Duration.ofMillis(300);
+        ReplicaRoutingDataSource routing = routing("jdbc:h2:mem:replica-reads;DB_CLOSE_DELAY=-1", lagTolerance);
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+
+        // when: 쓰기 커밋 후 lagTolerance 보다 짧은 간격으로 계속 읽기
+        currentUrl(dataSource, false);
+        long deadline = System.nanoTime() + lagTolerance.multipliedBy(2).toNanos();
+        while (System.nanoTime() - deadline < 0) {
+            currentUrl(dataSource, true);
+            Thread.sleep(50);
+        }
+
+        // then: primary 로 간 읽기가 쓰기 시각을 갱신하지 않으므로 lagTolerance 가 지나면 replica
+        assertThat(currentUrl(dataSource, true)).contains("replica-reads");
+    }
+
+    @Test
+    public void otherReaderUsesReplicaAfterWrite() throws Exception {
+        ReplicaRoutingDataSource routing = routing("jdbc:h2:mem:replica-other;DB_CLOSE_DELAY=-1", Duration.ofMinutes(1));
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+
+        // when: 이 스레드가 쓰기 커밋
+        currentUrl(dataSource, false);
+
+        // then: 다른 스레드 (다른 writer) 의 읽기는 그대로 replica, 쓴 스레드는 primary
+        ExecutorService other = Executors.newSingleThreadExecutor();
+        try {
+            assertThat(other.submit(() -> currentUrl(dataSource, true)).get()).contains("replica-other");
+        } finally {
+            other.shutdown();
+        }
+        assertThat(currentUrl(dataSource, true)).contains("primary");
+    }
+
+    @Test
+    public void readerWithoutKeyUsesPrimaryAfterAnyWrite() {
+        AtomicReference<Object> writer = new AtomicReference<>();
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(h2("jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1"),
+                h2("jdbc:h2:mem:replica-nokey;DB_CLOSE_DELAY=-1"), Duration.ofMinutes(1), Duration.ofMinutes(1), writer::get);
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        assertThat(currentUrl(dataSource, true)).contains("replica-nokey");
+
+        // when: 키가 있는 writer 가 쓰기 커밋
+        writer.set("client-a");
+        currentUrl(dataSource, false);
+
+        // then: 다른 키의 읽기는 replica, 키가 없는 읽기는 어느 writer 의 쓰기인지 모르므로 primary
+        writer.set("client-b");
+        assertThat(currentUrl(dataSource, true)).contains("replica-nokey");
+        writer.set(null);
+        assertThat(currentUrl(dataSource, true)).contains("primary");
+    }
+
+    @Test
+    public void fallbackWhenReplicaUnavailable() {
+        ReplicaRoutingDataSource routing = routing("jdbc:h2:mem:replica-down;IFEXISTS=TRUE", Duration.ZERO);
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+
+        assertThat(currentUrl(dataSource, true)).contains("primary");
+        assertThat(currentUrl(dataSource, true)).contains("primary");
+        assertThat(routing.getFallbacks()).isEqualTo(1);   // retryInterval 동안은 replica 를 다시 시도하지 않음
+    }
+
+    private ReplicaRoutingDataSource routing(String replicaUrl, Duration lagTolerance) {
+        return new ReplicaRoutingDataSource(h2("jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1"), h2(replicaUrl),
+                lagTolerance, Duration.ofMinutes(1));
+    }
+
+    private DataSource h2(String url) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL(url);
+        dataSource.setUser("sa");
+        return dataSource;
+    }
+
+    private String currentUrl(DataSource dataSource, boolean readOnly) {
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transaction.setReadOnly(readOnly);
+        return transaction.execute(status -> {
+            Connection connection = DataSourceUtils.getConnection(dataSource);
+            try {
+                return connection.getMetaData().getURL();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+}
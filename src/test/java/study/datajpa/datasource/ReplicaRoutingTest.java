@@ -0,0 +1,64 @@
+package study.datajpa.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.lock.LockExceptionOverride;
+import study.datajpa.repository.MemberRepository;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// replica 는 같은 DB 에 붙는 별도 커넥션 풀 (H2 는 복제가 없으므로 데이터를 같이 보기 위해)
+@SpringBootTest(properties = {
+        "datajpa.datasource.replica.url=${spring.datasource.url};IFEXISTS=TRUE",
+        "datajpa.datasource.replica.lag-tolerance=0s"})
+class ReplicaRoutingTest {
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired DataSource dataSource;
+    @Autowired TransactionTemplate transactionTemplate;
+
+    @Test
+    public void routing() throws Exception {
+        ReplicaRoutingDataSource routing = dataSource.unwrap(ReplicaRoutingDataSource.class);
+        assertThat(routing.getPools()).extracting(HikariDataSource::getPoolName).containsExactly("primary", "replica");
+        // primary 에도 spring.datasource.hikari 설정이 적용됨
+        HikariDataSource primaryPool = routing.getPools().get(0);
+        assertThat(primaryPool.getConnectionTimeout()).isEqualTo(5000);
+        assertThat(primaryPool.getMinimumIdle()).isEqualTo(10);
+        assertThat(primaryPool.getExceptionOverrideClassName()).isEqualTo(LockExceptionOverride.class.getName());
+        Member member = memberRepository.save(new Member("replica", 10));
+        try {
+            // 조회 메서드 (readOnly 트랜잭션) -> replica
+            long replica = routing.getReplicaConnections();
+            long primary = routing.getPrimaryConnections();
+            assertThat(memberRepository.findReadOnlyByUsername("replica").getId()).isEqualTo(member.getId());
+            assertThat(routing.getReplicaConnections()).isEqualTo(replica + 1);
+            assertThat(routing.getPrimaryConnections()).isEqualTo(primary);
+
+            // @Transactional(readOnly = true) -> replica
+            TransactionTemplate readOnly = new TransactionTemplate(transactionTemplate.getTransactionManager());
+            readOnly.setReadOnly(true);
+            replica = routing.getReplicaConnections();
+            readOnly.executeWithoutResult(status -> memberRepository.findByUsername("replica"));
+            assertThat(routing.getReplicaConnections()).isEqualTo(replica + 1);
+
+            // 비관적 락 -> primary
+            replica = routing.getReplicaConnections();
+            assertThat(memberRepository.findLockByUsername("replica")).hasSize(1);
+            assertThat(routing.getReplicaConnections()).isEqualTo(replica);
+
+            // readOnly 가 아닌 트랜잭션 안의 조회 -> primary
+            replica = routing.getReplicaConnections();
+            transactionTemplate.executeWithoutResult(status -> memberRepository.findByUsername("replica"));
+            assertThat(routing.getReplicaConnections()).isEqualTo(replica);
+        } finally {
+            memberRepository.delete(member);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package study.datajpa.entity;
+
+import org.hibernate.engine.spi.ManagedEntity;
+import org.hibernate.engine.spi.PersistentAttributeInterceptable;
+import org.hibernate.engine.spi.SelfDirtinessTracker;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+// build.gradle 의 hibernate { enhance } 가 실제로 적용됐는지 (Gradle 이 hibernate.enhance 를 넘겨줄 때만 확인)
+class EntityEnhancementTest {
+
+    @Test
+    public void enhancedByBuild() {
+        String property = System.getProperty("hibernate.enhance");
+        assumeTrue(property != null, "hibernate.enhance is set by the Gradle test task");
+        boolean expected = Boolean.parseBoolean(property);
+
+        for (Class<?> entity : new Class<?>[]{Member.class, Team.class, Item.class}) {
+            assertThat(ManagedEntity.class.isAssignableFrom(entity)).as(entity.getSimpleName()).isEqualTo(expected);
+            assertThat(SelfDirtinessTracker.class.isAssignableFrom(entity)).as(entity.getSimpleName()).isEqualTo(expected);
+            assertThat(PersistentAttributeInterceptable.class.isAssignableFrom(entity)).as(entity.getSimpleName()).isEqualTo(expected);
+        }
+    }
+}
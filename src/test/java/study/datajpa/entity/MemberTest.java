@@ -10,6 +10,8 @@ import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 @SpringBootTest
 @Transactional
 class MemberTest {
@@ -75,5 +77,32 @@ class MemberTest {
         
     }
 
+    @Test
+    public void changeTeam() {
+        // given
+        Team team = new Team("changeTeam");
+        em.persist(team);
+        Member member = new Member("changeTeamMember", 10);
+        em.persist(member);
+        em.flush();
+        em.clear();
+
+        Team findTeam = em.find(Team.class, team.getId());
+        findTeam.getMembers().size();     // 로딩된 컬렉션 -> 바이트코드 향상 시 team 대입에서 추가됨
+        Member findMember = em.find(Member.class, member.getId());
+
+        // when
+        findMember.changeTeam(findTeam);
+        findMember.changeTeam(findTeam);
+
+        // then
+        assertThat(findTeam.getMembers()).containsOnlyOnce(findMember);
+        em.flush();
+        em.clear();
+        assertThat(em.find(Team.class, team.getId()).getMembers())
+                .extracting(Member::getUsername)
+                .containsExactly("changeTeamMember");
+    }
+
 
 }
\ No newline at end of file
@@ -0,0 +1,108 @@
+package study.datajpa.lock;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * "다음 N 명 가져가기" 작업 큐 부하 테스트
+ * worker 여러 개가 claimNext 로 회원을 잠가서 가져가고, 처리(age + 1) 후 커밋
+ * SKIP LOCKED 를 지원하는 DB 면 worker 끼리 기다리지 않음 (H2 는 대기하는 방식으로 대신 실행됨)
+ */
+@SpringBootTest(properties = "decorator.datasource.p6spy.enable-logging=false")
+class ClaimQueueLoadTest {
+
+    private static final int QUEUED = 30_000;
+    private static final int MEMBERS = 500;
+    private static final int WORKERS = 4;
+    private static final int CLAIM_SIZE = 10;
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    List<Member> members = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < MEMBERS; i++) {
+            members.add(new Member("queue" + i, QUEUED));
+        }
+        memberRepository.saveAllBatched(members, 100);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        memberRepository.deleteInBatch(members);
+    }
+
+    @Test
+    public void claimNextSkipLocked() throws Exception {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        AtomicInteger processed = new AtomicInteger();
+        AtomicInteger stale = new AtomicInteger();
+        AtomicInteger lockFailures = new AtomicInteger();
+
+        ExecutorService workers = Executors.newFixedThreadPool(WORKERS);
+        long start = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < WORKERS; i++) {
+            futures.add(workers.submit(() -> {
+                while (true) {
+                    Integer claimed;
+                    try {
+                        claimed = transaction.execute(status -> {
+                            List<Member> batch = memberRepository.claimNext(QUEUED, CLAIM_SIZE, LockWait.skipLocked());
+                            for (Member member : batch) {
+                                // 락을 기다린 사이에 다른 worker 가 처리했을 수 있음
+                                if (member.getAge() != QUEUED) {
+                                    stale.incrementAndGet();
+                                    continue;
+                                }
+                                member.setAge(QUEUED + 1);
+                                processed.incrementAndGet();
+                            }
+                            return batch.size();
+                        });
+                    } catch (PessimisticLockingFailureException e) {
+                        lockFailures.incrementAndGet();
+                        continue;
+                    }
+                    if (claimed == null || claimed == 0) {
+                        return;
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        workers.shutdown();
+
+        System.out.println("workers = " + WORKERS + ", processed = " + processed.get()
+                + ", stale = " + stale.get() + ", lockFailures = " + lockFailures.get()
+                + ", elapsed = " + elapsedMillis + "ms"
+                + ", throughput = " + processed.get() * 1000L / elapsedMillis + " members/s");
+
+        assertThat(processed.get()).isEqualTo(MEMBERS);
+        assertThat(memberRepository.countByAge(QUEUED)).isZero();
+        assertThat(memberRepository.countByAge(QUEUED + 1)).isEqualTo(MEMBERS);
+    }
+}
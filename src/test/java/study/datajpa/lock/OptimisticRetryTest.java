@@ -0,0 +1,123 @@
+package study.datajpa.lock;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// 커밋 시점에 버전을 검사하므로 테스트 트랜잭션 없이 실행
+@SpringBootTest
+class OptimisticRetryTest {
+
+    private static final int AGE = 40_000;
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired TeamRepository teamRepository;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired MeterRegistry registry;
+
+    Member member;
+
+    @BeforeEach
+    void setUp() {
+        member = memberRepository.save(new Member("optimistic", AGE));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        memberRepository.deleteById(member.getId());
+    }
+
+    @Test
+    public void versionIncrements() {
+        Member updated = memberRepository.updateWithRetry(member.getId(), m -> m.setAge(m.getAge() + 1));
+
+        assertThat(updated.getVersion()).isEqualTo(member.getVersion() + 1);
+        assertThat(memberRepository.findById(member.getId()).get().getAge()).isEqualTo(AGE + 1);
+    }
+
+    @Test
+    public void retryOnConflict() {
+        double retried = conflicts("RETRIED");
+        AtomicInteger attempts = new AtomicInteger();
+
+        // when: 첫 번째 시도 중에 다른 트랜잭션이 먼저 커밋
+        memberRepository.updateWithRetry(member.getId(), m -> {
+            if (attempts.incrementAndGet() == 1) {
+                updateConcurrently();
+            }
+            m.setAge(m.getAge() + 1);
+        });
+
+        // then: 두 번째 시도는 다른 트랜잭션의 변경 위에 적용됨 (lost update 없음)
+        assertThat(attempts.get()).isEqualTo(2);
+        assertThat(memberRepository.findById(member.getId()).get().getAge()).isEqualTo(AGE + 2);
+        assertThat(conflicts("RETRIED")).isEqualTo(retried + 1);
+    }
+
+    @Test
+    public void retryExhausted() {
+        double exhausted = conflicts("EXHAUSTED");
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThatThrownBy(() -> memberRepository.updateWithRetry(member.getId(), m -> {
+            attempts.incrementAndGet();
+            updateConcurrently();
+            m.setAge(m.getAge() + 1);
+        })).isInstanceOf(OptimisticLockingFailureException.class);
+
+        assertThat(attempts.get()).isEqualTo(5);
+        assertThat(conflicts("EXHAUSTED")).isEqualTo(exhausted + 1);
+    }
+
+    @Test
+    public void bulkUpdateIncrementsVersion() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> memberRepository.bulkAgePlus(AGE));
+
+        Member updated = memberRepository.findById(member.getId()).get();
+        assertThat(updated.getAge()).isEqualTo(AGE + 1);
+        assertThat(updated.getVersion()).isEqualTo(member.getVersion() + 1);
+    }
+
+    @Test
+    public void joinTeamDoesNotIncrementTeamVersion() {
+        Team team = teamRepository.save(new Team("optimisticTeam"));
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                    memberRepository.findById(member.getId()).get()
+                            .changeTeam(teamRepository.findById(team.getId()).get()));
+
+            assertThat(teamRepository.findById(team.getId()).get().getVersion()).isEqualTo(team.getVersion());
+        } finally {
+            memberRepository.updateWithRetry(member.getId(), m -> m.setTeam(null));
+            teamRepository.deleteById(team.getId());
+        }
+    }
+
+    // 다른 스레드(트랜잭션)에서 age + 1 후 커밋
+    private void updateConcurrently() {
+        CompletableFuture.runAsync(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Member other = memberRepository.findById(member.getId()).get();
+            other.setAge(other.getAge() + 1);
+        })).join();
+    }
+
+    private double conflicts(String outcome) {
+        return registry.counter(LockMetrics.OPTIMISTIC_CONFLICTS, "entity", "Member", "outcome", outcome).count();
+    }
+}
@@ -0,0 +1,125 @@
+package study.datajpa.lock;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// 다른 트랜잭션이 락을 잡고 있어야 하므로 테스트 트랜잭션 없이 실행
+@SpringBootTest
+class PessimisticLockTest {
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired MeterRegistry registry;
+
+    Member member;
+
+    @BeforeEach
+    void setUp() {
+        member = memberRepository.save(new Member("lockTarget", 20_000));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        memberRepository.deleteById(member.getId());
+    }
+
+    @Test
+    public void lockAcquired() {
+        Timer acquired = waitTimer(LockWait.Mode.WAIT, LockOutcome.ACQUIRED);
+        long count = acquired.count();
+
+        assertThat(memberRepository.findLockByUsername("lockTarget")).hasSize(1);
+
+        assertThat(acquired.count()).isEqualTo(count + 1);
+    }
+
+    @Test
+    public void lockTimeout() throws Exception {
+        double timeouts = timeouts(LockWait.Mode.WAIT);
+
+        long elapsed = whileLocked(() -> assertThatThrownBy(() ->
+                memberRepository.findLockByUsername("lockTarget", LockWait.wait(Duration.ofMillis(200))))
+                .isInstanceOf(PessimisticLockingFailureException.class));
+
+        System.out.println("lock timeout after " + elapsed + "ms");
+        assertThat(elapsed).isLessThan(1500);
+        assertThat(timeouts(LockWait.Mode.WAIT)).isEqualTo(timeouts + 1);
+        assertThat(waitTimer(LockWait.Mode.WAIT, LockOutcome.TIMEOUT).max(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(200);
+    }
+
+    @Test
+    public void noWait() throws Exception {
+        double timeouts = timeouts(LockWait.Mode.NOWAIT);
+
+        long elapsed = whileLocked(() -> assertThatThrownBy(() ->
+                memberRepository.findLockByUsername("lockTarget", LockWait.noWait()))
+                .isInstanceOf(PessimisticLockingFailureException.class));
+
+        System.out.println("nowait failed after " + elapsed + "ms");
+        assertThat(elapsed).isLessThan(500);
+        assertThat(timeouts(LockWait.Mode.NOWAIT)).isEqualTo(timeouts + 1);
+    }
+
+    @Test
+    public void lockOutcome() {
+        assertThat(LockOutcome.of(new javax.persistence.LockTimeoutException())).isEqualTo(LockOutcome.TIMEOUT);
+        assertThat(LockOutcome.of(new RuntimeException(new java.sql.SQLException("deadlock", "40001"))))
+                .isEqualTo(LockOutcome.DEADLOCK);
+        assertThat(LockOutcome.of(new RuntimeException(new java.sql.SQLException("lock timeout", "HYT00"))))
+                .isEqualTo(LockOutcome.TIMEOUT);
+        assertThat(LockOutcome.of(new IllegalStateException())).isEqualTo(LockOutcome.ERROR);
+    }
+
+    // 다른 스레드가 lockTarget 을 잠근 상태에서 action 을 실행하고 걸린 시간(ms)을 반환
+    private long whileLocked(Runnable action) throws Exception {
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> holder = CompletableFuture.runAsync(() ->
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                    memberRepository.findLockByUsername("lockTarget");
+                    locked.countDown();
+                    try {
+                        release.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }));
+        try {
+            assertThat(locked.await(5, TimeUnit.SECONDS)).isTrue();
+            long start = System.nanoTime();
+            action.run();
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        } finally {
+            release.countDown();
+            holder.get(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private Timer waitTimer(LockWait.Mode mode, LockOutcome outcome) {
+        return Timer.builder(LockMetrics.WAIT)
+                .tags("entity", "Member", "mode", mode.name(), "outcome", outcome.name())
+                .register(registry);
+    }
+
+    private double timeouts(LockWait.Mode mode) {
+        return registry.counter(LockMetrics.TIMEOUTS, "entity", "Member", "mode", mode.name()).count();
+    }
+}
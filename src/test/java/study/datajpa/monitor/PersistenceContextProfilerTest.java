@@ -0,0 +1,138 @@
+package study.datajpa.monitor;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SelfDirtinessTracker;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// 측정값을 Hibernate Statistics 와 비교하므로 통계 수집을 켬 (기본은 꺼짐)
+@SpringBootTest(properties = "datajpa.datasource.pool.statement-statistics=true")
+@AutoConfigureMockMvc
+class PersistenceContextProfilerTest {
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired EntityManager em;
+    @Autowired MeterRegistry registry;
+    @Autowired PersistenceContextEndpoint endpoint;
+    @Autowired MockMvc mockMvc;
+
+    // em.flush() / em.clear() 전후로 무엇이 로딩되고 dirty check 되는지 검증
+    @Test
+    @Transactional
+    public void scope() {
+        // given
+        Team team = new Team("profilerTeam");
+        em.persist(team);
+        em.persist(new Member("profilerA", 10, team));
+        em.persist(new Member("profilerB", 20, team));
+        em.persist(new Member("profilerC", 30, team));
+        em.flush();
+        em.clear();
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        long entityLoads = statistics.getEntityLoadCount();
+        long entityUpdates = statistics.getEntityUpdateCount();
+
+        // when
+        PersistenceContextScope scope;
+        long statisticsLoads;
+        String[] trackedChanges = null;
+        try (PersistenceContextScope opened = PersistenceContextCounter.open("scope")) {
+            scope = opened;
+            List<Member> members = em.createQuery("select m from Member m where m.team.name = :name order by m.username", Member.class)
+                    .setParameter("name", "profilerTeam")
+                    .getResultList();
+            Team proxy = members.get(0).getTeam();
+            proxy.getName();                    // 프록시 초기화
+            proxy.getMembers().size();          // 컬렉션 초기화 (회원은 이미 영속 상태)
+            members.get(0).setUsername("profilerA2");
+            if (members.get(0) instanceof SelfDirtinessTracker) {
+                trackedChanges = ((SelfDirtinessTracker) members.get(0)).$$_hibernate_getDirtyAttributes();
+            }
+            em.flush();
+            statisticsLoads = statistics.getEntityLoadCount() - entityLoads;
+        }
+        em.createQuery("select m from Member m", Member.class).getResultList();     // scope 가 닫힌 뒤
+
+        // then
+        System.out.println("scope = " + scope);
+        assertThat(scope.getEntityLoads()).isEqualTo(4);
+        assertThat(scope.getEntityLoads(Member.class)).isEqualTo(3);
+        assertThat(scope.getEntityLoads(Team.class)).isEqualTo(1);
+        assertThat(scope.getCollectionFetches()).isEqualTo(1);
+        assertThat(scope.getCollectionFetches(Team.class, "members")).isEqualTo(1);
+        assertThat(scope.getFlushes()).isEqualTo(1);
+        assertThat(scope.getFlushedEntities()).isEqualTo(4);
+        if (team instanceof SelfDirtinessTracker) {
+            // 바이트코드 향상: 변경된 속성을 엔티티가 직접 기록하므로 스냅샷 비교 없음
+            assertThat(scope.getDirtyChecks()).isZero();
+            assertThat(trackedChanges).containsExactly("username");
+        } else {
+            // 변경된 회원은 @PreUpdate(auditing) 가 값을 바꾸므로 한 번 더 비교
+            assertThat(scope.getDirtyChecks()).isEqualTo(5);
+            assertThat(scope.getDirtyEntities()).isEqualTo(2);
+            assertThat(scope.getDirtyCheckNanos()).isPositive();
+        }
+        assertThat(scope.getMaxManagedEntities()).isEqualTo(4);
+        // 어느 방식이든 변경된 회원 하나만 update
+        assertThat(statistics.getEntityUpdateCount() - entityUpdates).isEqualTo(1);
+        assertThat(em.createQuery("select count(m) from Member m where m.username = 'profilerA2'", Long.class)
+                .getSingleResult()).isEqualTo(1);
+        // Hibernate Statistics 와 같은 값
+        assertThat(statisticsLoads).isEqualTo(scope.getEntityLoads());
+    }
+
+    @Test
+    public void transaction() {
+        memberRepository.save(new Member("profilerTx", 10));
+        DistributionSummary loads = registry.find(PersistenceContextProfiler.ENTITY_LOADS)
+                .tags("kind", "transaction", "name", "SimpleJpaRepository.findAll").summary();
+        long count = loads == null ? 0 : loads.count();
+
+        List<Member> members = memberRepository.findAll();
+
+        loads = registry.get(PersistenceContextProfiler.ENTITY_LOADS)
+                .tags("kind", "transaction", "name", "SimpleJpaRepository.findAll").summary();
+        assertThat(loads.count()).isEqualTo(count + 1);
+        assertThat(loads.max()).isGreaterThanOrEqualTo(members.size());
+
+        PersistenceContextEndpoint.UnitStats save = endpoint.persistenceContext().getTransactions().stream()
+                .filter(stats -> stats.getName().equals("SimpleJpaRepository.save"))
+                .findFirst().get();
+        System.out.println("save = " + save.getMeanFlushes() + " flushes, " + save.getMeanDirtyChecks() + " dirty checks");
+        assertThat(save.getMeanFlushes()).isGreaterThanOrEqualTo(1);
+
+        memberRepository.deleteAll(memberRepository.findByUsername("profilerTx"));
+    }
+
+    @Test
+    public void endpoint() throws Exception {
+        mockMvc.perform(get("/v1/members?page=0&size=5")).andExpect(status().isOk());
+
+        PersistenceContextEndpoint.Report report = endpoint.persistenceContext();
+
+        PersistenceContextEndpoint.UnitStats list = report.getEndpoints().stream()
+                .filter(stats -> stats.getName().equals("GET /v1/members"))
+                .findFirst().get();
+        assertThat(list.getCount()).isPositive();
+        assertThat(list.getMaxEntityLoads()).isEqualTo(5);
+        assertThat(report.getHibernate().isEnabled()).isTrue();
+        assertThat(report.getHibernate().getEntityLoadsByName()).containsKey(Member.class.getName());
+    }
+}
@@ -0,0 +1,155 @@
+package study.datajpa.monitor;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// N+1 을 재현해야 하므로 batch fetch 끔 (batch size 1)
+@SpringBootTest(properties = {"datajpa.query-budget.mode=fail",
+        "spring.jpa.properties.hibernate.default_batch_fetch_size=1",
+        "datajpa.batch-fetch.associations[Member.team]=1"})
+@AutoConfigureMockMvc
+@Transactional
+@Import(QueryBudgetTest.NPlusOneController.class)
+class QueryBudgetTest {
+
+    @Autowired MockMvc mockMvc;
+    @Autowired MemberRepository memberRepository;
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Test
+    public void detectNPlusOne() {
+        // given
+        saveMembersWithTeams();
+
+        // when
+        QueryScope scope = QueryCounter.open("lazy team");
+        try (scope) {
+            for (Member member : memberRepository.findMemberCustom()) {
+                if (member.getTeam() != null) {
+                    member.getTeam().getName();     // team 마다 select
+                }
+            }
+        }
+
+        // then
+        assertThat(scope.getCount()).isEqualTo(4);
+        assertThat(scope.getRepeatedSelects(3)).hasSize(1);
+    }
+
+    @Test
+    public void withinBudget() throws Exception {
+        mockMvc.perform(get("/v2/members"))
+                .andExpect(status().isOk());
+        // MemberDto 에 없는 Member 속성으로 정렬
+        mockMvc.perform(get("/v2/members").param("sort", "age,desc").param("page", "1"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void exceedBudget() {
+        saveMembersWithTeams();
+
+        assertThatThrownBy(() -> mockMvc.perform(get("/test/n-plus-one")))
+                .hasRootCauseInstanceOf(QueryBudgetExceededException.class);
+    }
+
+    @Test
+    public void repositoryExceptionWins() {
+        // given: 같은 select 3번 (N+1) 후 repository 자체 예외
+        QueryBudgetProperties properties = new QueryBudgetProperties();
+        properties.setMode(QueryBudgetProperties.Mode.FAIL);
+        ProxyFactory proxyFactory = new ProxyFactory((Runnable) () -> {
+            for (int i = 0; i < 3; i++) {
+                QueryCounter.record("select * from member where member_id = ?");
+            }
+            throw new IllegalStateException("constraint violation");
+        });
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("enforcer", new QueryBudgetEnforcer(properties));
+        proxyFactory.addAdvice(new QueryCountRepositoryInterceptor(Runnable.class, beanFactory.getBeanProvider(QueryBudgetEnforcer.class)));
+        Runnable repository = (Runnable) proxyFactory.getProxy();
+
+        // when
+        Throwable thrown = catchThrowable(repository::run);
+
+        // then
+        assertThat(thrown).isInstanceOf(IllegalStateException.class).hasMessage("constraint violation");
+        assertThat(thrown.getSuppressed()).hasSize(1).hasOnlyElementsOfType(QueryBudgetExceededException.class);
+    }
+
+    @Test
+    public void allowRepeatedSelects() {
+        // given: chunk 마다 같은 select 를 반복하는 repository 메서드
+        QueryBudgetProperties properties = new QueryBudgetProperties();
+        properties.setMode(QueryBudgetProperties.Mode.FAIL);
+        ProxyFactory proxyFactory = new ProxyFactory((ChunkRepository) () -> {
+            for (int i = 0; i < 3; i++) {
+                QueryCounter.record("select member_id from member where member_id > ? limit ?");
+            }
+        });
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("enforcer", new QueryBudgetEnforcer(properties));
+        proxyFactory.addAdvice(new QueryCountRepositoryInterceptor(ChunkRepository.class, beanFactory.getBeanProvider(QueryBudgetEnforcer.class)));
+        ChunkRepository repository = (ChunkRepository) proxyFactory.getProxy();
+
+        // when, then: @QueryBudget(allowRepeatedSelects = true) 이면 N+1 로 보지 않음
+        repository.chunks();
+    }
+
+    interface ChunkRepository {
+
+        @QueryBudget(value = QueryBudgetEnforcer.UNLIMITED, allowRepeatedSelects = true)
+        void chunks();
+    }
+
+    private void saveMembersWithTeams() {
+        for (int i = 0; i < 3; i++) {
+            Team team = new Team("team" + i);
+            em.persist(team);
+            em.persist(new Member("member" + i, 10, team));
+        }
+        em.flush();
+        em.clear();
+        em.getEntityManagerFactory().getCache().evictAll();
+    }
+
+    @TestConfiguration
+    @RestController
+    static class NPlusOneController {
+
+        @Autowired MemberRepository memberRepository;
+
+        @QueryBudget(2)
+        @GetMapping("/test/n-plus-one")
+        public int teamNames() {
+            List<Member> members = memberRepository.findMemberCustom();
+            members.stream().filter(m -> m.getTeam() != null).forEach(m -> m.getTeam().getName());
+            return members.size();
+        }
+    }
+}
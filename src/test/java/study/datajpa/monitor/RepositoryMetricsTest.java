@@ -0,0 +1,127 @@
+package study.datajpa.monitor;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+@SpringBootTest
+@Transactional
+class RepositoryMetricsTest {
+
+    // 컨텍스트(MeterRegistry)를 다른 테스트와 공유하므로 호출 전후 차이로 검증
+    private static final Tags TAGS = Tags.of("repository", "MemberRepository", "entity", "Member",
+            "method", "findByUsernameAndAgeGreaterThan", "outcome", "SUCCESS");
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired MeterRegistry registry;
+    @Autowired RepositoryMetricsEndpoint endpoint;
+
+    @Test
+    public void recordInvocation() {
+        // given
+        memberRepository.save(new Member("metricsA", 10));
+        memberRepository.save(new Member("metricsA", 20));
+        memberRepository.findByUsernameAndAgeGreaterThan("metricsA", 0);
+
+        DistributionSummary rows = registry.get(RepositoryMetricsInterceptor.ROWS).tags(TAGS).summary();
+        long count = rows.count();
+        double totalRows = rows.totalAmount();
+
+        // when
+        memberRepository.findByUsernameAndAgeGreaterThan("metricsA", 0);
+
+        // then
+        assertThat(rows.count()).isEqualTo(count + 1);
+        assertThat(rows.totalAmount() - totalRows).isEqualTo(2);
+        assertThat(registry.get(RepositoryMetricsInterceptor.PERSISTENCE_CONTEXT).tags(TAGS).summary().max())
+                .isGreaterThanOrEqualTo(2);
+
+        assertThat(endpoint.repositories())
+                .anyMatch(stats -> stats.getMethod().equals("findByUsernameAndAgeGreaterThan")
+                        && stats.getCount() >= 2);
+    }
+
+    @Test
+    public void separateOverloads() {
+        // when
+        memberRepository.findAll();
+        memberRepository.findAll(Sort.by("username"));
+
+        // then: 메서드 이름이 같아도 시그니처별로 따로 기록
+        assertThat(registry.get(RepositoryMetricsInterceptor.INVOCATIONS)
+                .tags("method", "findAll", "signature", "findAll()").timer().count()).isPositive();
+        assertThat(registry.get(RepositoryMetricsInterceptor.INVOCATIONS)
+                .tags("method", "findAll", "signature", "findAll(Sort)").timer().count()).isPositive();
+        assertThat(registry.get(RepositoryMetricsInterceptor.INVOCATIONS).tags("method", "findAll").timers().size())
+                .isGreaterThanOrEqualTo(2);
+    }
+
+    @Test
+    public void recordFutureRows() {
+        // given
+        memberRepository.findMemberDtoPage(PageRequest.of(0, 2)).join();
+        DistributionSummary rows = registry.get(RepositoryMetricsInterceptor.ROWS)
+                .tags("signature", "findMemberDtoPage(Pageable)", "outcome", "SUCCESS").summary();
+        long count = rows.count();
+        double totalRows = rows.totalAmount();
+
+        // when
+        Page<MemberDto> page = memberRepository.findMemberDtoPage(PageRequest.of(0, 2)).join();
+
+        // then: 완료된 결과(Page)의 건수로 기록 (완료 콜백은 join 이 돌아온 뒤 실행될 수 있음)
+        System.out.println("page = " + page.getContent());
+        awaitCount(rows::count, count + 1);
+        assertThat(rows.count()).isEqualTo(count + 1);
+        assertThat(rows.totalAmount() - totalRows).isEqualTo(page.getNumberOfElements());
+    }
+
+    @Test
+    public void recordFutureFailure() {
+        // given
+        Tags signature = Tags.of("signature", "findMemberDtoPage(Pageable)");
+        memberRepository.findMemberDtoPage(PageRequest.of(0, 2)).join();
+        Timer success = registry.get(RepositoryMetricsInterceptor.INVOCATIONS).tags(signature).tag("outcome", "SUCCESS").timer();
+        long successCount = success.count();
+        long errorCount = errorCount(signature);
+
+        // when: 작업 스레드에서 실패 (정렬 속성이 없음)
+        Throwable failure = catchThrowable(() -> memberRepository.findMemberDtoPage(
+                PageRequest.of(0, 2, Sort.by("noSuchProperty"))).join());
+
+        // then: 제출 시점이 아니라 완료 결과로 ERROR 기록
+        assertThat(failure).isInstanceOf(CompletionException.class);
+        awaitCount(() -> errorCount(signature), errorCount + 1);
+        assertThat(errorCount(signature)).isEqualTo(errorCount + 1);
+        assertThat(success.count()).isEqualTo(successCount);
+    }
+
+    private long errorCount(Tags signature) {
+        Timer error = registry.find(RepositoryMetricsInterceptor.INVOCATIONS).tags(signature).tag("outcome", "ERROR").timer();
+        return error == null ? 0 : error.count();
+    }
+
+    private static void awaitCount(LongSupplier count, long expected) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (count.getAsLong() < expected && System.nanoTime() - deadline < 0) {
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package study.datajpa.projection;
+
+import lombok.Getter;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mapping.PropertyReferenceException;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest
+@Transactional
+class DtoQueryExecutorTest {
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired DtoQueryExecutor dtoQueryExecutor;
+    @Autowired EntityManager em;
+
+    @BeforeEach
+    void setUp() {
+        Team teamA = new Team("dtoTeamA");
+        em.persist(teamA);
+        em.persist(new Member("dtoB", 10, teamA));
+        em.persist(new Member("dtoA", 20, teamA));
+        em.persist(new Member("dtoC", 30));     // 팀 없음
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    public void query() {
+        DtoProjection<MemberDto> projection = dtoQueryExecutor.projection(Member.class, MemberDto.class);
+
+        assertThat(projection.query(Sort.by("username")))
+                .isEqualTo("select new study.datajpa.dto.MemberDto(e.id, e.username, j1.name)"
+                        + " from Member e left join e.team j1 order by e.username asc");
+        assertThat(projection.countQuery()).isEqualTo("select count(e) from Member e");
+
+        // 페이지 조회: id 는 정렬에 필요한 join 만, DTO 는 그 id 들만
+        assertThat(projection.idQuery(Sort.by("username"))).isEqualTo("select e.id from Member e order by e.username asc");
+        assertThat(projection.idQuery(Sort.by("teamName"))).isEqualTo("select e.id from Member e left join e.team j1 order by j1.name asc");
+        assertThat(projection.pageQuery(Sort.by("age")))
+                .isEqualTo("select new study.datajpa.dto.MemberDto(e.id, e.username, j1.name)"
+                        + " from Member e left join e.team j1 where e.id in :ids order by e.age asc");
+    }
+
+    @Test
+    public void findDtoPage() {
+        Page<MemberDto> page = memberRepository.findDtoPage(MemberDto.class,
+                PageRequest.of(0, 100, Sort.by(Sort.Order.desc("teamName"), Sort.Order.asc("username"))));
+
+        assertThat(page.getContent())
+                .filteredOn(dto -> dto.getUsername().startsWith("dto"))
+                .extracting(MemberDto::getUsername, MemberDto::getTeamName)
+                .containsSubsequence(
+                        tuple("dtoA", "dtoTeamA"),
+                        tuple("dtoB", "dtoTeamA"))
+                .contains(tuple("dtoC", null));
+
+        // 엔티티를 만들지 않음
+        assertThat(em.unwrap(SessionImplementor.class).getPersistenceContext().getNumberOfManagedEntities()).isZero();
+    }
+
+    @Test
+    public void sortByEntityAttribute() {
+        // DTO 에 없는 속성은 엔티티 속성으로 정렬
+        Page<MemberDto> page = memberRepository.findDtoPage(MemberDto.class, PageRequest.of(0, 100, Sort.by(Sort.Order.desc("age"))));
+
+        assertThat(page.getContent())
+                .filteredOn(dto -> dto.getUsername().startsWith("dto"))
+                .extracting(MemberDto::getUsername)
+                .containsExactly("dtoC", "dtoA", "dtoB");
+    }
+
+    @Test
+    public void beyondLastPage() {
+        Page<MemberDto> page = memberRepository.findDtoPage(MemberDto.class, PageRequest.of(100_000, 5, Sort.by("username")));
+
+        assertThat(page.getContent()).isEmpty();
+        assertThat(page.getTotalElements()).isGreaterThanOrEqualTo(3);
+    }
+
+    @Test
+    public void invalidSort() {
+        assertThatThrownBy(() -> memberRepository.findDtoPage(MemberDto.class, PageRequest.of(0, 5, Sort.by("noSuchProperty"))))
+                .isInstanceOf(PropertyReferenceException.class);
+    }
+
+    @Test
+    public void collectionPathNotAllowed() {
+        assertThatThrownBy(() -> dtoQueryExecutor.projection(Team.class, TeamMemberNameDto.class))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("collection");
+    }
+
+    @Getter
+    public static class TeamMemberNameDto {
+
+        private final String name;
+        @ProjectionPath("members.username")
+        private final String memberName;
+
+        public TeamMemberNameDto(String name, String memberName) {
+            this.name = name;
+            this.memberName = memberName;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package study.datajpa.projection;
+
+import org.hibernate.engine.spi.SessionImplementor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.NestedClosedProjection;
+import study.datajpa.repository.UsernameOnly;
+import study.datajpa.repository.UsernameOnlyDto;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class ProjectionQueryExecutorTest {
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired ProjectionQueryExecutor projectionQueryExecutor;
+    @Autowired EntityManager em;
+
+    @BeforeEach
+    void setUp() {
+        Team teamA = new Team("projectionTeamA");
+        em.persist(teamA);
+        em.persist(new Member("projectionA", 10, teamA));
+        em.persist(new Member("projectionB", 20));     // 팀 없음
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    public void spelToClosedProjection() {
+        ClosedProjection<UsernameOnly> projection = projectionQueryExecutor.projection(Member.class, UsernameOnly.class).get();
+        assertThat(projection.query("e.username = :username"))
+                .isEqualTo("select e.username, e.age from Member e where e.username = :username");
+
+        List<UsernameOnly> result = memberRepository.findProjectionByUsername("projectionA");
+
+        assertThat(result).extracting(UsernameOnly::getUsername).containsExactly("projectionA 10");
+        assertThat(managedEntities()).isZero();
+
+        // 스프링 SpEL proxy 와 같은 값
+        Member member = memberRepository.findByUsername("projectionA").get(0);
+        UsernameOnly spring = new SpelAwareProxyProjectionFactory().createProjection(UsernameOnly.class, member);
+        assertThat(result.get(0).getUsername()).isEqualTo(spring.getUsername());
+        System.out.println("result = " + result);
+    }
+
+    @Test
+    public void nullUsername() {
+        // given
+        em.persist(new Member(null, 30));
+        em.flush();
+        em.clear();
+
+        // when: username 이 null 인 회원
+        List<UsernameOnly> result = memberRepository.findProjectionByUsername(null);
+
+        // then
+        assertThat(result).extracting(UsernameOnly::getUsername).contains("null 30");
+    }
+
+    @Test
+    public void nestedProjection() {
+        List<NestedClosedProjection> withTeam = memberRepository.findProjectionDtoByUsername("projectionA", NestedClosedProjection.class);
+        List<NestedClosedProjection> withoutTeam = memberRepository.findProjectionDtoByUsername("projectionB", NestedClosedProjection.class);
+
+        assertThat(withTeam.get(0).getTeam().getName()).isEqualTo("projectionTeamA");
+        assertThat(withoutTeam.get(0).getUsername()).isEqualTo("projectionB");
+        assertThat(withoutTeam.get(0).getTeam()).isNull();
+        assertThat(projectionQueryExecutor.projection(Member.class, NestedClosedProjection.class).get().getFromClause())
+                .isEqualTo(" from Member e left join e.team j1");
+    }
+
+    @Test
+    public void classProjection() {
+        List<UsernameOnlyDto> result = memberRepository.findProjectionDtoByUsername("projectionA", UsernameOnlyDto.class);
+
+        assertThat(result).extracting(UsernameOnlyDto::getUsername).containsExactly("projectionA");
+        assertThat(managedEntities()).isZero();
+    }
+
+    @Test
+    public void equalsAndHashCode() {
+        List<UsernameOnly> first = memberRepository.findProjectionByUsername("projectionA");
+        List<UsernameOnly> second = memberRepository.findProjectionByUsername("projectionA");
+
+        assertThat(first.get(0)).isEqualTo(second.get(0));
+        assertThat(first.get(0).hashCode()).isEqualTo(second.get(0).hashCode());
+    }
+
+    // 메서드 호출이 있는 SpEL 은 바꾸지 않고 엔티티 + 스프링 SpEL proxy 로 조회
+    @Test
+    public void fallbackToSpelProxy() {
+        assertThat(projectionQueryExecutor.projection(Member.class, UpperUsername.class)).isEmpty();
+
+        List<UpperUsername> result = projectionQueryExecutor.findAll(Member.class, UpperUsername.class,
+                "e.username = :username", Map.of("username", "projectionA"));
+
+        assertThat(result).extracting(UpperUsername::getUsername).containsExactly("PROJECTIONA");
+    }
+
+    private int managedEntities() {
+        return em.unwrap(SessionImplementor.class).getPersistenceContext().getNumberOfManagedEntities();
+    }
+
+    public interface UpperUsername {
+
+        @Value("#{target.username.toUpperCase()}")
+        String getUsername();
+    }
+}
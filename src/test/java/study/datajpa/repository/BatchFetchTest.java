@@ -0,0 +1,93 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.collection.AbstractCollectionPersister;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.monitor.QueryCounter;
+import study.datajpa.monitor.QueryScope;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceContext;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class BatchFetchTest {
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired TeamRepository teamRepository;
+    @Autowired EntityManagerFactory emf;
+
+    @PersistenceContext
+    EntityManager em;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 10; i++) {
+            Team team = teamRepository.save(new Team("batchTeam" + i));
+            memberRepository.save(new Member("batchFetch", i, team));
+            memberRepository.save(new Member("batchFetch", i + 10, team));
+        }
+        em.flush();
+        em.clear();
+        emf.getCache().evictAll();
+    }
+
+    @Test
+    public void memberTeam() {
+        List<Member> members = memberRepository.findByUsername("batchFetch");
+
+        // when: 팀 10개 -> IN (...) 한 번
+        try (QueryScope scope = QueryCounter.open("memberTeam")) {
+            members.forEach(member -> member.getTeam().getName());
+            System.out.println("statements = " + scope.getStatements());
+            assertThat(scope.getCount()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    public void teamMembers() {
+        List<Team> teams = teamRepository.findAll(PageRequest.of(0, 10, Sort.by("name"))).getContent();
+
+        try (QueryScope scope = QueryCounter.open("teamMembers")) {
+            teams.forEach(team -> team.getMembers().size());
+            assertThat(scope.getCount()).isEqualTo(1);
+        }
+    }
+
+    // datajpa.batch-fetch.associations 설정이 default_batch_fetch_size 보다 우선
+    @Test
+    public void associationBatchSize() {
+        AbstractCollectionPersister persister = (AbstractCollectionPersister) emf.unwrap(SessionFactoryImplementor.class)
+                .getMetamodel().collectionPersister(Team.class.getName() + ".members");
+        assertThat(persister.getBatchSize()).isEqualTo(50);
+    }
+
+    @Test
+    public void nestedClosedProjection() {
+        // when: 중첩 projection(TeamInfo) 은 team 을 left join 해서 같은 쿼리로 조회 (ClosedProjection)
+        List<NestedClosedProjection> result;
+        try (QueryScope scope = QueryCounter.open("nestedClosedProjection")) {
+            result = memberRepository.findProjectionDtoByUsername("batchFetch", NestedClosedProjection.class);
+            assertThat(scope.getCount()).isEqualTo(1);
+        }
+
+        // then: 팀 이름을 읽어도 지연 로딩 (batch fetch 포함) 쿼리 없음
+        try (QueryScope scope = QueryCounter.open("nestedClosedProjectionTeam")) {
+            result.forEach(projection -> projection.getTeam().getName());
+            assertThat(scope.getCount()).isZero();
+        }
+        assertThat(result).hasSize(20);
+    }
+}
@@ -0,0 +1,80 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@Transactional
+class BatchInsertRepositoryTest {
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired TeamRepository teamRepository;
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Test
+    public void saveAllBatched() {
+        // given
+        List<Team> teams = List.of(new Team("teamA"), new Team("teamB"));
+        teamRepository.saveAllBatched(teams, 10);
+
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            members.add(new Member("batch" + i, i, teams.get(i % 2)));
+        }
+        long before = memberRepository.count();
+
+        // when
+        long saved = memberRepository.saveAllBatched(members, 100);
+
+        // then
+        assertThat(saved).isEqualTo(250);
+        assertThat(memberRepository.count()).isEqualTo(before + 250);
+        assertThat(members).allMatch(member -> member.getId() != null);
+        assertThat(em.contains(members.get(0))).isFalse();  // flush 후 준영속
+    }
+
+    @Test
+    public void callerEntitiesStayManaged() {
+        // given: 호출한 쪽 트랜잭션이 관리 중인 팀
+        Team team = new Team("managed");
+        em.persist(team);
+        List<Member> members = List.of(new Member("m1", 10, team), new Member("m2", 20, team));
+        em.flush();     // team.members 에 추가한 것도 호출한 쪽의 변경
+
+        // when
+        memberRepository.saveAllBatched(members, 1);
+
+        // then: 저장한 엔티티만 준영속, 팀은 계속 관리 (변경 감지 동작)
+        assertThat(em.contains(team)).isTrue();
+        assertThat(members).noneMatch(em::contains);
+        team.setName("renamed");
+        em.flush();
+        em.clear();
+        assertThat(em.find(Team.class, team.getId()).getName()).isEqualTo("renamed");
+    }
+
+    @Test
+    public void rejectUnflushedChanges() {
+        Team team = new Team("unflushed");
+        em.persist(team);
+
+        assertThatThrownBy(() -> memberRepository.saveAllBatched(List.of(new Member("m1", 10, team)), 10))
+                .isInstanceOf(InvalidDataAccessApiUsageException.class)
+                .hasRootCauseInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,104 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.dto.MemberSearchCondition;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@Transactional
+class CompiledSpecificationCacheTest {
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired CompiledSpecificationCache specificationCache;
+    @Autowired EntityManager em;
+
+    @BeforeEach
+    void setUp() {
+        Team teamA = new Team("specTeamA");
+        Team teamB = new Team("specTeamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        em.persist(new Member("specA", 10, teamA));
+        em.persist(new Member("specA", 20, teamB));
+        em.persist(new Member("specB", 30, teamA));
+        em.persist(new Member("specC", 40, teamB));
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    public void sameResultAsCriteria() {
+        PageRequest pageable = PageRequest.of(0, 1, Sort.by("username", "age"));
+        List<MemberSearchCondition> conditions = List.of(
+                new MemberSearchCondition("specA", null),
+                new MemberSearchCondition(null, "specTeamA"),
+                new MemberSearchCondition("specA", "specTeamB"),
+                new MemberSearchCondition("", "specTeamB"));
+
+        for (MemberSearchCondition condition : conditions) {
+            Page<Member> compiled = memberRepository.search(condition, pageable);
+            Page<Member> criteria = memberRepository.findAll(MemberSpec.condition(condition), pageable);
+
+            System.out.println(condition + " -> " + compiled.getContent() + " / " + compiled.getTotalElements());
+            assertThat(compiled.getContent()).isEqualTo(criteria.getContent());
+            assertThat(compiled.getTotalElements()).isEqualTo(criteria.getTotalElements());
+        }
+    }
+
+    @Test
+    public void renderOncePerShape() {
+        PageRequest pageable = PageRequest.of(0, 1, Sort.by("age"));
+        memberRepository.search(new MemberSearchCondition("specA", "specTeamA"), pageable);
+        int size = specificationCache.size();
+        long misses = specificationCache.getMisses();
+        long hits = specificationCache.getHits();
+
+        // when: 값만 다른 같은 모양
+        Page<Member> page = memberRepository.search(new MemberSearchCondition("specC", "specTeamB"), pageable);
+
+        // then
+        assertThat(page.getContent()).extracting(Member::getUsername).containsExactly("specC");
+        assertThat(specificationCache.size()).isEqualTo(size);
+        assertThat(specificationCache.getMisses()).isEqualTo(misses);
+        assertThat(specificationCache.getHits()).isGreaterThan(hits);
+    }
+
+    @Test
+    public void literalNotAllowed() {
+        ShapedSpecification<Member> literal = new ShapedSpecification<>() {
+            @Override
+            public Object shape() {
+                return "literal";
+            }
+
+            @Override
+            public Specification<Member> toSpecification() {
+                return MemberSpec.username("specA");
+            }
+
+            @Override
+            public Map<String, Object> parameters() {
+                return Map.of();
+            }
+        };
+
+        assertThatThrownBy(() -> specificationCache.findAll(Member.class, literal, Sort.unsorted()))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
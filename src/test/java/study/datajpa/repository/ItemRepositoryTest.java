@@ -3,17 +3,62 @@ package study.datajpa.repository;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
 import study.datajpa.entity.Item;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
 @SpringBootTest
+@Transactional
 class ItemRepositoryTest {
 
     @Autowired ItemRepository itemRepository;
 
+    @PersistenceContext
+    EntityManager em;
+
     @Test
     public void save() {
         Item item = new Item("A");
         itemRepository.save(item);
+
+        // persist 된 같은 인스턴스 (merge 였다면 select 후 복사본 반환)
+        assertThat(em.contains(item)).isTrue();
+        assertThat(itemRepository.findById("A")).contains(item);
     }
 
-}
\ No newline at end of file
+    @Test
+    public void saveAllBatched() {
+        List<Item> items = newItems("batch", 250);
+
+        long saved = itemRepository.saveAllBatched(items, 100);
+
+        assertThat(saved).isEqualTo(250);
+        assertThat(itemRepository.count()).isEqualTo(250);
+    }
+
+    @Test
+    public void insertIgnoringDuplicates() {
+        itemRepository.saveAllBatched(newItems("dup", 3), 10);
+
+        List<Item> items = newItems("dup", 5);
+        List<String> duplicates = itemRepository.insertIgnoringDuplicates(items, 2);
+
+        assertThat(duplicates).containsExactly("dup0", "dup1", "dup2");
+        assertThat(itemRepository.count()).isEqualTo(5);
+        assertThat(itemRepository.findById("dup4").get().isNew()).isFalse();
+    }
+
+    private List<Item> newItems(String prefix, int count) {
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            items.add(new Item(prefix + i));
+        }
+        return items;
+    }
+}
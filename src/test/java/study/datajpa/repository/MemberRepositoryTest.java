@@ -6,6 +6,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.*;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.dto.MemberCursor;
 import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
 import study.datajpa.entity.MemberProjection;
@@ -13,9 +14,14 @@ import study.datajpa.entity.Team;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -223,6 +229,42 @@ public class MemberRepositoryTest {
 
     }
 
+    @Test
+    public void keysetPaging() {
+        // given
+        memberRepository.save(new Member("member1", 10));
+        memberRepository.save(new Member("member1", 20));
+        memberRepository.save(new Member("member2", 10));
+        memberRepository.save(new Member("member3", 10));
+        // username 이 null 인 회원도 (커서에 "null" 문자열이 아니라 null 로)
+        for (int i = 0; i < 4; i++) {
+            memberRepository.save(new Member(null, 10));
+        }
+
+        // when
+        List<Member> all = new ArrayList<>();
+        MemberCursor cursor = null;
+        Slice<Member> slice;
+        do {
+            slice = memberRepository.findKeyset(cursor, 3);
+            all.addAll(slice.getContent());
+            if (slice.hasContent()) {
+                cursor = MemberCursor.decode(MemberCursor.of(slice.getContent().get(slice.getNumberOfElements() - 1)).encode());
+            }
+        } while (slice.hasNext());
+
+        // then: nulls first, (username, id) 순
+        assertThat(all.size()).isEqualTo(memberRepository.count());
+        assertThat(all).extracting(Member::getUsername).filteredOn(Objects::isNull).hasSizeGreaterThanOrEqualTo(4);
+        Comparator<Member> order = Comparator.comparing(Member::getUsername, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(Member::getId);
+        for (int i = 1; i < all.size(); i++) {
+            assertThat(order.compare(all.get(i - 1), all.get(i))).isNegative();
+        }
+        assertThat(MemberCursor.decode(new MemberCursor(null, 1L).encode()).getUsername()).isNull();
+        assertThat(MemberCursor.decode(new MemberCursor("null", 1L).encode()).getUsername()).isEqualTo("null");
+    }
+
     @Test
     public void bulkUpdate() {
 
@@ -433,6 +475,47 @@ public class MemberRepositoryTest {
         List<Member> result = memberRepository.findMemberCustom();
     }
 
+    @Test
+    public void streamMembers() {
+        // given
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("m1", 10, teamA));
+        em.persist(new Member("m2", 20));
+        em.flush();
+        em.clear();
+
+        // when
+        List<Member> members;
+        try (Stream<Member> stream = memberRepository.streamMembers(100)) {
+            members = stream.collect(Collectors.toList());
+        }
+
+        // then
+        assertThat(members.size()).isEqualTo(memberRepository.count());
+        assertThat(members).noneMatch(em::contains);   // 읽은 뒤 evict 됨
+    }
+
+    @Test
+    public void streamMemberDto() {
+        // given
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("m1", 10, teamA));
+        em.flush();
+        em.clear();
+
+        // when
+        List<MemberDto> result;
+        try (Stream<MemberDto> stream = memberRepository.streamMemberDto()) {
+            result = stream.filter(dto -> "m1".equals(dto.getUsername())).collect(Collectors.toList());
+        }
+
+        // then
+        assertThat(result.size()).isEqualTo(1);
+        assertThat(result.get(0).getTeamName()).isEqualTo("teamA");
+    }
+
     @Test
     public void specBasic() {
 
@@ -0,0 +1,127 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.dto.MemberSearchCondition;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.monitor.QueryCounter;
+import study.datajpa.monitor.QueryScope;
+
+import javax.persistence.EntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.hasItems;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class MemberSearchTest {
+
+    @Autowired MockMvc mockMvc;
+    @Autowired MemberRepository memberRepository;
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired EntityManager em;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 10; i++) {
+            Team team = new Team("searchTeam" + i);
+            em.persist(team);
+            for (int j = 0; j < 20; j++) {
+                em.persist(new Member("search" + j, 50_000 + j, team));
+            }
+        }
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    public void search() throws Exception {
+        mockMvc.perform(get("/v1/members/search")
+                        .param("teamName", "searchTeam3")
+                        .param("ageGoe", "50010")
+                        .param("ageLoe", "50014")
+                        .param("size", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(5))
+                .andExpect(jsonPath("$.content.length()").value(3))
+                .andExpect(jsonPath("$.content[0].username").value("search10"))
+                .andExpect(jsonPath("$.content[0].teamName").value("searchTeam3"));
+    }
+
+    @Test
+    public void searchTeamName() throws Exception {
+        // when: 팀 조건 없이 검색해도 팀 이름을 채움 (team fetch join, 추가 쿼리 없음)
+        QueryScope scope = QueryCounter.open("searchTeamName");
+        try (scope) {
+            mockMvc.perform(get("/v1/members/search")
+                            .param("username", "search7")
+                            .param("size", "20"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.totalElements").value(10))
+                    .andExpect(jsonPath("$.content[*].teamName", hasItems("searchTeam0", "searchTeam9")))
+                    .andExpect(jsonPath("$.content[*].teamName", everyItem(startsWith("searchTeam"))));
+        }
+
+        // then: content 쿼리 하나 (한 페이지에 다 들어오므로 count 생략)
+        assertThat(scope.getCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void searchInvalidSort() throws Exception {
+        mockMvc.perform(get("/v1/members/search").param("sort", "password"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void usernameIndex() {
+        String plan = explain(new MemberSearchCondition("search7", null), "search7", 5);
+
+        assertThat(plan).containsIgnoringCase("idx_member_username_id");
+    }
+
+    @Test
+    public void ageRangeIndex() {
+        String plan = explain(new MemberSearchCondition(null, null, 50_003, 50_004), 50_003, 50_004, 5);
+
+        assertThat(plan).containsIgnoringCase("idx_member_age_username");
+    }
+
+    @Test
+    public void teamAndAgeIndex() {
+        String plan = explain(new MemberSearchCondition(null, "searchTeam3", 50_003, 50_004), "searchTeam3", 50_003, 50_004, 5);
+
+        assertThat(plan).containsIgnoringCase("idx_team_name");
+        assertThat(plan).containsIgnoringCase("idx_member_team_age");
+    }
+
+    // 검색을 실행해서 나온 content 쿼리를 같은 파라미터로 EXPLAIN
+    private String explain(MemberSearchCondition condition, Object... parameters) {
+        QueryScope scope = QueryCounter.open("search");
+        try (scope) {
+            memberRepository.search(condition, PageRequest.of(0, 5, Sort.by("username")));
+        }
+        String sql = scope.getStatements().keySet().stream()
+                .filter(statement -> statement.contains("order by"))
+                .findFirst()
+                .orElseThrow();
+
+        String plan = jdbcTemplate.queryForObject("explain " + sql, String.class, parameters);
+        System.out.println(condition + "\n" + plan);
+        return plan;
+    }
+}
@@ -0,0 +1,143 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.MemberProjection;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class PageCountCacheTest {
+
+    private static final int AGE = 777;
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired PageCountCache pageCountCache;
+    @Autowired TableStatistics tableStatistics;
+
+    @BeforeEach
+    void setUp() {
+        pageCountCache.evictAll();
+        for (int i = 0; i < 5; i++) {
+            memberRepository.save(new Member("member" + i, AGE));
+        }
+    }
+
+    @Test
+    public void lastPageSkipsCount() {
+        // when
+        Slice<Member> slice = memberRepository.findSliceByAge(AGE, PageRequest.of(1, 3, Sort.by("username")));
+        CountAwarePage<Member> page = pageCountCache.page(slice, PageCountCache.key("Member.countByAge", AGE), () -> {
+            throw new AssertionError("마지막 페이지는 count 쿼리를 실행하지 않음");
+        });
+
+        // then
+        assertThat(page.getContent().size()).isEqualTo(2);
+        assertThat(page.getTotalElements()).isEqualTo(5);
+        assertThat(page.isTotalExact()).isTrue();
+    }
+
+    @Test
+    public void cachedCount() {
+        AtomicInteger countQueries = new AtomicInteger();
+        String key = PageCountCache.key("Member.countByAge", AGE);
+        PageRequest firstPage = PageRequest.of(0, 3, Sort.by("username"));
+
+        // when
+        CountAwarePage<Member> first = pageCountCache.page(memberRepository.findSliceByAge(AGE, firstPage), key, () -> {
+            countQueries.incrementAndGet();
+            return memberRepository.countByAge(AGE);
+        });
+        CountAwarePage<Member> second = pageCountCache.page(memberRepository.findSliceByAge(AGE, firstPage), key, () -> {
+            countQueries.incrementAndGet();
+            return memberRepository.countByAge(AGE);
+        });
+
+        // then
+        assertThat(countQueries.get()).isEqualTo(1);
+        assertThat(first.getTotalElements()).isEqualTo(5);
+        assertThat(first.isTotalExact()).isTrue();
+        assertThat(second.getTotalElements()).isEqualTo(5);
+        assertThat(second.isTotalExact()).isFalse();
+        assertThat(second.getTotalPages()).isEqualTo(2);
+    }
+
+    @Test
+    public void estimatedCount() {
+        // when
+        Slice<MemberProjection> slice = memberRepository.findSliceByNativeProjection(PageRequest.of(0, 2));
+        CountAwarePage<MemberProjection> page = pageCountCache.estimated(slice, () -> tableStatistics.estimateRowCount("member"));
+
+        // then
+        assertThat(page.getContent().size()).isEqualTo(2);
+        assertThat(page.isTotalExact()).isFalse();
+        assertThat(page.getTotalElements()).isGreaterThanOrEqualTo(3);
+    }
+
+    @Test
+    public void beyondLastPage() {
+        // when: 5건인데 100 페이지 조회 -> 빈 페이지, offset 을 total 로 쓰지 않음
+        AtomicInteger countQueries = new AtomicInteger();
+        Slice<Member> slice = memberRepository.findSliceByAge(AGE, PageRequest.of(100, 5, Sort.by("username")));
+        CountAwarePage<Member> page = pageCountCache.page(slice, PageCountCache.key("Member.countByAge", AGE), () -> {
+            countQueries.incrementAndGet();
+            return memberRepository.countByAge(AGE);
+        });
+
+        // then
+        assertThat(page.getContent()).isEmpty();
+        assertThat(countQueries.get()).isEqualTo(1);
+        assertThat(page.getTotalElements()).isEqualTo(5);
+        assertThat(page.isTotalExact()).isTrue();
+    }
+
+    @Test
+    public void estimatedBeyondLastPage() {
+        // when
+        Slice<MemberProjection> slice = memberRepository.findSliceByNativeProjection(PageRequest.of(1_000_000, 5));
+        CountAwarePage<MemberProjection> page = pageCountCache.estimated(slice, () -> 42);
+
+        // then: offset(5,000,000) 이 아니라 추정치
+        assertThat(page.getContent()).isEmpty();
+        assertThat(page.getTotalElements()).isEqualTo(42);
+        assertThat(page.isTotalExact()).isFalse();
+    }
+
+    @Test
+    public void evictOldestWhenFull() throws Exception {
+        // given: 최대 2 개
+        PageCountProperties properties = new PageCountProperties();
+        properties.setCountCacheMaxEntries(2);
+        PageCountCache cache = new PageCountCache(properties);
+        Slice<Member> slice = memberRepository.findSliceByAge(AGE, PageRequest.of(0, 3, Sort.by("username")));
+        AtomicInteger countQueries = new AtomicInteger();
+        LongSupplier count = () -> {
+            countQueries.incrementAndGet();
+            return 5;
+        };
+        cache.page(slice, "a", count);
+        Thread.sleep(2);
+        cache.page(slice, "b", count);
+
+        // when: 가득 찬 상태에서 새 항목
+        cache.page(slice, "c", count);
+
+        // then: 가장 오래된 a 만 제거, b 는 그대로 캐시
+        assertThat(countQueries.get()).isEqualTo(3);
+        assertThat(cache.page(slice, "b", count).isTotalExact()).isFalse();
+        assertThat(cache.page(slice, "c", count).isTotalExact()).isFalse();
+        assertThat(countQueries.get()).isEqualTo(3);
+        assertThat(cache.page(slice, "a", count).isTotalExact()).isTrue();
+    }
+}
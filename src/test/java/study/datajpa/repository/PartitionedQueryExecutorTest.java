@@ -0,0 +1,281 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.data.jpa.domain.Specification;
+import study.datajpa.config.AsyncConfig;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.JoinType;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+// partition 은 다른 스레드의 트랜잭션에서 조회하므로 테스트 트랜잭션(롤백) 없이 실행
+@SpringBootTest
+class PartitionedQueryExecutorTest {
+
+    // 다른 데이터와 섞이지 않는 나이대 사용
+    private static final int BASE_AGE = 70_000;
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired TeamRepository teamRepository;
+    @Autowired PartitionedQueryProperties properties;
+    @Autowired EntityManager em;
+    @Autowired @Qualifier(AsyncConfig.REPOSITORY_EXECUTOR) AsyncTaskExecutor repositoryExecutor;
+
+    Team team;
+    List<Member> members = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        team = teamRepository.save(new Team("partitioned"));
+        for (int i = 0; i < 30; i++) {
+            members.add(new Member("partitioned" + i, BASE_AGE + i, i % 3 == 0 ? team : null));
+        }
+        memberRepository.saveAllBatched(members, 30);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        members.forEach(member -> memberRepository.deleteById(member.getId()));
+        teamRepository.deleteById(team.getId());
+    }
+
+    private Specification<Member> band() {
+        return (root, query, builder) -> builder.between(root.get("age"), BASE_AGE, BASE_AGE + 100);
+    }
+
+    private List<Long> ids() {
+        return members.stream().map(Member::getId).sorted().collect(Collectors.toList());
+    }
+
+    @Test
+    public void orderedStream() {
+        // when
+        List<Long> result;
+        try (Stream<Member> stream = memberRepository.streamPartitioned(band(), 4, true)) {
+            result = stream.map(Member::getId).collect(Collectors.toList());
+        }
+
+        // then: partition 순서대로 이어 붙이므로 id 순
+        assertThat(result).containsExactlyElementsOf(ids());
+    }
+
+    @Test
+    public void unorderedStreamWithFetch() {
+        // when: team 을 fetch 해두면 준영속 상태에서도 사용 가능
+        Specification<Member> fetchTeam = (root, query, builder) -> {
+            root.fetch("team", JoinType.LEFT);
+            return null;
+        };
+        List<Member> result;
+        try (Stream<Member> stream = memberRepository.streamPartitioned(band().and(fetchTeam), 3, false)) {
+            result = stream.collect(Collectors.toList());
+        }
+
+        // then
+        assertThat(result).extracting(Member::getId).containsExactlyInAnyOrderElementsOf(ids());
+        assertThat(result).filteredOn(member -> member.getTeam() != null)
+                .extracting(member -> member.getTeam().getName())
+                .hasSize(10)
+                .containsOnly("partitioned");
+    }
+
+    @Test
+    public void closeEarly() {
+        // when: 앞의 몇 건만 읽고 close -> 남은 partition 은 중단
+        List<Long> first;
+        try (Stream<Member> stream = memberRepository.streamPartitioned(band(), 4, true)) {
+            first = stream.limit(3).map(Member::getId).collect(Collectors.toList());
+        }
+
+        // then
+        assertThat(first).containsExactlyElementsOf(ids().subList(0, 3));
+        assertThat(memberRepository.aggregatePartitioned(band(), 4, Collectors.counting())).isEqualTo(30);
+    }
+
+    @Test
+    public void aggregate() {
+        // when
+        Long ageSum = memberRepository.aggregatePartitioned(band(), 4, Collectors.summingLong(Member::getAge));
+        Map<Boolean, Long> byTeam = memberRepository.aggregatePartitioned(band(), 4,
+                Collectors.partitioningBy(member -> member.getTeam() != null, Collectors.counting()));
+        List<String> usernames = memberRepository.aggregatePartitioned(band(), 4,
+                Collectors.mapping(Member::getUsername, Collectors.toList()));
+
+        // then
+        System.out.println("ageSum = " + ageSum + ", byTeam = " + byTeam);
+        assertThat(ageSum).isEqualTo(members.stream().mapToLong(Member::getAge).sum());
+        assertThat(byTeam).containsEntry(true, 10L).containsEntry(false, 20L);
+        assertThat(usernames).containsExactlyElementsOf(
+                members.stream().sorted((a, b) -> a.getId().compareTo(b.getId())).map(Member::getUsername).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void partitionFailure() {
+        // when: 한 partition 의 조회가 실패하면 호출한 쪽에서 예외
+        Throwable aggregateFailure = catchThrowable(() -> memberRepository.aggregatePartitioned(band(), 4,
+                Collectors.reducing(0, member -> {
+                    if (member.getAge() == BASE_AGE + 15) {
+                        throw new IllegalStateException("fail " + member.getId());
+                    }
+                    return member.getAge();
+                }, Integer::sum)));
+        Throwable streamFailure = catchThrowable(() -> {
+            try (Stream<Member> stream = memberRepository.streamPartitioned(
+                    (root, query, builder) -> builder.equal(root.get("noSuchAttribute"), 1), 2, false)) {
+                stream.count();
+            }
+        });
+
+        // then: repository 호출 예외는 DataAccessException 으로 변환됨
+        assertThat(aggregateFailure).hasRootCauseInstanceOf(IllegalStateException.class).hasMessageContaining("fail");
+        assertThat(streamFailure).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void abandonedStream() throws Exception {
+        // given: 버퍼가 금방 차도록
+        Duration stallTimeout = properties.getStallTimeout();
+        int bufferSize = properties.getBufferSize();
+        properties.setStallTimeout(Duration.ofMillis(300));
+        properties.setBufferSize(2);
+        try {
+            // when: 한 건만 읽고 close 하지 않은 채 버림
+            Stream<Member> stream = memberRepository.streamPartitioned(band(), 2, true);
+            Iterator<Member> iterator = stream.iterator();
+            iterator.next();
+            Thread.sleep(1000);
+
+            // then: 멈춘 partition 은 중단되고, 이후 읽으면 예외
+            Throwable failure = catchThrowable(() -> {
+                while (iterator.hasNext()) {
+                    iterator.next();
+                }
+            });
+            assertThat(failure).isInstanceOf(IllegalStateException.class).hasMessageContaining("not consumed");
+        } finally {
+            properties.setStallTimeout(stallTimeout);
+            properties.setBufferSize(bufferSize);
+        }
+
+        // 스레드, 커넥션이 반환됐으므로 다음 조회는 정상
+        assertThat(memberRepository.aggregatePartitioned(band(), 4, Collectors.counting())).isEqualTo(30);
+    }
+
+    @Test
+    public void slowOrderedConsumer() {
+        // given
+        Duration stallTimeout = properties.getStallTimeout();
+        int bufferSize = properties.getBufferSize();
+        properties.setStallTimeout(Duration.ofMillis(300));
+        properties.setBufferSize(2);
+        try {
+            int partitions = partitionsOf(15);
+
+            // when: 앞 partition 을 읽는 데 stallTimeout 보다 오래 걸림 (뒤 partition 버퍼는 그동안 가득 참)
+            List<Long> result;
+            try (Stream<Member> stream = memberRepository.streamPartitioned(band(), partitions, true)) {
+                result = stream.peek(member -> sleep(50)).map(Member::getId).collect(Collectors.toList());
+            }
+
+            // then: 계속 읽고 있으므로 중단되지 않음
+            assertThat(result).containsExactlyElementsOf(ids());
+        } finally {
+            properties.setStallTimeout(stallTimeout);
+            properties.setBufferSize(bufferSize);
+        }
+    }
+
+    @Test
+    public void slowFirstPartition() {
+        // given
+        Duration stallTimeout = properties.getStallTimeout();
+        int bufferSize = properties.getBufferSize();
+        properties.setStallTimeout(Duration.ofMillis(300));
+        properties.setBufferSize(2);
+        try {
+            // when: partition 마다 조회가 stallTimeout 보다 늦게 시작 -> consumer 는 row 없이 앞 partition 을 기다리는 동안
+            // 뒤 partition 버퍼가 가득 참
+            Specification<Member> slow = (root, query, builder) -> {
+                sleep(600);
+                return null;
+            };
+            List<Long> result;
+            try (Stream<Member> stream = memberRepository.streamPartitioned(band().and(slow), partitionsOf(15), true)) {
+                result = stream.map(Member::getId).collect(Collectors.toList());
+            }
+
+            // then: consumer 가 기다리고 있었으므로 중단되지 않음
+            assertThat(result).containsExactlyElementsOf(ids());
+        } finally {
+            properties.setStallTimeout(stallTimeout);
+            properties.setBufferSize(bufferSize);
+        }
+    }
+
+    @Test
+    public void aggregateFailureStopsOtherPartitions() {
+        // when: 첫 회원에서 실패, 다른 partition 은 row 마다 100ms
+        long start = System.nanoTime();
+        Throwable failure = catchThrowable(() -> memberRepository.aggregatePartitioned(band(), partitionsOf(15),
+                Collectors.reducing(0, member -> {
+                    if (member.getAge() == BASE_AGE) {
+                        throw new IllegalStateException("fail " + member.getId());
+                    }
+                    sleep(100);
+                    return member.getAge();
+                }, Integer::sum)));
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+        // then: 처음 실패한 예외, 다른 partition 은 끝까지 읽지 않고 중단 (15 건이면 1.5 초)
+        assertThat(failure).hasRootCauseInstanceOf(IllegalStateException.class).hasMessageContaining("fail");
+        assertThat(elapsedMillis).isLessThan(1000);
+        assertThat(memberRepository.aggregatePartitioned(band(), 4, Collectors.counting())).isEqualTo(30);
+    }
+
+    // 테이블 전체 id 구간을 나누므로, 구간 하나가 idsPerPartition 정도가 되도록 해서 30 건이 여러 partition 에 걸치게 함
+    private int partitionsOf(int idsPerPartition) {
+        Object[] minMax = (Object[]) em.createQuery("select min(m.id), max(m.id) from Member m").getSingleResult();
+        long span = (Long) minMax[1] - (Long) minMax[0] + 1;
+        int partitions = (int) ((span + idsPerPartition - 1) / idsPerPartition);
+        System.out.println("span = " + span + ", partitions = " + partitions);
+        return partitions;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    public void rejectOnRepositoryExecutor() {
+        // when: repositoryExecutor 작업 안에서 호출
+        Throwable failure = catchThrowable(() -> repositoryExecutor.submit(
+                () -> memberRepository.aggregatePartitioned(band(), 4, Collectors.counting())).get());
+
+        // then
+        assertThat(failure).isInstanceOf(ExecutionException.class)
+                .hasRootCauseInstanceOf(IllegalStateException.class);
+        assertThat(failure).getRootCause().hasMessageContaining(AsyncConfig.REPOSITORY_EXECUTOR);
+    }
+}
@@ -0,0 +1,70 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManagerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 2차 캐시는 커밋 시점에 반영되므로 테스트 트랜잭션(롤백) 없이 실행
+@SpringBootTest
+class SecondLevelCacheTest {
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired TeamRepository teamRepository;
+    @Autowired EntityManagerFactory emf;
+    @Autowired TransactionTemplate transactionTemplate;
+
+    Member member;
+    Team team;
+
+    @AfterEach
+    void cleanUp() {
+        memberRepository.deleteById(member.getId());
+        teamRepository.deleteById(team.getId());
+    }
+
+    @Test
+    public void lazyTeamLoadHitsCache() {
+        // given
+        team = teamRepository.save(new Team("teamA"));
+        member = memberRepository.save(new Member("member1", 30, team));
+        Cache cache = emf.getCache();
+        cache.evictAll();
+
+        // when
+        transactionTemplate.executeWithoutResult(status ->
+                memberRepository.findById(member.getId()).get().getTeam().getName());
+
+        // then
+        assertThat(cache.contains(Member.class, member.getId())).isTrue();
+        assertThat(cache.contains(Team.class, team.getId())).isTrue();
+    }
+
+    @Test
+    public void bulkUpdateEvictsMemberRegion() {
+        // given
+        team = teamRepository.save(new Team("teamA"));
+        member = memberRepository.save(new Member("member1", 30, team));
+        memberRepository.findById(member.getId());
+        teamRepository.findById(team.getId());
+
+        Cache cache = emf.getCache();
+        assertThat(cache.contains(Member.class, member.getId())).isTrue();
+
+        // when
+        transactionTemplate.executeWithoutResult(status -> memberRepository.bulkAgePlus(20));
+
+        // then
+        assertThat(cache.contains(Member.class, member.getId())).isFalse();
+        assertThat(cache.contains(Team.class, team.getId())).isTrue();
+        assertThat(memberRepository.findById(member.getId()).get().getAge()).isEqualTo(31);
+    }
+}